@@ -0,0 +1,83 @@
+package de.ovgu.featureide.sampling.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ovgu.featureide.sampling.util.CSVWriter;
+
+/**
+ * Measures {@link CSVWriter#flush()} for rows with the width of the data file.
+ * Each invocation adds the given number of rows and flushes them, as the
+ * framework does for each finished job.
+ * 
+ * @author Joshua Sprey
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CSVWriterBenchmark {
+
+	private static final int NUMBER_OF_COLUMNS = 26;
+
+	@Param({ "1", "100" })
+	public int rowsPerFlush;
+
+	private Path outputDirectory;
+	private List<String> row;
+	private CSVWriter writer;
+
+	@Benchmark
+	public void flush() {
+		for (int i = 0; i < rowsPerFlush; i++) {
+			writer.addLine(new ArrayList<>(row));
+		}
+		writer.flush();
+	}
+
+	@Setup(Level.Iteration)
+	public void setup() throws IOException {
+		outputDirectory = Files.createTempDirectory("csv_benchmark");
+		row = new ArrayList<>(NUMBER_OF_COLUMNS);
+		for (int i = 0; i < NUMBER_OF_COLUMNS; i++) {
+			row.add(Double.toString(i * 0.123));
+		}
+		final List<String> header = new ArrayList<>(NUMBER_OF_COLUMNS);
+		for (int i = 0; i < NUMBER_OF_COLUMNS; i++) {
+			header.add("Column" + i);
+		}
+		writer = new CSVWriter();
+		writer.setOutputPath(outputDirectory);
+		writer.setFileName("data.csv");
+		writer.setKeepLines(false);
+		writer.setHeader(header);
+		writer.flush();
+	}
+
+	@TearDown(Level.Iteration)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(outputDirectory.resolve("data.csv"));
+		Files.deleteIfExists(outputDirectory);
+	}
+
+}
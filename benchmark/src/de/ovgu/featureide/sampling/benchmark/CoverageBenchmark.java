@@ -0,0 +1,144 @@
+package de.ovgu.featureide.sampling.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationGenerator;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationTester;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.CoverageStatistic;
+import de.ovgu.featureide.sampling.eval.coverage.ParallelTWiseTester;
+import de.ovgu.featureide.sampling.modules.WriterModule;
+
+/**
+ * Measures the validity and coverage computation of
+ * {@link WriterModule#writeSamplesInfo}, which uses the tester created by
+ * {@link WriterModule#createTester(CNF, int, List, ForkJoinPool)}, and compares
+ * it with the {@link TWiseConfigurationTester} of FeatureIDE. Before the
+ * measurements, the setup verifies that both testers compute the same
+ * statistics.
+ * 
+ * @author Joshua Sprey
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class CoverageBenchmark {
+
+	@Param({ "50", "200" })
+	public int numberOfFeatures;
+
+	@Param({ "20", "100" })
+	public int sampleSize;
+
+	@Param({ "2", "3" })
+	public int t;
+
+	private CNF cnf;
+	private ForkJoinPool pool;
+	private List<LiteralSet> sample;
+
+	@Benchmark
+	public double coverage() {
+		final ParallelTWiseTester tester = WriterModule.createTester(cnf, t, sample, pool);
+		return tester.getCoverage().getCoverage();
+	}
+
+	private TWiseConfigurationTester createReferenceTester(List<LiteralSet> sample) {
+		final TWiseConfigurationTester tester = new TWiseConfigurationTester(cnf);
+		tester.setNodes(TWiseConfigurationGenerator.convertLiterals(cnf.getVariables().getLiterals()));
+		tester.setT(t);
+		tester.setSample(sample);
+		return tester;
+	}
+
+	@Benchmark
+	public double referenceCoverage() {
+		return createReferenceTester(sample).getCoverage().getCoverage();
+	}
+
+	@Benchmark
+	public double referenceValidity() {
+		return createReferenceTester(sample).getValidity().getValidInvalidRatio();
+	}
+
+	@Setup
+	public void setup() {
+		cnf = SyntheticModels.createCNF(SyntheticModels.createFeatureModel(numberOfFeatures, numberOfFeatures / 10, 1));
+		sample = SyntheticModels.createSample(cnf, sampleSize, 2);
+		pool = new ForkJoinPool();
+		verify();
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Benchmark
+	public double validity() {
+		final ParallelTWiseTester tester = WriterModule.createTester(cnf, t, sample, pool);
+		return tester.getValidity().getValidInvalidRatio();
+	}
+
+	/**
+	 * Checks that the tester of the framework computes the same coverage and
+	 * validity as the reference tester for the sample extended by a partial and a
+	 * modified configuration.
+	 *
+	 * @throws IllegalStateException If the statistics differ.
+	 */
+	private void verify() {
+		final List<LiteralSet> verificationSample = new ArrayList<>(sample);
+		verificationSample.add(new LiteralSet(new int[] { 1, -2, 3 }, Order.NATURAL, false));
+		final int[] modified = sample.get(0).getLiterals().clone();
+		for (int i = 0; i < modified.length; i += 3) {
+			modified[i] = -modified[i];
+		}
+		verificationSample.add(new LiteralSet(modified, Order.INDEX, false));
+
+		final ParallelTWiseTester tester = WriterModule.createTester(cnf, t, verificationSample, pool);
+		final TWiseConfigurationTester referenceTester = createReferenceTester(verificationSample);
+		final CoverageStatistic coverage = tester.getCoverage();
+		final CoverageStatistic referenceCoverage = referenceTester.getCoverage();
+		if (coverage.getNumberOfValidConditions() != referenceCoverage.getNumberOfValidConditions()
+				|| coverage.getNumberOfInvalidConditions() != referenceCoverage.getNumberOfInvalidConditions()
+				|| coverage.getNumberOfCoveredConditions() != referenceCoverage.getNumberOfCoveredConditions()
+				|| coverage.getNumberOfUncoveredConditions() != referenceCoverage.getNumberOfUncoveredConditions()) {
+			throw new IllegalStateException("Coverage differs from the reference tester: " + toString(coverage)
+					+ " instead of " + toString(referenceCoverage));
+		}
+		if (!Arrays.equals(tester.getValidity().getConfigValidities(),
+				referenceTester.getValidity().getConfigValidities())) {
+			throw new IllegalStateException("Validity differs from the reference tester");
+		}
+	}
+
+	private static String toString(CoverageStatistic coverage) {
+		return coverage.getNumberOfValidConditions() + " valid, " + coverage.getNumberOfInvalidConditions()
+				+ " invalid, " + coverage.getNumberOfCoveredConditions() + " covered, "
+				+ coverage.getNumberOfUncoveredConditions() + " uncovered";
+	}
+
+}
@@ -0,0 +1,91 @@
+package de.ovgu.featureide.sampling.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.AStabilityMetric;
+
+/**
+ * Compares the hash join of {@link AStabilityMetric#intersect(List, List)} with
+ * the pairwise comparison of all configurations that was used before.
+ * 
+ * @author Joshua Sprey
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IntersectBenchmark {
+
+	@Param({ "1000", "10000" })
+	public int sampleSize;
+
+	@Param({ "500" })
+	public int numberOfFeatures;
+
+	private List<BitSetConfiguration> sample1;
+	private List<BitSetConfiguration> sample2;
+
+	private BitSetConfiguration randomConfiguration(Random random) {
+		final BitSetConfiguration configuration = new BitSetConfiguration(numberOfFeatures);
+		for (int i = 0; i < numberOfFeatures; i++) {
+			if (random.nextBoolean()) {
+				configuration.set(i);
+			}
+		}
+		return configuration;
+	}
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(1);
+		sample1 = new ArrayList<>(sampleSize);
+		sample2 = new ArrayList<>(sampleSize);
+		for (int i = 0; i < sampleSize; i++) {
+			final BitSetConfiguration configuration = randomConfiguration(random);
+			sample1.add(configuration);
+			// half of the configurations are shared
+			sample2.add((i % 2) == 0 ? new BitSetConfiguration(configuration) : randomConfiguration(random));
+		}
+		Collections.shuffle(sample2, random);
+	}
+
+	@Benchmark
+	public Set<BitSetConfiguration> hashJoin() {
+		return AStabilityMetric.intersect(sample1, sample2);
+	}
+
+	@Benchmark
+	public int nestedLoop() {
+		int count = 0;
+		for (BitSetConfiguration conf1 : sample1) {
+			for (BitSetConfiguration conf2 : sample2) {
+				if (conf1.equals(conf2)) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+
+}
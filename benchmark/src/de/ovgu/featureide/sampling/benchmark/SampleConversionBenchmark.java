@@ -0,0 +1,55 @@
+package de.ovgu.featureide.sampling.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+
+/**
+ * Measures the conversion of a {@link SolutionList} returned by an algorithm
+ * into a {@link Sample} of literal arrays.
+ * 
+ * @author Joshua Sprey
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SampleConversionBenchmark {
+
+	@Param({ "100", "1000" })
+	public int numberOfFeatures;
+
+	@Param({ "50", "500" })
+	public int sampleSize;
+
+	private CNF cnf;
+	private SolutionList solutions;
+
+	@Setup
+	public void setup() {
+		cnf = SyntheticModels.createCNF(SyntheticModels.createFeatureModel(numberOfFeatures, numberOfFeatures / 10, 1));
+		solutions = SyntheticModels.toSolutionList(cnf, SyntheticModels.createSample(cnf, sampleSize, 2));
+	}
+
+	@Benchmark
+	public Sample toSample() {
+		return Sample.fromSolutionList(solutions, cnf.getVariables());
+	}
+
+}
@@ -0,0 +1,96 @@
+package de.ovgu.featureide.sampling.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
+import de.ovgu.featureide.sampling.eval.samplestability.CoreDeadCache;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.AStabilityMetric;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.FIMDC;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.ICSTMetric;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.MSOC;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.ROIC;
+
+/**
+ * Measures the stability metrics for two samples of the same synthetic model,
+ * of which the given share of configurations is identical. The core and dead
+ * features are computed once during setup, as in the framework.
+ * 
+ * @author Joshua Sprey
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StabilityMetricBenchmark {
+
+	@Param({ "100", "1000" })
+	public int numberOfFeatures;
+
+	@Param({ "50", "500" })
+	public int sampleSize;
+
+	@Param({ "0.5" })
+	public double stableShare;
+
+	private final CoreDeadCache coreDeadCache = new CoreDeadCache();
+	private IFeatureModelManager fm;
+	private Sample sampleNew;
+	private Sample sampleOld;
+
+	@Setup
+	public void setup() {
+		final IFeatureModel model = SyntheticModels.createFeatureModel(numberOfFeatures, numberOfFeatures / 10, 1);
+		fm = SyntheticModels.createManager(model);
+		final CNF cnf = SyntheticModels.createCNF(model);
+		final List<LiteralSet> sample = SyntheticModels.createSample(cnf, sampleSize, 2);
+		sampleOld = SyntheticModels.toSample(cnf, sample).omitNegatives();
+		sampleNew = SyntheticModels.toSample(cnf, SyntheticModels.evolveSample(cnf, sample, stableShare, 3))
+				.omitNegatives();
+		coreDeadCache.getCoreDead(fm);
+	}
+
+	private double analyze(AStabilityMetric metric) {
+		metric.setCoreDeadCache(coreDeadCache);
+		return metric.analyze(fm, sampleOld, fm, sampleNew);
+	}
+
+	@Benchmark
+	public double fimdc() {
+		return analyze(new FIMDC());
+	}
+
+	@Benchmark
+	public double icst() {
+		return analyze(new ICSTMetric());
+	}
+
+	@Benchmark
+	public double msoc() {
+		return analyze(new MSOC());
+	}
+
+	@Benchmark
+	public double roic() {
+		return analyze(new ROIC());
+	}
+
+}
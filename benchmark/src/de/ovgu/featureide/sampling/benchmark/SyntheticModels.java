@@ -0,0 +1,178 @@
+package de.ovgu.featureide.sampling.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.prop4j.And;
+import org.prop4j.Implies;
+import org.prop4j.Literal;
+import org.prop4j.Node;
+import org.prop4j.Not;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver.SelectionStrategy;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+import de.ovgu.featureide.fm.core.base.FeatureUtils;
+import de.ovgu.featureide.fm.core.base.IFeature;
+import de.ovgu.featureide.fm.core.base.IFeatureModel;
+import de.ovgu.featureide.fm.core.base.impl.DefaultFeatureModelFactory;
+import de.ovgu.featureide.fm.core.init.FMCoreLibrary;
+import de.ovgu.featureide.fm.core.init.LibraryManager;
+import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
+import de.ovgu.featureide.fm.core.io.manager.VirtualFeatureModelManager;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+
+/**
+ * Generates synthetic feature models and samples, such that the benchmarks run
+ * without any model files. All generators are deterministic for a given seed.
+ * 
+ * @author Joshua Sprey
+ */
+public final class SyntheticModels {
+
+	static {
+		// Necessary call for the FeatureIDE API
+		LibraryManager.registerLibrary(FMCoreLibrary.getInstance());
+	}
+
+	/**
+	 * Creates a feature model with a flat hierarchy. Every tenth feature is
+	 * mandatory, all other features are optional. Each constraint is either an
+	 * implication or an exclusion between two random optional features. Thus, the
+	 * model is never void, as deselecting all optional features satisfies every
+	 * constraint.
+	 * 
+	 * @param numberOfFeatures    Number of features below the root.
+	 * @param numberOfConstraints Number of cross-tree constraints.
+	 * @param seed                Seed for the random generator.
+	 * @return The feature model.
+	 */
+	public static IFeatureModel createFeatureModel(int numberOfFeatures, int numberOfConstraints, long seed) {
+		final Random random = new Random(seed);
+		final DefaultFeatureModelFactory factory = DefaultFeatureModelFactory.getInstance();
+		final IFeatureModel fm = factory.create();
+
+		final IFeature root = factory.createFeature(fm, "Root");
+		FeatureUtils.addFeature(fm, root);
+		FeatureUtils.setRoot(fm, root);
+		FeatureUtils.setAnd(root);
+
+		final List<String> optionalNames = new ArrayList<>(numberOfFeatures);
+		for (int i = 1; i <= numberOfFeatures; i++) {
+			final String name = "F" + i;
+			final IFeature feature = factory.createFeature(fm, name);
+			FeatureUtils.addFeature(fm, feature);
+			FeatureUtils.addChild(root, feature);
+			final boolean mandatory = (i % 10) == 0;
+			FeatureUtils.setMandatory(feature, mandatory);
+			if (!mandatory) {
+				optionalNames.add(name);
+			}
+		}
+
+		for (int i = 0; i < numberOfConstraints; i++) {
+			final String a = optionalNames.get(random.nextInt(optionalNames.size()));
+			final String b = optionalNames.get(random.nextInt(optionalNames.size()));
+			if (a.equals(b)) {
+				continue;
+			}
+			final Node constraint = random.nextBoolean() ? new Implies(new Literal(a), new Literal(b))
+					: new Not(new And(new Literal(a), new Literal(b)));
+			FeatureUtils.addConstraint(fm, factory.createConstraint(fm, constraint));
+		}
+		return fm;
+	}
+
+	/**
+	 * @param fm The feature model.
+	 * @return A manager for the feature model that is not backed by a file.
+	 */
+	public static IFeatureModelManager createManager(IFeatureModel fm) {
+		return new VirtualFeatureModelManager(fm);
+	}
+
+	/**
+	 * @param fm The feature model.
+	 * @return The feature model in conjunctive normal form.
+	 */
+	public static CNF createCNF(IFeatureModel fm) {
+		return new FeatureModelFormula(fm).getCNF();
+	}
+
+	/**
+	 * Creates a sample of distinct valid configurations by asking a SAT solver
+	 * with random variable order and random polarity for solutions.
+	 * 
+	 * @param cnf  The model.
+	 * @param size The maximum number of configurations.
+	 * @param seed Seed for the random generator.
+	 * @return The configurations.
+	 */
+	public static List<LiteralSet> createSample(CNF cnf, int size, long seed) {
+		final Random random = new Random(seed);
+		final AdvancedSatSolver solver = new AdvancedSatSolver(cnf);
+		solver.setSelectionStrategy(SelectionStrategy.RANDOM);
+
+		final List<LiteralSet> sample = new ArrayList<>(size);
+		// give up after a number of duplicates, small models have few solutions
+		int attempts = size * 10;
+		while ((sample.size() < size) && (attempts-- > 0)) {
+			solver.shuffleOrder(random);
+			if (solver.hasSolution() == SatResult.TRUE) {
+				final int[] solution = solver.getSolution();
+				final LiteralSet configuration = new LiteralSet(Arrays.copyOf(solution, solution.length),
+						Order.INDEX, false);
+				if (!sample.contains(configuration)) {
+					sample.add(configuration);
+				}
+			}
+		}
+		return sample;
+	}
+
+	/**
+	 * Creates a successor of a sample that contains the given share of the
+	 * original configurations and new configurations for the rest.
+	 * 
+	 * @param cnf         The model.
+	 * @param sample      The original sample.
+	 * @param stableShare Share of configurations that are kept (0 to 1).
+	 * @param seed        Seed for the random generator.
+	 * @return The new configurations.
+	 */
+	public static List<LiteralSet> evolveSample(CNF cnf, List<LiteralSet> sample, double stableShare, long seed) {
+		final int kept = (int) Math.round(sample.size() * stableShare);
+		final List<LiteralSet> evolved = new ArrayList<>(sample.subList(0, kept));
+		evolved.addAll(createSample(cnf, sample.size() - kept, seed));
+		return evolved;
+	}
+
+	/**
+	 * @param cnf    The model.
+	 * @param sample The configurations.
+	 * @return The configurations as solution list.
+	 */
+	public static SolutionList toSolutionList(CNF cnf, List<LiteralSet> sample) {
+		return new SolutionList(cnf.getVariables(), sample);
+	}
+
+	/**
+	 * @param cnf    The model.
+	 * @param sample The configurations.
+	 * @return The configurations as {@link Sample} of literal arrays.
+	 */
+	public static Sample toSample(CNF cnf, List<LiteralSet> sample) {
+		return Sample.fromSolutionList(toSolutionList(cnf, sample), cnf.getVariables());
+	}
+
+	private SyntheticModels() {
+	}
+
+}
@@ -0,0 +1,79 @@
+package de.ovgu.featureide.sampling;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import de.ovgu.featureide.sampling.util.CSVWriter;
+import de.ovgu.featureide.sampling.util.columnar.ColumnarReader;
+
+/**
+ * Exports a columnar result store (see
+ * {@link de.ovgu.featureide.sampling.util.columnar.ColumnarWriter}) into a csv
+ * file.
+ * 
+ * Usage: <code>ColumnarStoreExporter &lt;store directory&gt; &lt;csv file&gt;
+ * [separator]</code>
+ * 
+ * @author Joshua Sprey
+ */
+public class ColumnarStoreExporter {
+
+	/** Number of rows that are written to the csv file at once. */
+	private static final int ROWS_PER_FLUSH = 1000;
+
+	public static void main(String[] args) {
+		if (args.length < 2) {
+			System.out.println("Usage: ColumnarStoreExporter <store directory> <csv file> [separator]");
+			return;
+		}
+		try {
+			final int rows = export(Paths.get(args[0]), Paths.get(args[1]), args.length > 2 ? args[2] : ";");
+			System.out.println("Exported " + rows + " rows to " + args[1]);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes all rows of a columnar result store into a csv file. An existing csv
+	 * file is replaced.
+	 * 
+	 * @param storeDirectory The directory of the store.
+	 * @param csvFile        The csv file.
+	 * @param separator      The separator for the csv file.
+	 * @return The number of exported rows.
+	 * @throws IOException If the store cannot be read.
+	 */
+	public static int export(Path storeDirectory, Path csvFile, String separator) throws IOException {
+		final ColumnarReader reader = new ColumnarReader(storeDirectory);
+		final Path absoluteCSVFile = csvFile.toAbsolutePath();
+
+		final CSVWriter csvWriter = new CSVWriter();
+		csvWriter.setSeparator(separator);
+		csvWriter.setAppend(false);
+		csvWriter.setOutputPath(absoluteCSVFile.getParent());
+		csvWriter.setFileName(absoluteCSVFile.getFileName());
+		csvWriter.setKeepLines(false);
+		csvWriter.setHeader(reader.getColumnNames());
+		csvWriter.flush();
+
+		final int columnCount = reader.getColumnCount();
+		final int rowCount = reader.getRowCount();
+		for (int row = 0; row < rowCount; row++) {
+			final List<String> line = new ArrayList<>(columnCount);
+			for (int column = 0; column < columnCount; column++) {
+				line.add(reader.getValue(column, row));
+			}
+			csvWriter.addLine(line);
+			if ((row + 1) % ROWS_PER_FLUSH == 0) {
+				csvWriter.flush();
+			}
+		}
+		csvWriter.flush();
+		return rowCount;
+	}
+
+}
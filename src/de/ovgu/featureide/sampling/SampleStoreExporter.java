@@ -0,0 +1,74 @@
+package de.ovgu.featureide.sampling;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+import de.ovgu.featureide.sampling.util.BinarySampleStore;
+
+/**
+ * Exports all samples of a binary sample store (see {@link BinarySampleStore})
+ * into text files with one sorted configuration per line, as written with
+ * <code>sampleFormat=text</code>.
+ *
+ * Usage: <code>SampleStoreExporter &lt;store directory&gt; [output
+ * directory]</code>
+ *
+ * @author Joshua Sprey
+ */
+public class SampleStoreExporter {
+
+	public static void main(String[] args) {
+		if (args.length < 1) {
+			System.out.println("Usage: SampleStoreExporter <store directory> [output directory]");
+			return;
+		}
+		try {
+			final Path storeDirectory = Paths.get(args[0]);
+			final int samples = export(storeDirectory, args.length > 1 ? Paths.get(args[1]) : storeDirectory);
+			System.out.println("Exported " + samples + " samples");
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Writes all samples of a binary sample store into text files. Existing text
+	 * files are replaced.
+	 *
+	 * @param storeDirectory  The directory of the store.
+	 * @param outputDirectory The directory of the text files.
+	 * @return The number of exported samples.
+	 * @throws IOException If the store cannot be read.
+	 */
+	public static int export(Path storeDirectory, Path outputDirectory) throws IOException {
+		final BinarySampleStore store = new BinarySampleStore(storeDirectory);
+		Files.createDirectories(outputDirectory);
+		int count = 0;
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(storeDirectory,
+				"*" + BinarySampleStore.FILE_EXTENSION)) {
+			for (Path file : files) {
+				final String fileName = file.getFileName().toString();
+				final String name = fileName.substring(0,
+						fileName.length() - BinarySampleStore.FILE_EXTENSION.length());
+				final Sample sample = store.readSample(name);
+				final List<String> lines = new ArrayList<>(sample.size());
+				for (int i = 0; i < sample.size(); i++) {
+					final List<String> configuration = sample.getNames(i);
+					Collections.sort(configuration);
+					lines.add(TWiseSamplingFramework.toString(configuration));
+				}
+				Files.write(outputDirectory.resolve(name + ".sample"), lines);
+				count++;
+			}
+		}
+		return count;
+	}
+
+}
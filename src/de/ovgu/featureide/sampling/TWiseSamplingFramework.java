@@ -15,18 +15,20 @@ import de.ovgu.featureide.fm.core.analysis.cnf.ClauseList;
 import de.ovgu.featureide.fm.core.analysis.cnf.formula.FeatureModelFormula;
 import de.ovgu.featureide.fm.core.base.IFeatureModel;
 import de.ovgu.featureide.fm.core.io.dimacs.DIMACSFormatCNF;
-import de.ovgu.featureide.fm.core.io.manager.SimpleFileHandler;
 import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
 import de.ovgu.featureide.sampling.config.SamplingConfig;
 import de.ovgu.featureide.sampling.config.properties.IProperty;
 import de.ovgu.featureide.sampling.logger.Logger;
 import de.ovgu.featureide.sampling.modules.AlgorithmLoaderModule;
+import de.ovgu.featureide.sampling.modules.JournalModule;
 import de.ovgu.featureide.sampling.modules.ParameterParserModule;
+import de.ovgu.featureide.sampling.modules.SchedulerModule;
 import de.ovgu.featureide.sampling.modules.StabilityCalculatorModule;
 import de.ovgu.featureide.sampling.modules.WriterModule;
-import de.ovgu.featureide.sampling.process.SamplingProcessRunner;
-import de.ovgu.featureide.sampling.process.SamplingResults;
+import de.ovgu.featureide.sampling.process.SamplingJob;
 import de.ovgu.featureide.sampling.util.FeatureModelReader;
+import de.ovgu.featureide.sampling.util.MappedDimacsWriter;
+import de.ovgu.featureide.sampling.util.ModelFileCache;
 
 /**
  * This class control the evaluation of the sampling framework.
@@ -81,10 +83,17 @@ public class TWiseSamplingFramework {
 	protected Path curSampleDir;
 	/** The currently evaluated feature model in conjunctive normal form. */
 	protected CNF modelCNF;
+	/**
+	 * Caches the files of the randomized models, such that each randomized model
+	 * is written once and shared by all jobs of its system iteration.
+	 */
+	protected ModelFileCache modelFileCache;
 
 	public AlgorithmLoaderModule module_AlgorithmLoader;
+	public JournalModule module_Journal;
 
 	public ParameterParserModule module_ParameterParser;
+	public SchedulerModule module_Scheduler;
 	public StabilityCalculatorModule module_StabilityCalculator;
 
 	public WriterModule module_Writer;
@@ -94,9 +103,6 @@ public class TWiseSamplingFramework {
 	 */
 	protected CNF randomizedModelCNF;
 
-	/** The results of the last evaluation run */
-	protected SamplingResults result;
-
 	/** The numerical index of the currently processed system. */
 	protected int systemIndex;
 	/** The value of the current system iteration. */
@@ -119,15 +125,54 @@ public class TWiseSamplingFramework {
 		module_ParameterParser = new ParameterParserModule(this);
 		module_AlgorithmLoader = new AlgorithmLoaderModule(this);
 		module_StabilityCalculator = new StabilityCalculatorModule(this);
+		module_Scheduler = new SchedulerModule(this);
 		module_Writer = new WriterModule(this);
+		module_Journal = new JournalModule(this);
 	}
 
+	/**
+	 * Randomizes the current model for the current system iteration. The
+	 * randomized model is written when the first job of the system iteration is
+	 * created (see {@link #createJob(ASamplingAlgorithm)}).
+	 * 
+	 * @return The randomized model.
+	 */
 	protected CNF adaptModel() throws Exception {
-		final CNF randomCNF = modelCNF.randomize(new Random(config.randomSeed.getValue() + systemIteration));
-		final DIMACSFormatCNF format = new DIMACSFormatCNF();
-		final Path fileName = config.tempPath.resolve("model" + "." + format.getSuffix());
-		SimpleFileHandler.save(fileName, randomCNF, format);
-		return randomCNF;
+		return modelCNF.randomize(new Random(getModelSeed()));
+	}
+
+	/**
+	 * Creates a job for the current cell of the benchmark. The job gets its own
+	 * working directory containing a link to the file of the randomized model and
+	 * its own algorithm instance.
+	 * 
+	 * @param algorithm The algorithm to evaluate.
+	 * @return The new job.
+	 * @throws IOException If the working directory or the algorithm cannot be
+	 *                     created.
+	 */
+	protected SamplingJob createJob(ASamplingAlgorithm algorithm) throws IOException {
+		final int sequenceNumber = module_Scheduler.getNextSequenceNumber();
+		try {
+			final Path workingDirectory = config.tempPath.resolve("job_" + sequenceNumber);
+			Files.createDirectories(workingDirectory);
+			final Path modelFile = modelFileCache.getModelFile(config.systemNames.get(systemIndex), getModelSeed(),
+					randomizedModelCNF);
+			modelFileCache.link(modelFile, workingDirectory.resolve("model." + new DIMACSFormatCNF().getSuffix()));
+
+			final ASamplingAlgorithm jobAlgorithm = module_AlgorithmLoader
+					.loadAlgorithm(algorithm.getClass().getName(), workingDirectory);
+			if (jobAlgorithm == null) {
+				throw new IOException("Could not create algorithm " + algorithm.getFullName());
+			}
+			jobAlgorithm.setIterations(algorithm.getIterations());
+			return new SamplingJob(sequenceNumber, systemIndex, systemIteration, algorithmIndex, algorithmIteration,
+					jobAlgorithm, modelCNF, randomizedModelCNF, curSampleDir, workingDirectory);
+		} catch (IOException | RuntimeException e) {
+			// The rows of subsequent jobs must not wait for this sequence number
+			module_Scheduler.skip(sequenceNumber);
+			throw e;
+		}
 	}
 
 	/**
@@ -154,6 +199,9 @@ public class TWiseSamplingFramework {
 	}
 
 	public void dispose() {
+		module_Scheduler.dispose();
+		module_Writer.dispose();
+		module_Journal.dispose();
 		Logger.getInstance().uninstall();
 		if (!config.debug.getValue()) {
 			deleteTempFolder();
@@ -204,6 +252,14 @@ public class TWiseSamplingFramework {
 		return modelCNF;
 	}
 
+	/**
+	 * @return The seed the model of the current system iteration is randomized
+	 *         with.
+	 */
+	protected long getModelSeed() {
+		return config.randomSeed.getValue() + systemIteration;
+	}
+
 	public CNF getRandomizedModelCNF() {
 		return randomizedModelCNF;
 	}
@@ -229,35 +285,17 @@ public class TWiseSamplingFramework {
 		setupDirectories();
 		// Create the csv writer and respective file.
 		module_Writer.init();
+		// Start a new journal or restore the journal of an interrupted run
+		module_Journal.init();
 
 		systems = new IFeatureModel[config.systemNames.size()];
+		modelFileCache = new ModelFileCache(config.tempPath.resolve("models"));
 		module_StabilityCalculator.init();
+		module_Scheduler.init();
 
 		Logger.getInstance().logInfo("Running " + this.getClass().getSimpleName(), false);
 	}
 
-	private void logRun() {
-		StringBuilder sb = new StringBuilder();
-		sb.append(systemIndex + 1);
-		sb.append("/");
-		sb.append(config.systemNames.size());
-		sb.append(" | ");
-		sb.append(systemIteration);
-		sb.append("/");
-		sb.append(config.systemIterations.getValue());
-		sb.append(" | (");
-		sb.append(algorithmIndex + 1);
-		sb.append("/");
-		sb.append(algorithmList.size());
-		sb.append(") ");
-		sb.append(algorithmList.get(algorithmIndex).getFullName());
-		sb.append(" | ");
-		sb.append(algorithmIteration);
-		sb.append("/");
-		sb.append(algorithmList.get(algorithmIndex).getIterations());
-		Logger.getInstance().logInfo(sb.toString(), 2, false);
-	}
-
 	protected void logSystem() {
 		StringBuilder sb = new StringBuilder();
 		sb.append("Processing System: ");
@@ -297,10 +335,9 @@ public class TWiseSamplingFramework {
 
 		curSampleDir = config.samplesPath.resolve(systemName);
 		Files.createDirectories(curSampleDir);
-		final DIMACSFormatCNF format = new DIMACSFormatCNF();
-		final Path fileName = curSampleDir.resolve("model." + format.getSuffix());
+		final Path fileName = curSampleDir.resolve("model." + new DIMACSFormatCNF().getSuffix());
 		if (config.storeSamples.getValue()) {
-			SimpleFileHandler.save(fileName, modelCNF, format);
+			MappedDimacsWriter.write(modelCNF, fileName);
 		}
 
 		return modelCNF;
@@ -323,9 +360,6 @@ public class TWiseSamplingFramework {
 		if (config.systemIterations.getValue() > 0) {
 			Logger.getInstance().logInfo("Start", false);
 
-			final SamplingProcessRunner processRunner = new SamplingProcessRunner();
-			processRunner.setTimeout(config.timeout.getValue());
-
 			int systemIndexEnd = config.systemNames.size();
 
 			systemLoop: for (systemIndex = 0; systemIndex < systemIndexEnd; systemIndex++) {
@@ -359,27 +393,32 @@ public class TWiseSamplingFramework {
 						randomizedModelCNF = adaptModel();
 					} catch (Exception e) {
 						Logger.getInstance().logError(e);
-						continue systemLoop;
+						break;
 					}
-					config.algorithmIterations.getValue();
 					algorithmIndex = -1;
 					algorithmLoop: for (ASamplingAlgorithm algorithm : algorithmList) {
 						algorithmIndex++;
 						for (algorithmIteration = 1; algorithmIteration <= algorithm
 								.getIterations(); algorithmIteration++) {
+							if (module_Journal.isCompleted(algorithm, algorithmIteration)) {
+								// Finished by an interrupted run
+								module_Journal.restoreSample(algorithm, algorithmIteration);
+								continue;
+							}
 							try {
-								logRun();
-								this.result = processRunner.run(algorithm);
-								module_Writer.writeCSV(
-										(x) -> this.module_Writer.writeData(module_Writer.getDataCSVWriter(), result));
+								module_Scheduler.submit(createJob(algorithm));
 							} catch (Exception e) {
-								e.printStackTrace();
 								Logger.getInstance().logError(e);
 								continue algorithmLoop;
 							}
 						}
 					}
 				}
+				// The stability calculation of the next system requires all samples of this
+				// system
+				module_Scheduler.awaitJobs();
+				module_Writer.checkpoint();
+				modelFileCache.clear();
 			}
 			Logger.getInstance().logInfo("Finished", false);
 		} else {
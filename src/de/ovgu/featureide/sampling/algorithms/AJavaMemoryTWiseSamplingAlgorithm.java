@@ -6,6 +6,7 @@ import java.nio.file.Path;
 import java.util.Objects;
 
 import de.ovgu.featureide.sampling.eval.memory.GarbageCollectorLogAnalyzer;
+import de.ovgu.featureide.sampling.eval.memory.TelemetryAnalyzer;
 import de.ovgu.featureide.sampling.logger.Logger;
 import de.ovgu.featureide.sampling.process.SamplingMemoryResults;
 
@@ -14,6 +15,13 @@ public abstract class AJavaMemoryTWiseSamplingAlgorithm extends ASamplingAlgorit
 	protected final Path gcCollectorPath;
 	protected final String maximumMemoryAllocation;
 	protected final String minimumMemoryAllocation;
+	/** Indicates whether the telemetry agent should be attached. */
+	private boolean telemetryAgent = false;
+	/**
+	 * Indicates whether the statistics are collected by the telemetry agent
+	 * instead of the garbage collector log.
+	 */
+	private boolean useTelemetry = false;
 
 	public AJavaMemoryTWiseSamplingAlgorithm(Path fmFile, Path outputFile, int t, Path gcCollectorPath,
 			String minimumMemoryAllocation, String maximumMemoryAllocation) {
@@ -35,6 +43,11 @@ public abstract class AJavaMemoryTWiseSamplingAlgorithm extends ASamplingAlgorit
 	 * <i>java (GC commands)</i><br>
 	 * <br>
 	 * 
+	 * The GC commands enable the garbage collector log, or attach the
+	 * {@link TelemetryAnalyzer telemetry agent} if it is enabled (see
+	 * {@link #setTelemetryAgent(boolean)}).<br>
+	 * <br>
+	 * 
 	 * The final command will have the following syntax:<br>
 	 * <br>
 	 * 
@@ -81,8 +94,19 @@ public abstract class AJavaMemoryTWiseSamplingAlgorithm extends ASamplingAlgorit
 		return gcCollectorPath;
 	}
 
+	/**
+	 * Path to the telemetry file, which is written next to the garbage collector
+	 * file.
+	 */
+	public final Path getPathOfTelemetryFile() {
+		return gcCollectorPath.resolveSibling(gcCollectorPath.getFileName() + ".telemetry");
+	}
+
 	@Override
 	public final SamplingMemoryResults parseMemory() throws IOException {
+		if (useTelemetry) {
+			return new TelemetryAnalyzer(getPathOfTelemetryFile()).processTelemetry();
+		}
 		GarbageCollectorLogAnalyzer analyzer = new GarbageCollectorLogAnalyzer(getPathOfGarbageCollectorFile());
 		return analyzer.processGCResults();
 	}
@@ -92,11 +116,24 @@ public abstract class AJavaMemoryTWiseSamplingAlgorithm extends ASamplingAlgorit
 		super.postProcess();
 		try {
 			Files.deleteIfExists(getPathOfGarbageCollectorFile());
+			Files.deleteIfExists(getPathOfTelemetryFile());
 		} catch (IOException e) {
 			Logger.getInstance().logError(e);
 		}
 	}
 
+	/**
+	 * Sets whether the memory statistics are collected by the telemetry agent.
+	 * The agent reports the bytes allocated by the JVM of the sampling process as
+	 * created bytes. Otherwise, the garbage collector log is used, which reports
+	 * the bytes freed by the garbage collector.
+	 *
+	 * @param telemetryAgent Whether the telemetry agent is attached.
+	 */
+	public void setTelemetryAgent(boolean telemetryAgent) {
+		this.telemetryAgent = telemetryAgent;
+	}
+
 	@Override
 	public final void preProcess() throws Exception {
 		commandElements.clear();
@@ -105,12 +142,26 @@ public abstract class AJavaMemoryTWiseSamplingAlgorithm extends ASamplingAlgorit
 		addCommandElement("-" + this.maximumMemoryAllocation);
 		addCommandElement("-" + this.minimumMemoryAllocation);
 
-		String version = Runtime.class.getPackage().getSpecificationVersion();
-		if (version.startsWith("11")) {
-			addCommandElement("-Xlog:gc:" + getPathOfGarbageCollectorFile());
-		} else {
-			addCommandElement("-Xloggc:" + getPathOfGarbageCollectorFile());
-			addCommandElement("-XX:+PrintGCDateStamps");
+		Files.deleteIfExists(getPathOfTelemetryFile());
+		useTelemetry = false;
+		if (telemetryAgent) {
+			try {
+				addCommandElement(TelemetryAnalyzer.getAgentOption(getPathOfTelemetryFile()));
+				useTelemetry = true;
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+
+		if (!useTelemetry) {
+			// Java 9 and later only support unified logging ("1.8" for Java 8)
+			String version = System.getProperty("java.specification.version", "");
+			if (!version.startsWith("1.")) {
+				addCommandElement("-Xlog:gc:" + getPathOfGarbageCollectorFile());
+			} else {
+				addCommandElement("-Xloggc:" + getPathOfGarbageCollectorFile());
+				addCommandElement("-XX:+PrintGCDateStamps");
+			}
 		}
 		addCommandElements();
 	}
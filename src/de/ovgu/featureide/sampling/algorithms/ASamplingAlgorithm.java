@@ -15,6 +15,13 @@ import de.ovgu.featureide.sampling.process.SamplingMemoryResults;
 
 public abstract class ASamplingAlgorithm implements IOutputReader {
 
+	/**
+	 * Prefix of lines in the standard output of a sampling process that contain a
+	 * configuration, which is recognized by
+	 * {@link #parseStreamedConfiguration(String)}.
+	 */
+	public static final String CONFIGURATION_PREFIX = "configuration:";
+
 	protected final ArrayList<String> commandElements = new ArrayList<>();
 
 	protected final Path fmFile;
@@ -155,6 +162,35 @@ public abstract class ASamplingAlgorithm implements IOutputReader {
 	 */
 	public abstract SolutionList parseResults() throws IOException;
 
+	/**
+	 * Parses a configuration that the sampling process emitted on its standard
+	 * output while it is running. Such configurations are evaluated immediately,
+	 * if streaming coverage is enabled. By default, lines starting with
+	 * {@link #CONFIGURATION_PREFIX} followed by the literals of the configuration
+	 * as in the model file (optionally terminated by 0) are recognized. Algorithms
+	 * with another output format can override this method.
+	 * 
+	 * @param line A line of the standard output.
+	 * @return The literals of the configuration or <code>null</code> if the line
+	 *         does not contain a configuration.
+	 */
+	public int[] parseStreamedConfiguration(String line) {
+		if (!line.startsWith(CONFIGURATION_PREFIX)) {
+			return null;
+		}
+		final String literals = line.substring(CONFIGURATION_PREFIX.length()).trim();
+		if (literals.isEmpty()) {
+			return new int[0];
+		}
+		final String[] tokens = literals.split("\\s+");
+		final int length = tokens[tokens.length - 1].equals("0") ? tokens.length - 1 : tokens.length;
+		final int[] configuration = new int[length];
+		for (int i = 0; i < length; i++) {
+			configuration[i] = Integer.parseInt(tokens[i]);
+		}
+		return configuration;
+	}
+
 	/**
 	 * The post process is executed as the last method for an algorithm instance. It
 	 * is supposed to clean all temporary or intermediate files.
@@ -31,6 +31,7 @@ import java.util.Properties;
 import java.util.stream.Stream;
 
 import de.ovgu.featureide.sampling.config.properties.BoolProperty;
+import de.ovgu.featureide.sampling.config.properties.DoubleProperty;
 import de.ovgu.featureide.sampling.config.properties.IProperty;
 import de.ovgu.featureide.sampling.config.properties.IntProperty;
 import de.ovgu.featureide.sampling.config.properties.LongProperty;
@@ -120,6 +121,21 @@ public class SamplingConfig {
 	public final StringProperty calculateStability = new StringProperty("calculateStability", "");
 	/** Path to the folder containing configuration files. */
 	public Path configPath;
+	/**
+	 * {@link IntProperty} indicates the number of cores each sampling process is
+	 * pinned to. A value of 0 disables the pinning.
+	 */
+	public final IntProperty coresPerJob = new IntProperty("coresPerJob", 0);
+	/**
+	 * {@link LongProperty} indicates the time in milliseconds after which buffered
+	 * rows of the data file are written (0 = only depend on the buffer size).
+	 */
+	public final LongProperty csvFlushInterval = new LongProperty("csvFlushInterval", 0L);
+	/**
+	 * {@link IntProperty} indicates the number of buffered characters after which
+	 * rows of the data file are written (0 = write each row immediately).
+	 */
+	public final IntProperty csvFlushSize = new IntProperty("csvFlushSize", 0);
 
 	/** Path to the folder containing <code>.csv</code> files. */
 	public Path csvPath;
@@ -137,8 +153,65 @@ public class SamplingConfig {
 
 	/** {@link StringProperty} indicates the author of the current benchmark. */
 	public final StringProperty minimumMemoryAllocation = new StringProperty("minAlloc", "Xms2g");
+	/**
+	 * {@link BoolProperty} indicates whether the memory statistics of Java-based
+	 * algorithms are collected by the telemetry agent instead of the garbage
+	 * collector log.
+	 */
+	public final BoolProperty memoryTelemetry = new BoolProperty("memoryTelemetry", false);
+	/**
+	 * {@link IntProperty} indicates the number of results of sampling processes
+	 * that can wait for their evaluation before further sampling processes are
+	 * blocked.
+	 */
+	public final IntProperty evaluationQueueSize = new IntProperty("evaluationQueueSize", 4);
+	/**
+	 * {@link IntProperty} indicates the number of threads that concurrently
+	 * evaluate the results of sampling processes.
+	 */
+	public final IntProperty evaluationWorkers = new IntProperty("evaluationWorkers", 1);
+	/**
+	 * {@link IntProperty} indicates the number of threads that compute the
+	 * validity and coverage of samples (0 = number of available cores).
+	 */
+	public final IntProperty evaluationThreads = new IntProperty("evaluationThreads", 0);
+	/**
+	 * {@link BoolProperty} indicates whether Java-based algorithms are executed
+	 * within the JVM of the framework instead of a new JVM for each run.
+	 */
+	public final BoolProperty inProcess = new BoolProperty("inProcess", false);
 	/** Path to the folder containing output files.. */
 	public Path outputPath;
+	/**
+	 * {@link IntProperty} indicates the number of sampling processes that are
+	 * executed concurrently (always 1 with {@link #inProcess}).
+	 */
+	public final IntProperty parallelJobs = new IntProperty("parallelJobs", 1);
+	/**
+	 * {@link StringProperty} indicates how configurations are paired for the
+	 * stability metrics MSOC and FIMDC (greedy or hungarian).
+	 */
+	public final StringProperty pairingStrategy = new StringProperty("pairingStrategy", "greedy");
+	/**
+	 * {@link LongProperty} indicates the time in milliseconds between two polls of
+	 * the peak memory, CPU time, and threads of sampling processes (0 = disabled).
+	 */
+	public final LongProperty resourceMonitorInterval = new LongProperty("resourceMonitorInterval", 50L);
+	/**
+	 * {@link BoolProperty} indicates whether the results of sampling processes are
+	 * cached and reused for unchanged cells.
+	 */
+	public final BoolProperty resultCache = new BoolProperty("resultCache", false);
+	/**
+	 * {@link BoolProperty} indicates whether cached cells are executed again to
+	 * renew their time and memory measurements, while the cached sample is kept.
+	 */
+	public final BoolProperty resultCacheRemeasure = new BoolProperty("resultCacheRemeasure", false);
+	/**
+	 * {@link BoolProperty} indicates whether an interrupted run is resumed from its
+	 * journal, skipping all finished cells.
+	 */
+	public final BoolProperty resume = new BoolProperty("resume", false);
 	/** {@link Seed} determines the seed for each randomized operation. */
 	public final LongProperty randomSeed = new LongProperty("seed", System.currentTimeMillis());
 	/** Path to the folder containing the computed sample files. */
@@ -148,6 +221,67 @@ public class SamplingConfig {
 	 * not.
 	 */
 	public final BoolProperty storeSamples = new BoolProperty("storeSamples", false);
+	/**
+	 * {@link StringProperty} indicates the format of stored samples (binary or
+	 * text).
+	 */
+	public final StringProperty sampleFormat = new StringProperty("sampleFormat", "binary");
+	/**
+	 * {@link BoolProperty} indicates whether the configurations of samples stored
+	 * in the binary format are compressed.
+	 */
+	public final BoolProperty sampleCompression = new BoolProperty("sampleCompression", true);
+	/**
+	 * {@link BoolProperty} indicates whether the evaluation results are also
+	 * stored in a columnar binary format next to the data file.
+	 */
+	public final BoolProperty storeColumnar = new BoolProperty("storeColumnar", false);
+	/**
+	 * {@link IntProperty} indicates the t from which the coverage is estimated
+	 * instead of computed exactly (0 = always exact).
+	 */
+	public final IntProperty coverageEstimationT = new IntProperty("coverageEstimationT", 4);
+	/**
+	 * {@link DoubleProperty} indicates the half width of the confidence interval
+	 * at which the estimation of the coverage stops.
+	 */
+	public final DoubleProperty coverageEstimationError = new DoubleProperty("coverageEstimationError", 0.005);
+	/**
+	 * {@link IntProperty} indicates the maximum number of interactions drawn to
+	 * estimate the coverage.
+	 */
+	public final IntProperty coverageEstimationMaxProbes = new IntProperty("coverageEstimationMaxProbes", 1000000);
+	/**
+	 * {@link BoolProperty} indicates whether the exact coverage is computed in
+	 * chunks of interactions whose bitmaps are stored in files instead of the
+	 * heap.
+	 */
+	public final BoolProperty outOfCoreCoverage = new BoolProperty("outOfCoreCoverage", false);
+	/**
+	 * {@link IntProperty} indicates the number of interactions of each chunk of
+	 * the out-of-core coverage.
+	 */
+	public final IntProperty outOfCoreChunkSize = new IntProperty("outOfCoreChunkSize", 16777216);
+	/**
+	 * {@link BoolProperty} indicates whether the valid interactions of each model
+	 * are computed once and stored in its sample directory.
+	 */
+	public final BoolProperty validInteractionIndex = new BoolProperty("validInteractionIndex", true);
+	/**
+	 * {@link BoolProperty} indicates whether the coverage after each configuration
+	 * of a sample is computed and stored.
+	 */
+	public final BoolProperty coverageCurve = new BoolProperty("coverageCurve", true);
+	/**
+	 * {@link BoolProperty} indicates whether the configurations emitted by
+	 * sampling processes while running are evaluated incrementally.
+	 */
+	public final BoolProperty streamingCoverage = new BoolProperty("streamingCoverage", false);
+	/**
+	 * {@link DoubleProperty} indicates the coverage of the streamed configurations
+	 * at which a sampling process is stopped (0 = never).
+	 */
+	public final DoubleProperty streamingTargetCoverage = new DoubleProperty("streamingTargetCoverage", 0.0);
 	/**
 	 * List containing the IDS of all systems that should be used in the current
 	 * benchmark.
@@ -176,6 +310,28 @@ public class SamplingConfig {
 
 	/** {@link IntProperty} indicates the verbosity of output information. */
 	public final IntProperty verbosity = new IntProperty("verbosity", 0);
+	/**
+	 * {@link IntProperty} indicates the number of unmeasured runs of each algorithm
+	 * before its first measured run with {@link #inProcess}, or before the first
+	 * measured run of each new worker JVM with {@link #workerPool}.
+	 */
+	public final IntProperty warmUpIterations = new IntProperty("warmUpIterations", 0);
+	/**
+	 * {@link IntProperty} indicates the growth of the heap retained by a worker JVM
+	 * in percent after which it is replaced (0 = unlimited).
+	 */
+	public final IntProperty workerMaxHeapGrowth = new IntProperty("workerMaxHeapGrowth", 0);
+	/**
+	 * {@link IntProperty} indicates the number of runs after which a worker JVM is
+	 * replaced (0 = unlimited).
+	 */
+	public final IntProperty workerMaxJobs = new IntProperty("workerMaxJobs", 0);
+	/**
+	 * {@link BoolProperty} indicates whether Java-based algorithms are executed by
+	 * long-lived worker JVMs instead of a new JVM for each run. Ignored with
+	 * {@link #inProcess}.
+	 */
+	public final BoolProperty workerPool = new BoolProperty("workerPool", false);
 
 	/**
 	 * Creates a {@link SamplingConfig} at the
@@ -0,0 +1,39 @@
+package de.ovgu.featureide.sampling.config.properties;
+
+import de.ovgu.featureide.sampling.config.SamplingConfig;
+
+/**
+ * A generic property for all {@link Double}-based values in
+ * {@link SamplingConfig} files.
+ * 
+ * @author Joshua Sprey
+ * @author Sebastian Krieter
+ */
+public class DoubleProperty extends AProperty<Double> {
+
+	/**
+	 * Creates a new {@link Double}-based property with a given key.
+	 * 
+	 * @param key Identifer for the property.
+	 */
+	public DoubleProperty(String key) {
+		super(key, 0.0);
+	}
+
+	/**
+	 * Creates a new {@link Double}-based property with a given key and default
+	 * value.
+	 * 
+	 * @param key          Identifer for the property.
+	 * @param defaultValue Default value for the property.
+	 */
+	public DoubleProperty(String key, Double defaultValue) {
+		super(key, defaultValue);
+	}
+
+	@Override
+	protected Double cast(String valueString) throws Exception {
+		return Double.parseDouble(valueString);
+	}
+
+}
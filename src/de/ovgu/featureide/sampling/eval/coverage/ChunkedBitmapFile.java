@@ -0,0 +1,233 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A bitmap over a range of interactions that is stored in a file and
+ * processed in chunks of consecutive interactions. The bits of a chunk are
+ * read and written through a memory-mapped region of the file, such that the
+ * size of the bitmap is bounded by the storage device instead of the heap.
+ *
+ * For each chunk, the file contains a table of values, e.g., the number of set
+ * bits. The values are written after the bits of the chunk are forced to the
+ * storage device and mark the chunk as complete. Thus, a file whose chunks were
+ * only partially completed can be opened again to resume the computation.
+ *
+ * @author Joshua Sprey
+ */
+class ChunkedBitmapFile implements Closeable {
+
+	private static final int MAGIC = 0x43424d46;
+	/** Alignment of the bits to the pages of the file system. */
+	private static final int PAGE_SIZE = 4096;
+	private static final int VERSION = 1;
+
+	/**
+	 * Opens a bitmap file. An existing file with the same key and size is reused
+	 * with its chunk size. Otherwise, the file is created or replaced by an empty
+	 * bitmap.
+	 *
+	 * @param file           The file.
+	 * @param key            The key that identifies the content of the bitmap.
+	 * @param size           The number of bits.
+	 * @param chunkSize      The number of bits of each chunk of a new bitmap, a
+	 *                       multiple of 64.
+	 * @param valuesPerChunk The number of values stored for each chunk.
+	 * @return The opened file.
+	 * @throws IOException If the file cannot be opened.
+	 */
+	static ChunkedBitmapFile open(Path file, String key, long size, long chunkSize, int valuesPerChunk)
+			throws IOException {
+		final ByteArrayOutputStream prefixBytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(prefixBytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeUTF(key);
+			out.writeLong(size);
+			out.writeInt(valuesPerChunk);
+		}
+		final byte[] prefix = prefixBytes.toByteArray();
+		final FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			final ByteBuffer header = ByteBuffer.allocate(prefix.length + Long.BYTES);
+			while (header.hasRemaining()) {
+				if (channel.read(header, header.position()) <= 0) {
+					break;
+				}
+			}
+			final long existingChunkSize = header.hasRemaining() ? 0 : header.getLong(prefix.length);
+			if ((existingChunkSize > 0) && ((existingChunkSize & 63) == 0)
+					&& Arrays.equals(Arrays.copyOf(header.array(), prefix.length), prefix)) {
+				final ChunkedBitmapFile bitmap = new ChunkedBitmapFile(channel, prefix.length, size,
+						existingChunkSize, valuesPerChunk);
+				if (bitmap.isConsistent()) {
+					bitmap.mapTable(false);
+					return bitmap;
+				}
+			}
+			final ChunkedBitmapFile bitmap = new ChunkedBitmapFile(channel, prefix.length, size, chunkSize,
+					valuesPerChunk);
+			channel.truncate(0);
+			header.clear();
+			header.put(prefix).putLong(chunkSize).flip();
+			channel.write(header, 0);
+			// Extends the file without writing the bits, which are zero
+			channel.write(ByteBuffer.allocate(1), bitmap.getFileSize() - 1);
+			bitmap.mapTable(true);
+			return bitmap;
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private final long bitsOffset;
+	private final FileChannel channel;
+	private final long chunkSize;
+	private final int numberOfChunks;
+	/** The values of all chunks, <code>-1</code> for incomplete chunks. */
+	private MappedByteBuffer table;
+	private final long tableOffset;
+	private final long tableSize;
+	private final int valuesPerChunk;
+	private final long words;
+
+	private ChunkedBitmapFile(FileChannel channel, int prefixLength, long size, long chunkSize, int valuesPerChunk) {
+		if ((chunkSize <= 0) || ((chunkSize & 63) != 0)) {
+			throw new IllegalArgumentException("Chunk size must be a positive multiple of 64: " + chunkSize);
+		}
+		this.channel = channel;
+		this.chunkSize = chunkSize;
+		this.valuesPerChunk = valuesPerChunk;
+		this.words = (size + 63) >>> 6;
+		final long chunks = (size + chunkSize - 1) / chunkSize;
+		tableSize = chunks * valuesPerChunk * Long.BYTES;
+		if (tableSize > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Chunk size too small for " + size + " interactions: " + chunkSize);
+		}
+		this.numberOfChunks = (int) chunks;
+		final long headerSize = prefixLength + Long.BYTES;
+		tableOffset = ((headerSize + Long.BYTES - 1) / Long.BYTES) * Long.BYTES;
+		bitsOffset = ((tableOffset + tableSize + PAGE_SIZE - 1) / PAGE_SIZE) * PAGE_SIZE;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * @return The number of bits of each chunk.
+	 */
+	long getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * @return The number of chunks.
+	 */
+	int getNumberOfChunks() {
+		return numberOfChunks;
+	}
+
+	private long getFileSize() {
+		return bitsOffset + (words * Long.BYTES);
+	}
+
+	/**
+	 * @param chunk The index of a chunk.
+	 * @param index The index of the value.
+	 * @return A value of the chunk or <code>-1</code> if the chunk is incomplete.
+	 */
+	long getValue(int chunk, int index) {
+		synchronized (table) {
+			return table.getLong(((chunk * valuesPerChunk) + index) * Long.BYTES);
+		}
+	}
+
+	/**
+	 * @param chunk The index of a chunk.
+	 * @return {@link Boolean#TRUE} if the bits and values of the chunk were
+	 *         written.
+	 */
+	boolean isComplete(int chunk) {
+		return getValue(chunk, 0) >= 0;
+	}
+
+	private boolean isConsistent() throws IOException {
+		return channel.size() == getFileSize();
+	}
+
+	private MappedByteBuffer map(int chunk, MapMode mode) throws IOException {
+		final long firstWord = chunk * (chunkSize >>> 6);
+		final long chunkWords = Math.min(chunkSize >>> 6, words - firstWord);
+		final MappedByteBuffer buffer = channel.map(mode, bitsOffset + (firstWord * Long.BYTES),
+				chunkWords * Long.BYTES);
+		buffer.order(ByteOrder.LITTLE_ENDIAN);
+		return buffer;
+	}
+
+	/**
+	 * Maps the table of the values of the chunks.
+	 *
+	 * @param clear Whether all chunks are marked as incomplete.
+	 */
+	private void mapTable(boolean clear) throws IOException {
+		table = channel.map(MapMode.READ_WRITE, tableOffset, tableSize);
+		table.order(ByteOrder.LITTLE_ENDIAN);
+		if (clear) {
+			for (int i = 0; i < (tableSize / Long.BYTES); i++) {
+				table.putLong(i * Long.BYTES, -1);
+			}
+			table.force();
+		}
+	}
+
+	/**
+	 * Reads the bits of a chunk.
+	 *
+	 * @param chunk The index of the chunk.
+	 * @param bits  The array that receives the words of the chunk.
+	 * @throws IOException If the file cannot be read.
+	 */
+	void read(int chunk, long[] bits) throws IOException {
+		final LongBuffer buffer = map(chunk, MapMode.READ_ONLY).asLongBuffer();
+		buffer.get(bits, 0, buffer.remaining());
+	}
+
+	/**
+	 * Writes the bits of a chunk and marks it as complete.
+	 *
+	 * @param chunk  The index of the chunk.
+	 * @param bits   The words of the chunk.
+	 * @param values The values of the chunk, which must not be negative.
+	 * @throws IOException If the file cannot be written.
+	 */
+	void write(int chunk, long[] bits, long... values) throws IOException {
+		final MappedByteBuffer buffer = map(chunk, MapMode.READ_WRITE);
+		final LongBuffer longBuffer = buffer.asLongBuffer();
+		longBuffer.put(bits, 0, longBuffer.remaining());
+		buffer.force();
+		synchronized (table) {
+			// The first value marks the chunk as complete and is written last
+			for (int i = values.length - 1; i >= 0; i--) {
+				table.putLong(((chunk * valuesPerChunk) + i) * Long.BYTES, values[i]);
+			}
+			table.force();
+		}
+	}
+
+}
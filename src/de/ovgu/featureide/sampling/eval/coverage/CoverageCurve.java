@@ -0,0 +1,105 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * The cumulative t-wise coverage of a sample after each of its configurations
+ * in the order in which they were emitted by the sampling algorithm. The curve
+ * is computed in a single pass with an {@link IncrementalTWiseCoverage}, such
+ * that each configuration only enumerates the interactions it contains. The
+ * interactions of a configuration are counted as by the
+ * {@link ParallelTWiseTester}, such that the last point of the curve equals the
+ * coverage of the whole sample. All points refer to the valid interactions of
+ * the whole sample.
+ *
+ * @author Joshua Sprey
+ */
+public class CoverageCurve {
+
+	/** Coverage levels for which the number of configurations is reported. */
+	public static final double[] COVERAGE_LEVELS = { 0.5, 0.9, 0.95, 0.99 };
+
+	/**
+	 * Computes the coverage curve of a sample.
+	 *
+	 * @param cnf               The model the sample was computed for.
+	 * @param t                 The degree of interactions.
+	 * @param sample            The configurations in emission order.
+	 * @param validInteractions The number of interactions of the model that are
+	 *                          contained in a valid configuration.
+	 * @return The coverage curve.
+	 * @throws IllegalArgumentException If the model has more than
+	 *                                  {@link IncrementalTWiseCoverage#MAX_INTERACTIONS}
+	 *                                  interactions.
+	 */
+	public static CoverageCurve compute(CNF cnf, int t, List<LiteralSet> sample, long validInteractions) {
+		final IncrementalTWiseCoverage coverage = new IncrementalTWiseCoverage(cnf, t, validInteractions);
+		final long[] coveredInteractions = new long[sample.size()];
+		for (int i = 0; i < coveredInteractions.length; i++) {
+			coverage.add(sample.get(i).getLiterals());
+			coveredInteractions[i] = coverage.getCoveredInteractions();
+		}
+		return new CoverageCurve(coveredInteractions, coverage.getValidInteractions());
+	}
+
+	/** Number of covered interactions after each configuration. */
+	private final long[] coveredInteractions;
+	private final long validInteractions;
+
+	/**
+	 * @param coveredInteractions The number of covered interactions after each
+	 *                            configuration.
+	 * @param validInteractions   The number of valid interactions.
+	 */
+	public CoverageCurve(long[] coveredInteractions, long validInteractions) {
+		this.coveredInteractions = coveredInteractions;
+		this.validInteractions = validInteractions;
+	}
+
+	/**
+	 * @param level A coverage between 0 and 1.
+	 * @return The number of configurations after which the coverage reached the
+	 *         given level or <code>-1</code> if it was never reached.
+	 */
+	public int getConfigurationsToCoverage(double level) {
+		for (int i = 0; i < coveredInteractions.length; i++) {
+			if (getCoverage(i) >= level) {
+				return i + 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param index The index of a configuration.
+	 * @return The coverage after the configuration.
+	 */
+	public double getCoverage(int index) {
+		return validInteractions > 0 ? (double) coveredInteractions[index] / validInteractions : 1;
+	}
+
+	/**
+	 * @return The number of covered interactions after each configuration.
+	 */
+	public long[] getCoveredInteractions() {
+		return coveredInteractions;
+	}
+
+	/**
+	 * @return The number of valid interactions.
+	 */
+	public long getValidInteractions() {
+		return validInteractions;
+	}
+
+	/**
+	 * @return The number of configurations.
+	 */
+	public int size() {
+		return coveredInteractions.length;
+	}
+
+}
@@ -0,0 +1,246 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * Estimates the t-wise coverage of a sample for degrees of interactions for
+ * which the exact computation of the {@link ParallelTWiseTester} is not
+ * feasible. Interactions are drawn uniformly at random from all combinations of
+ * t presence conditions. A drawn interaction that is covered by the sample is
+ * valid, for all others a SAT solver decides the validity. The coverage is the
+ * share of covered interactions among the valid ones, for which a Wilson score
+ * interval with 95% confidence is computed. Interactions are drawn until the
+ * half width of the interval is at most the target error or the maximum number
+ * of probes is reached.
+ *
+ * @author Joshua Sprey
+ */
+public class CoverageEstimator {
+
+	/**
+	 * Result of an estimation.
+	 */
+	public static class CoverageEstimate {
+		private final double coverage;
+		private final double estimatedValidInteractions;
+		private final double lowerBound;
+		private final long probes;
+		private final double upperBound;
+		private final long validProbes;
+
+		private CoverageEstimate(double coverage, double lowerBound, double upperBound, long probes,
+				long validProbes, double estimatedValidInteractions) {
+			this.coverage = coverage;
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+			this.probes = probes;
+			this.validProbes = validProbes;
+			this.estimatedValidInteractions = estimatedValidInteractions;
+		}
+
+		/**
+		 * @return The estimated coverage.
+		 */
+		public double getCoverage() {
+			return coverage;
+		}
+
+		/**
+		 * @return The estimated number of valid interactions of the model.
+		 */
+		public double getEstimatedValidInteractions() {
+			return estimatedValidInteractions;
+		}
+
+		/**
+		 * @return The lower bound of the confidence interval of the coverage.
+		 */
+		public double getLowerBound() {
+			return lowerBound;
+		}
+
+		/**
+		 * @return The number of drawn interactions.
+		 */
+		public long getProbes() {
+			return probes;
+		}
+
+		/**
+		 * @return The upper bound of the confidence interval of the coverage.
+		 */
+		public double getUpperBound() {
+			return upperBound;
+		}
+
+		/**
+		 * @return The number of drawn interactions that were valid.
+		 */
+		public long getValidProbes() {
+			return validProbes;
+		}
+	}
+
+	/** Minimum number of valid probes before the estimation may stop. */
+	private static final int MIN_VALID_PROBES = 100;
+	/** Quantile of the standard normal distribution for 95% confidence. */
+	private static final double Z = 1.959964;
+
+	private final CNF cnf;
+	private long maxProbes = 1_000_000;
+	private final Random random;
+	private final int t;
+	private double targetError = 0.005;
+
+	/**
+	 * @param cnf  The model.
+	 * @param t    The degree of interactions.
+	 * @param seed The seed for drawing interactions.
+	 */
+	public CoverageEstimator(CNF cnf, int t, long seed) {
+		this.cnf = cnf;
+		this.t = t;
+		this.random = new Random(seed);
+	}
+
+	/**
+	 * Estimates the coverage of a sample.
+	 *
+	 * @param sample The configurations of the sample.
+	 * @return The estimate.
+	 */
+	public CoverageEstimate estimate(List<LiteralSet> sample) {
+		final int numberOfVariables = cnf.getVariables().size();
+		final int[] conditions = ParallelTWiseTester.getConditions(cnf, ParallelTWiseTester.getCoreDead(cnf), t);
+		if (conditions.length == 0) {
+			return new CoverageEstimate(1, 1, 1, 0, 0, 0);
+		}
+
+		// One bitset over the configurations for each literal
+		final int words = (sample.size() + 63) >> 6;
+		final long[][] literalConfigurations = new long[2 * numberOfVariables + 1][words];
+		for (int i = 0; i < sample.size(); i++) {
+			for (int literal : sample.get(i).getLiterals()) {
+				if (literal != 0) {
+					literalConfigurations[literal > 0 ? literal : numberOfVariables - literal][i >> 6] |= 1L << i;
+				}
+			}
+		}
+
+		final InteractionValidator validator = new InteractionValidator(cnf);
+		final int[] positions = new int[t];
+		final int[] combination = new int[t];
+		final long[] intersection = new long[words];
+		long probes = 0;
+		long validProbes = 0;
+		long coveredProbes = 0;
+		double halfWidth = 1;
+		while (probes < maxProbes && (validProbes < MIN_VALID_PROBES || halfWidth > targetError)) {
+			drawPositions(positions, conditions.length);
+			for (int i = 0; i < t; i++) {
+				combination[i] = conditions[positions[i]];
+			}
+			probes++;
+
+			Arrays.fill(intersection, -1L);
+			boolean covered = words > 0;
+			for (int i = 0; i < t && covered; i++) {
+				final long[] configurations = literalConfigurations[combination[i] > 0 ? combination[i]
+						: numberOfVariables - combination[i]];
+				covered = false;
+				for (int j = 0; j < words; j++) {
+					intersection[j] &= configurations[j];
+					covered |= intersection[j] != 0;
+				}
+			}
+			if (covered) {
+				coveredProbes++;
+				validProbes++;
+			} else if (validator.isValid(combination)) {
+				validProbes++;
+			} else {
+				continue;
+			}
+			halfWidth = getHalfWidth((double) coveredProbes / validProbes, validProbes);
+		}
+
+		final double totalInteractions = getNumberOfCombinations(conditions.length, t);
+		final double estimatedValidInteractions = probes > 0 ? totalInteractions * validProbes / probes : 0;
+		if (validProbes == 0) {
+			return new CoverageEstimate(1, 0, 1, probes, 0, estimatedValidInteractions);
+		}
+		final double coverage = (double) coveredProbes / validProbes;
+		final double center = getCenter(coverage, validProbes);
+		halfWidth = getHalfWidth(coverage, validProbes);
+		return new CoverageEstimate(coverage, Math.max(0, center - halfWidth), Math.min(1, center + halfWidth),
+				probes, validProbes, estimatedValidInteractions);
+	}
+
+	/**
+	 * Draws t distinct positions uniformly at random.
+	 */
+	private void drawPositions(int[] positions, int numberOfConditions) {
+		if (numberOfConditions < t) {
+			// Padded conditions as in the exact tester
+			for (int i = 0; i < t; i++) {
+				positions[i] = Math.min(i, numberOfConditions - 1);
+			}
+			return;
+		}
+		drawLoop: for (int i = 0; i < t;) {
+			final int position = random.nextInt(numberOfConditions);
+			for (int j = 0; j < i; j++) {
+				if (positions[j] == position) {
+					continue drawLoop;
+				}
+			}
+			positions[i++] = position;
+		}
+	}
+
+	/**
+	 * @return The center of the Wilson score interval.
+	 */
+	private double getCenter(double share, long n) {
+		return (share + ((Z * Z) / (2 * n))) / (1 + ((Z * Z) / n));
+	}
+
+	/**
+	 * @return The half width of the Wilson score interval.
+	 */
+	private double getHalfWidth(double share, long n) {
+		return (Z * Math.sqrt(((share * (1 - share)) / n) + ((Z * Z) / (4.0 * n * n)))) / (1 + ((Z * Z) / n));
+	}
+
+	private double getNumberOfCombinations(int n, int k) {
+		if (n < k) {
+			return 1;
+		}
+		double combinations = 1;
+		for (int i = 1; i <= k; i++) {
+			combinations = (combinations * (n - k + i)) / i;
+		}
+		return combinations;
+	}
+
+	/**
+	 * @param maxProbes The maximum number of drawn interactions.
+	 */
+	public void setMaxProbes(long maxProbes) {
+		this.maxProbes = maxProbes;
+	}
+
+	/**
+	 * @param targetError The half width of the confidence interval at which the
+	 *                    estimation stops.
+	 */
+	public void setTargetError(double targetError) {
+		this.targetError = targetError;
+	}
+
+}
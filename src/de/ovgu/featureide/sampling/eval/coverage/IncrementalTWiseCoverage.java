@@ -0,0 +1,225 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * Counts the t-wise interactions covered by a sample while its configurations
+ * are added one by one. The interactions are the same as in the
+ * {@link ParallelTWiseTester}. Each interaction is identified by its rank in
+ * the combinatorial number system over the presence conditions (see
+ * {@link InteractionRanking}), and covered
+ * interactions are marked in a bitmap with one bit per interaction. Thus, adding
+ * a configuration only enumerates the interactions it contains.
+ *
+ * As in the {@link ParallelTWiseTester}, an interaction is valid if it is
+ * covered by a configuration or if a valid configuration of the model contains
+ * it. The number of interactions of the latter kind must be known in advance,
+ * e.g., from a {@link ParallelTWiseTester} with an empty sample. A
+ * configuration that violates the model, e.g., a partial configuration, still
+ * covers all of its interactions. Only for such configurations, a SAT solver
+ * decides whether a newly covered interaction is invalid, in which case it
+ * additionally counts as valid.
+ *
+ * @author Joshua Sprey
+ */
+public class IncrementalTWiseCoverage {
+
+	/** Maximum number of interactions, limiting the bitmap to 512 MB. */
+	public static final long MAX_INTERACTIONS = InteractionRanking.MAX_INTERACTIONS;
+	private static final int PAGE_BITS = InteractionRanking.PAGE_BITS;
+
+	private final CNF cnf;
+	private final List<LiteralSet> clauses;
+	private final int[] conditions;
+	/** Position of each literal in the conditions or -1. */
+	private final int[] conditionPositions;
+	private long coveredInteractions = 0;
+	/** Number of covered interactions that are not contained in a valid configuration. */
+	private long coveredInvalidInteractions = 0;
+	private final long[][] coveredPages;
+	private final int numberOfVariables;
+	/** Number of words of each page of the bitmap. */
+	private final int pageSize;
+	private final InteractionRanking ranking;
+	/** Marks the literals of the configuration that is checked for validity. */
+	private final boolean[] selectedLiterals;
+	private final int t;
+	private final long validInteractions;
+	/** Decides the validity of interactions of invalid configurations. */
+	private InteractionValidator validator;
+
+	/**
+	 * Creates a new counter for the given model.
+	 *
+	 * @param cnf               The model.
+	 * @param t                 The degree of interactions.
+	 * @param validInteractions The number of interactions of the model that are
+	 *                          contained in a valid configuration.
+	 * @throws IllegalArgumentException If the model has more than
+	 *                                  {@link #MAX_INTERACTIONS} interactions.
+	 */
+	public IncrementalTWiseCoverage(CNF cnf, int t, long validInteractions) {
+		this.cnf = cnf;
+		this.t = t;
+		this.validInteractions = validInteractions;
+		this.clauses = cnf.getClauses();
+		this.numberOfVariables = cnf.getVariables().size();
+
+		conditions = InteractionRanking.getConditions(cnf);
+		conditionPositions = new int[2 * numberOfVariables + 1];
+		Arrays.fill(conditionPositions, -1);
+		for (int position = 0; position < conditions.length; position++) {
+			conditionPositions[literalIndex(conditions[position])] = position;
+		}
+
+		ranking = new InteractionRanking(conditions.length, t, MAX_INTERACTIONS);
+		final long interactions = ranking.getNumberOfInteractions();
+		coveredPages = new long[(int) (interactions >>> PAGE_BITS) + 1][];
+		pageSize = (int) Math.min(1L << (PAGE_BITS - 6), (interactions >>> 6) + 1);
+		selectedLiterals = new boolean[2 * numberOfVariables + 1];
+	}
+
+	/**
+	 * Adds a configuration and marks all interactions it contains as covered.
+	 *
+	 * @param configuration The literals of the configuration.
+	 * @return The number of interactions that were not covered before.
+	 */
+	public long add(int[] configuration) {
+		final int[] positions = new int[configuration.length];
+		int size = 0;
+		for (int literal : configuration) {
+			if (literal != 0) {
+				final int position = conditionPositions[literalIndex(literal)];
+				if (position >= 0) {
+					positions[size++] = position;
+				}
+			}
+		}
+		if (size < t) {
+			return 0;
+		}
+		Arrays.sort(positions, 0, size);
+		int distinctSize = 1;
+		for (int i = 1; i < size; i++) {
+			if (positions[i] != positions[distinctSize - 1]) {
+				positions[distinctSize++] = positions[i];
+			}
+		}
+		if (distinctSize < t) {
+			return 0;
+		}
+		final int[] combination;
+		if (isValid(configuration)) {
+			combination = null;
+		} else {
+			if (validator == null) {
+				validator = new InteractionValidator(cnf);
+			}
+			combination = new int[t];
+		}
+		final long newlyCovered = mark(positions, t, distinctSize, 0, combination);
+		coveredInteractions += newlyCovered;
+		return newlyCovered;
+	}
+
+	/**
+	 * @return The ratio of covered to valid interactions.
+	 */
+	public double getCoverage() {
+		final long valid = getValidInteractions();
+		return valid > 0 ? (double) coveredInteractions / valid : 1;
+	}
+
+	/**
+	 * @return The number of covered interactions.
+	 */
+	public long getCoveredInteractions() {
+		return coveredInteractions;
+	}
+
+	/**
+	 * @return The number of valid interactions, including the covered interactions
+	 *         that are not contained in a valid configuration.
+	 */
+	public long getValidInteractions() {
+		return validInteractions + coveredInvalidInteractions;
+	}
+
+	private boolean isValid(int[] configuration) {
+		for (int literal : configuration) {
+			if (literal != 0) {
+				selectedLiterals[literalIndex(literal)] = true;
+			}
+		}
+		try {
+			clauseLoop: for (LiteralSet clause : clauses) {
+				for (int literal : clause.getLiterals()) {
+					if (selectedLiterals[literalIndex(literal)]) {
+						continue clauseLoop;
+					}
+				}
+				return false;
+			}
+			return true;
+		} finally {
+			for (int literal : configuration) {
+				if (literal != 0) {
+					selectedLiterals[literalIndex(literal)] = false;
+				}
+			}
+		}
+	}
+
+	private int literalIndex(int literal) {
+		return literal > 0 ? literal : numberOfVariables - literal;
+	}
+
+	/**
+	 * Marks all combinations of k positions of the first <code>end</code>
+	 * positions. The combinations are enumerated from the highest position
+	 * downwards, such that the rank of a combination (see
+	 * {@link InteractionRanking#rank(int[])}) is accumulated. If a combination buffer is given, the validity of each
+	 * newly marked combination is checked.
+	 *
+	 * @return The number of combinations that were not marked before.
+	 */
+	private long mark(int[] positions, int k, int end, long rank, int[] combination) {
+		long newlyMarked = 0;
+		if (k == 0) {
+			final long[] page = getPage(rank);
+			final int bit = (int) (rank & ((1L << PAGE_BITS) - 1));
+			final long mask = 1L << bit;
+			if ((page[bit >>> 6] & mask) == 0) {
+				page[bit >>> 6] |= mask;
+				newlyMarked++;
+				if (combination != null && !validator.isValid(combination)) {
+					coveredInvalidInteractions++;
+				}
+			}
+			return newlyMarked;
+		}
+		for (int i = end - 1; i >= k - 1; i--) {
+			if (combination != null) {
+				combination[k - 1] = conditions[positions[i]];
+			}
+			newlyMarked += mark(positions, k - 1, i, rank + ranking.binomial(positions[i], k),
+					combination);
+		}
+		return newlyMarked;
+	}
+
+	private long[] getPage(long rank) {
+		final int pageIndex = (int) (rank >>> PAGE_BITS);
+		long[] page = coveredPages[pageIndex];
+		if (page == null) {
+			page = new long[pageSize];
+			coveredPages[pageIndex] = page;
+		}
+		return page;
+	}
+}
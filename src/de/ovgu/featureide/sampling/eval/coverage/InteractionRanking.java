@@ -0,0 +1,137 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+
+/**
+ * Identifies the t-wise interactions over a list of presence conditions by
+ * their ranks in the combinatorial number system. An interaction is given by
+ * the positions <i>p<sub>0</sub> &lt; ... &lt; p<sub>t-1</sub></i> of its
+ * conditions and has the rank <i>C(p<sub>0</sub>, 1) + ... +
+ * C(p<sub>t-1</sub>, t)</i>. Thus, the ranks of all interactions are exactly
+ * the numbers from 0 to <i>C(n, t) - 1</i> for n conditions, ordered
+ * colexicographically. All bitmaps over interactions in this package use this
+ * ranking.
+ *
+ * @author Joshua Sprey
+ */
+final class InteractionRanking {
+
+	/** Maximum number of interactions of bitmaps in the heap (512 MB). */
+	static final long MAX_INTERACTIONS = 1L << 32;
+	/** Number of bits of each page of a bitmap in the heap. */
+	static final int PAGE_BITS = 26;
+
+	/**
+	 * Computes the presence conditions of a model without the padding of the
+	 * {@link ParallelTWiseTester}, as padded conditions do not form interactions
+	 * of distinct literals.
+	 *
+	 * @param cnf The model.
+	 * @return The distinct conditions in the order of the literals of the model.
+	 */
+	static int[] getConditions(CNF cnf) {
+		return ParallelTWiseTester.getConditions(cnf, ParallelTWiseTester.getCoreDead(cnf), 0);
+	}
+
+	/**
+	 * Returns the name of a literal that does not depend on the randomization of
+	 * the variables, e.g., "+Feature" or "-Feature".
+	 *
+	 * @param variables The variables of the model.
+	 * @param literal   The literal.
+	 * @return The name of the feature with the sign of the literal.
+	 */
+	static String getName(IVariables variables, int literal) {
+		return (literal > 0 ? "+" : "-") + variables.getName(Math.abs(literal));
+	}
+
+	/** binomials[k][n] = n choose k */
+	private final long[][] binomials;
+	private final int numberOfConditions;
+	private final int t;
+
+	/**
+	 * @param numberOfConditions The number of conditions.
+	 * @param t                  The degree of interactions.
+	 * @param maxInteractions    The largest allowed binomial coefficient up to n
+	 *                           and t.
+	 * @throws IllegalArgumentException If there are more than
+	 *                                  <code>maxInteractions</code> combinations
+	 *                                  of the conditions.
+	 */
+	InteractionRanking(int numberOfConditions, int t, long maxInteractions) {
+		this.numberOfConditions = numberOfConditions;
+		this.t = t;
+		binomials = new long[t + 1][numberOfConditions + 1];
+		try {
+			for (int n = 0; n <= numberOfConditions; n++) {
+				binomials[0][n] = 1;
+				for (int k = 1; k <= t; k++) {
+					binomials[k][n] = n < k ? 0 : Math.addExact(binomials[k][n - 1], binomials[k - 1][n - 1]);
+					if (binomials[k][n] > maxInteractions) {
+						throw new ArithmeticException();
+					}
+				}
+			}
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException(
+					"Too many interactions for " + numberOfConditions + " conditions and t = " + t);
+		}
+	}
+
+	/**
+	 * @param n The number of elements.
+	 * @param k The number of chosen elements, at most t.
+	 * @return n choose k
+	 */
+	long binomial(int n, int k) {
+		return binomials[k][n];
+	}
+
+	/**
+	 * @return The number of interactions of the conditions.
+	 */
+	long getNumberOfInteractions() {
+		return binomials[t][numberOfConditions];
+	}
+
+	/**
+	 * @param positions The positions of the conditions of an interaction in
+	 *                  ascending order without duplicates.
+	 * @return The rank of the interaction.
+	 */
+	long rank(int[] positions) {
+		long rank = 0;
+		for (int i = 0; i < positions.length; i++) {
+			rank += binomials[i + 1][positions[i]];
+		}
+		return rank;
+	}
+
+	/**
+	 * @param rank The rank of an interaction.
+	 * @return The positions of the conditions of the interaction in ascending
+	 *         order.
+	 */
+	int[] unrank(long rank) {
+		final int[] positions = new int[t];
+		for (int k = t; k > 0; k--) {
+			// Largest position p with (p choose k) <= rank
+			int low = k - 1;
+			int high = numberOfConditions - 1;
+			while (low < high) {
+				final int middle = (low + high + 1) >>> 1;
+				if (binomials[k][middle] <= rank) {
+					low = middle;
+				} else {
+					high = middle - 1;
+				}
+			}
+			positions[k - 1] = low;
+			rank -= binomials[k][low];
+		}
+		return positions;
+	}
+
+}
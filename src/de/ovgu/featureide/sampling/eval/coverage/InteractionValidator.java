@@ -0,0 +1,122 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.AdvancedSatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISatSolver;
+import de.ovgu.featureide.fm.core.analysis.cnf.solver.ISimpleSatSolver.SatResult;
+
+/**
+ * Decides whether the literals of an interaction can be selected together in a
+ * valid configuration of a model. Each thread uses its own copy of a SAT
+ * solver and keeps its recent solutions, such that most interactions are
+ * decided without calling the solver.
+ *
+ * @author Joshua Sprey
+ */
+class InteractionValidator {
+
+	/**
+	 * State of one worker thread.
+	 */
+	private static class Worker {
+		private static final int SOLUTION_CACHE_SIZE = 1000;
+
+		/** Recent solutions of the solver, used to avoid repeated SAT calls. */
+		private final List<LiteralSet> solutions = new ArrayList<>();
+		private final ISatSolver solver;
+		private int nextSolution = 0;
+
+		private Worker(ISatSolver solver) {
+			this.solver = solver;
+		}
+
+		private void addSolution(int[] solution) {
+			final LiteralSet literalSet = new LiteralSet(solution, Order.INDEX, false);
+			if (solutions.size() < SOLUTION_CACHE_SIZE) {
+				solutions.add(literalSet);
+			} else {
+				solutions.set(nextSolution, literalSet);
+				nextSolution = (nextSolution + 1) % SOLUTION_CACHE_SIZE;
+			}
+		}
+	}
+
+	/**
+	 * Removes duplicate literals of a combination.
+	 *
+	 * @return The distinct literals or <code>null</code> if the combination
+	 *         contains complementary literals.
+	 */
+	private static int[] toLiterals(int[] combination) {
+		final int[] literals = new int[combination.length];
+		int size = 0;
+		combinationLoop: for (int literal : combination) {
+			for (int i = 0; i < size; i++) {
+				if (literals[i] == literal) {
+					continue combinationLoop;
+				} else if (literals[i] == -literal) {
+					return null;
+				}
+			}
+			literals[size++] = literal;
+		}
+		return size == literals.length ? literals : Arrays.copyOf(literals, size);
+	}
+
+	private final ISatSolver solverPrototype;
+	private final ThreadLocal<Worker> workers;
+
+	/**
+	 * @param cnf The model.
+	 */
+	InteractionValidator(CNF cnf) {
+		solverPrototype = cnf.getClauses().isEmpty() ? null : new AdvancedSatSolver(cnf);
+		workers = ThreadLocal.withInitial(() -> {
+			if (solverPrototype == null) {
+				return new Worker(null);
+			}
+			synchronized (solverPrototype) {
+				return new Worker(solverPrototype.clone());
+			}
+		});
+	}
+
+	/**
+	 * @param combination The literals of an interaction, possibly with duplicates.
+	 * @return {@link Boolean#TRUE} if a valid configuration contains all literals.
+	 */
+	boolean isValid(int[] combination) {
+		final int[] literals = toLiterals(combination);
+		if (literals == null) {
+			return false;
+		}
+		final Worker worker = workers.get();
+		if (worker.solver == null) {
+			return true;
+		}
+		for (LiteralSet solution : worker.solutions) {
+			if (!solution.hasConflicts(literals)) {
+				return true;
+			}
+		}
+		final ISatSolver solver = worker.solver;
+		final int orgAssignmentSize = solver.getAssignmentSize();
+		solver.assignmentPushAll(literals);
+		try {
+			if (solver.hasSolution() == SatResult.TRUE) {
+				worker.addSolution(solver.getSolution());
+				return true;
+			}
+			return false;
+		} finally {
+			solver.assignmentClear(orgAssignmentSize);
+		}
+	}
+
+}
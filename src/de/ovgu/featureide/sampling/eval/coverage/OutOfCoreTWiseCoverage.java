@@ -0,0 +1,350 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.CoverageStatistic;
+
+/**
+ * Computes the exact t-wise coverage of a sample for models whose interactions
+ * do not fit into the heap. The interactions are enumerated in the order of
+ * their ranks in the combinatorial number system over the presence conditions
+ * (see {@link InteractionRanking}) and split into chunks of consecutive ranks,
+ * which are processed in parallel by the tasks of a {@link ForkJoinPool}. Each
+ * task keeps only the bits of its chunk in memory and writes them to a
+ * {@link ChunkedBitmapFile}:
+ * <ul>
+ * <li>The valid interactions of the model are stored in
+ * <code>valid_t&lt;t&gt;.bits</code>. The conditions are ordered by the names
+ * of their features, such that the bitmap is shared by all randomized variants
+ * of a model and only computed once.</li>
+ * <li>The covered interactions of a sample are stored in
+ * <code>covered_t&lt;t&gt;_&lt;hash&gt;.bits</code>, which is deleted after the
+ * coverage was computed.</li>
+ * </ul>
+ * Completed chunks are marked in the files, such that an interrupted
+ * computation is resumed with the first incomplete chunk when the coverage of
+ * the same model or sample is computed again.
+ *
+ * @author Joshua Sprey
+ */
+public class OutOfCoreTWiseCoverage {
+
+	/**
+	 * Marks the valid and covered interactions of one chunk.
+	 */
+	private class ChunkTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = 4921766930151866542L;
+
+		private final int chunk;
+		private final ChunkedBitmapFile coveredBitmap;
+		private final ChunkedBitmapFile validBitmap;
+
+		private ChunkTask(int chunk, ChunkedBitmapFile validBitmap, ChunkedBitmapFile coveredBitmap) {
+			this.chunk = chunk;
+			this.validBitmap = validBitmap;
+			this.coveredBitmap = coveredBitmap;
+		}
+
+		@Override
+		protected long[] compute() {
+			try {
+				final long firstRank = chunk * validBitmap.getChunkSize();
+				final long length = Math.min(validBitmap.getChunkSize(), interactions - firstRank);
+				if (coveredBitmap == null) {
+					if (!validBitmap.isComplete(chunk)) {
+						final long[] validBits = new long[(int) ((length + 63) >>> 6)];
+						mark(firstRank, length, validBits, false, null);
+						validBitmap.write(chunk, validBits, bitCount(validBits, null));
+					}
+					return new long[] { validBitmap.getValue(chunk, 0), 0 };
+				}
+				if (!coveredBitmap.isComplete(chunk)) {
+					final long[] validBits = new long[(int) ((length + 63) >>> 6)];
+					final long[] coveredBits = new long[validBits.length];
+					final boolean validComplete = validBitmap.isComplete(chunk);
+					if (validComplete) {
+						validBitmap.read(chunk, validBits);
+					}
+					mark(firstRank, length, validBits, validComplete, coveredBits);
+					if (!validComplete) {
+						validBitmap.write(chunk, validBits, bitCount(validBits, null));
+					}
+					coveredBitmap.write(chunk, coveredBits, bitCount(validBits, coveredBits),
+							bitCount(coveredBits, null));
+				}
+				return new long[] { coveredBitmap.getValue(chunk, VALID), coveredBitmap.getValue(chunk, COVERED) };
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+
+	/** Default number of interactions of each chunk (2 MB per bitmap). */
+	public static final long DEFAULT_CHUNK_SIZE = 1L << 24;
+	/** Maximum number of interactions of each chunk (128 MB per bitmap). */
+	public static final long MAX_CHUNK_SIZE = 1L << 30;
+
+	/** Index of the number of covered interactions in the values of a chunk. */
+	private static final int COVERED = 1;
+	/** Index of the number of valid interactions in the values of a chunk. */
+	private static final int VALID = 0;
+
+	private static long bitCount(long[] bits, long[] additionalBits) {
+		long count = 0;
+		for (int i = 0; i < bits.length; i++) {
+			count += Long.bitCount(additionalBits != null ? bits[i] | additionalBits[i] : bits[i]);
+		}
+		return count;
+	}
+
+	private static String toHex(byte[] bytes) {
+		final StringBuilder hex = new StringBuilder();
+		for (byte b : bytes) {
+			hex.append(String.format("%02x", b));
+		}
+		return hex.toString();
+	}
+
+	/** One bit for each configuration of the sample. */
+	private long[] allConfigurations;
+	private long chunkSize = DEFAULT_CHUNK_SIZE;
+	private final CNF cnf;
+	/** The conditions in the order of their names. */
+	private int[] conditions;
+	private final Path directory;
+	private long interactions;
+	/** For each literal, one bit for each configuration that contains it. */
+	private long[][] literalConfigurations;
+	private final int numberOfVariables;
+	private final ForkJoinPool pool;
+	private InteractionRanking ranking;
+	private final int t;
+	/** One bit for each configuration of the sample that is valid. */
+	private long[] validConfigurations;
+	private InteractionValidator validator;
+
+	/**
+	 * @param cnf       The model.
+	 * @param t         The degree of interactions.
+	 * @param directory The directory of the bitmap files.
+	 * @param pool      The pool that executes the computation.
+	 */
+	public OutOfCoreTWiseCoverage(CNF cnf, int t, Path directory, ForkJoinPool pool) {
+		this.cnf = cnf;
+		this.t = t;
+		this.directory = directory;
+		this.pool = pool;
+		this.numberOfVariables = cnf.getVariables().size();
+	}
+
+	/**
+	 * Computes the t-wise coverage of a sample.
+	 *
+	 * @param sample The configurations of the sample.
+	 * @return The statistic of all interactions.
+	 * @throws IOException              If the bitmap files cannot be accessed.
+	 * @throws IllegalArgumentException If the model has more than
+	 *                                  {@link Long#MAX_VALUE} interactions.
+	 */
+	public CoverageStatistic getCoverage(List<LiteralSet> sample) throws IOException {
+		final int[] modelConditions = InteractionRanking.getConditions(cnf);
+		if (modelConditions.length < t) {
+			// The tester handles the padded conditions
+			final ParallelTWiseTester tester = new ParallelTWiseTester(cnf, pool);
+			tester.setT(t);
+			tester.setSample(sample);
+			return tester.getCoverage();
+		}
+		init(modelConditions, sample);
+
+		Files.createDirectories(directory);
+		final String modelKey = ValidInteractionIndex.getModelKey(cnf);
+		final String sampleKey = sample.isEmpty() ? null : getSampleKey(modelKey, sample);
+		final Path coveredFile = sampleKey == null ? null
+				: directory.resolve("covered_t" + t + "_" + sampleKey.substring(0, 16) + ".bits");
+		final long[] counters = new long[2];
+		try (ChunkedBitmapFile validBitmap = ChunkedBitmapFile.open(directory.resolve("valid_t" + t + ".bits"),
+				modelKey, interactions, chunkSize, 1);
+				ChunkedBitmapFile coveredBitmap = coveredFile == null ? null
+						: ChunkedBitmapFile.open(coveredFile, sampleKey, interactions, validBitmap.getChunkSize(),
+								2)) {
+			final List<ChunkTask> tasks = new ArrayList<>();
+			for (int chunk = 0; chunk < validBitmap.getNumberOfChunks(); chunk++) {
+				tasks.add(new ChunkTask(chunk, validBitmap, coveredBitmap));
+			}
+			pool.submit(() -> {
+				for (ChunkTask task : RecursiveTask.invokeAll(tasks)) {
+					final long[] taskCounters = task.join();
+					counters[VALID] += taskCounters[VALID];
+					counters[COVERED] += taskCounters[COVERED];
+				}
+			}).join();
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		if (coveredFile != null) {
+			Files.deleteIfExists(coveredFile);
+		}
+		return new TWiseCoverageStatistic(counters[VALID], interactions - counters[VALID], counters[COVERED],
+				counters[VALID] - counters[COVERED]);
+	}
+
+	/**
+	 * Computes a key that identifies the configurations of a sample of the model.
+	 */
+	private String getSampleKey(String modelKey, List<LiteralSet> sample) {
+		final IVariables variables = cnf.getVariables();
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(modelKey.getBytes(StandardCharsets.UTF_8));
+			for (LiteralSet configuration : sample) {
+				final String[] literals = new String[configuration.size()];
+				for (int i = 0; i < literals.length; i++) {
+					literals[i] = InteractionRanking.getName(variables, configuration.getLiterals()[i]);
+				}
+				Arrays.sort(literals);
+				digest.update((byte) '\n');
+				digest.update(String.join(" ", literals).getBytes(StandardCharsets.UTF_8));
+			}
+			return toHex(digest.digest());
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void init(int[] modelConditions, List<LiteralSet> sample) {
+		final IVariables variables = cnf.getVariables();
+		conditions = IntStream.of(modelConditions).boxed()
+				.sorted(Comparator.comparing((Integer literal) -> InteractionRanking.getName(variables, literal)))
+				.mapToInt(Integer::intValue).toArray();
+		ranking = new InteractionRanking(conditions.length, t, Long.MAX_VALUE);
+		interactions = ranking.getNumberOfInteractions();
+		validator = new InteractionValidator(cnf);
+
+		final int words = (sample.size() + 63) >> 6;
+		allConfigurations = new long[words];
+		validConfigurations = new long[words];
+		literalConfigurations = new long[2 * numberOfVariables + 1][words];
+		final List<LiteralSet> clauses = cnf.getClauses();
+		for (int i = 0; i < sample.size(); i++) {
+			final LiteralSet configuration = sample.get(i);
+			allConfigurations[i >> 6] |= 1L << i;
+			if (clauses.stream().allMatch(configuration::hasDuplicates)) {
+				validConfigurations[i >> 6] |= 1L << i;
+			}
+			for (int literal : configuration.getLiterals()) {
+				if (literal != 0) {
+					literalConfigurations[literalIndex(literal)][i >> 6] |= 1L << i;
+				}
+			}
+		}
+	}
+
+	private int literalIndex(int literal) {
+		return literal > 0 ? literal : numberOfVariables - literal;
+	}
+
+	/**
+	 * Enumerates the interactions of a chunk in the order of their ranks. The
+	 * intersections of the configurations that contain the conditions at the
+	 * largest positions are shared by consecutive interactions.
+	 *
+	 * @param firstRank     The rank of the first interaction of the chunk.
+	 * @param length        The number of interactions of the chunk.
+	 * @param validBits     The valid interactions of the chunk, which are marked
+	 *                      if <code>validComplete</code> is false.
+	 * @param validComplete Whether the valid interactions are already known.
+	 * @param coveredBits   The covered interactions of the chunk, which are
+	 *                      marked, or <code>null</code> if no sample is tested.
+	 */
+	private void mark(long firstRank, long length, long[] validBits, boolean validComplete, long[] coveredBits) {
+		final int[] positions = ranking.unrank(firstRank);
+		final int[] combination = new int[t];
+		// intersections[i] contains the configurations with the conditions at positions i to t - 1
+		final long[][] intersections = new long[t + 1][];
+		intersections[t] = allConfigurations;
+		for (int i = 0; i < t; i++) {
+			intersections[i] = new long[allConfigurations.length];
+		}
+
+		int changed = t - 1;
+		for (int bit = 0; bit < length; bit++) {
+			boolean covered = false;
+			for (int i = changed; i >= 0; i--) {
+				combination[i] = conditions[positions[i]];
+				if (coveredBits != null) {
+					final long[] configurations = literalConfigurations[literalIndex(combination[i])];
+					final long[] previous = intersections[i + 1];
+					final long[] current = intersections[i];
+					for (int j = 0; j < current.length; j++) {
+						current[j] = previous[j] & configurations[j];
+					}
+				}
+			}
+			if (coveredBits != null) {
+				final long[] intersection = intersections[0];
+				for (int j = 0; j < intersection.length && !covered; j++) {
+					covered = intersection[j] != 0;
+				}
+				if (covered) {
+					coveredBits[bit >>> 6] |= 1L << bit;
+				}
+			}
+			if (!validComplete && isValid(combination, covered ? intersections[0] : null)) {
+				validBits[bit >>> 6] |= 1L << bit;
+			}
+
+			// Next combination in colexicographic order
+			changed = 0;
+			while (changed < t - 1 && positions[changed] + 1 == positions[changed + 1]) {
+				changed++;
+			}
+			positions[changed]++;
+			for (int i = 0; i < changed; i++) {
+				positions[i] = i;
+			}
+		}
+	}
+
+	/**
+	 * Decides whether an interaction is valid. An interaction that is covered by
+	 * a valid configuration of the sample is valid without a SAT call.
+	 */
+	private boolean isValid(int[] combination, long[] coveringConfigurations) {
+		if (coveringConfigurations != null) {
+			for (int j = 0; j < coveringConfigurations.length; j++) {
+				if ((coveringConfigurations[j] & validConfigurations[j]) != 0) {
+					return true;
+				}
+			}
+		}
+		return validator.isValid(combination);
+	}
+
+	/**
+	 * @param chunkSize The number of interactions of each chunk, rounded up to a
+	 *                  multiple of 64 and at most {@link #MAX_CHUNK_SIZE}. An
+	 *                  existing bitmap of the valid interactions keeps its chunk
+	 *                  size.
+	 */
+	public void setChunkSize(long chunkSize) {
+		this.chunkSize = Math.min(MAX_CHUNK_SIZE, Math.max(64, (chunkSize + 63) & ~63L));
+	}
+
+}
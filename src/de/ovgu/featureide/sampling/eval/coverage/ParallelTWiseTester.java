@@ -0,0 +1,352 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.analysis.CoreDeadAnalysis;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationTester;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.CoverageStatistic;
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.ValidityStatistic;
+import de.ovgu.featureide.fm.core.job.LongRunningWrapper;
+
+/**
+ * Computes the validity and the t-wise coverage of a sample in parallel. The
+ * results are identical to the {@link TWiseConfigurationTester} when it is used
+ * with all literals of a model as presence conditions, i.e., every combination
+ * of t literals of features that are neither core nor dead is an interaction.
+ *
+ * The interactions are partitioned by their first literal and each partition
+ * is processed as a task of a {@link ForkJoinPool}. The sample is stored
+ * transposed, i.e., as one bitset over the configurations for each literal.
+ * Whether an interaction is covered is decided by intersecting the bitsets of
+ * its literals word by word, where the intersection of the first i literals is
+ * shared by all interactions with the same prefix. Only interactions that are
+ * not covered are checked for validity, either by a lookup in a
+ * {@link ValidInteractionIndex} of the model or by a SAT solver, of which each
+ * worker thread uses its own copy.
+ *
+ * @author Joshua Sprey
+ */
+public class ParallelTWiseTester {
+
+	/**
+	 * Counts all interactions that start with the condition at a given position.
+	 */
+	private class CoverageTask extends RecursiveTask<long[]> {
+		private static final long serialVersionUID = -5043867123440598807L;
+
+		private final int firstPosition;
+
+		private CoverageTask(int firstPosition) {
+			this.firstPosition = firstPosition;
+		}
+
+		@Override
+		protected long[] compute() {
+			final long[] counters = new long[4];
+			final int[] combination = new int[t];
+			// configurations that contain the first i literals of the combination
+			final long[][] intersections = new long[t][];
+			final int[] lastWords = new int[t];
+			intersections[0] = allConfigurations;
+			lastWords[0] = allConfigurations.length;
+			for (int i = 1; i < t; i++) {
+				intersections[i] = new long[allConfigurations.length];
+			}
+
+			combination[0] = conditions[firstPosition];
+			if (t == 1) {
+				countCombination(combination, intersects(allConfigurations, lastWords[0], conditions[firstPosition]),
+						counters);
+			} else {
+				intersect(intersections, lastWords, 1, conditions[firstPosition]);
+				count(1, firstPosition + 1, combination, intersections, lastWords, counters);
+			}
+			return counters;
+		}
+	}
+
+	private static final int COVERED = 2;
+	private static final int INVALID = 1;
+	private static final int UNCOVERED = 3;
+	private static final int VALID = 0;
+
+	/**
+	 * Computes the literals that are used as presence conditions, i.e., all
+	 * literals of features that are neither core nor dead. As in FeatureIDE, less
+	 * than t conditions are padded with the first condition.
+	 *
+	 * @param cnf      The model.
+	 * @param coreDead The core and dead features of the model.
+	 * @param t        The degree of interactions.
+	 * @return The conditions in the order of the literals of the model.
+	 */
+	public static int[] getConditions(CNF cnf, LiteralSet coreDead, int t) {
+		final List<Integer> literals = new ArrayList<>();
+		for (int literal : cnf.getVariables().getLiterals().getLiterals()) {
+			if (!coreDead.containsVariable(Math.abs(literal))) {
+				literals.add(literal);
+			}
+		}
+		if (!literals.isEmpty()) {
+			for (int i = literals.size(); i < t; i++) {
+				literals.add(literals.get(0));
+			}
+		}
+		return literals.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 * @param cnf The model.
+	 * @return The core and dead features of the model.
+	 */
+	public static LiteralSet getCoreDead(CNF cnf) {
+		return cnf.getClauses().isEmpty() ? new LiteralSet()
+				: LongRunningWrapper.runMethod(new CoreDeadAnalysis(cnf));
+	}
+
+	/** One bit for each configuration of the sample. */
+	private long[] allConfigurations;
+	private final CNF cnf;
+	/** The literals used as presence conditions. */
+	private int[] conditions;
+	/** For each literal, one bit for each configuration that contains it. */
+	private long[][] literalConfigurations;
+	private final int numberOfVariables;
+	private final ForkJoinPool pool;
+	private List<LiteralSet> sample;
+	private int t;
+	/** Valid interactions of the model, or <code>null</code> to use a solver. */
+	private ValidInteractionIndex validInteractionIndex;
+	/** Positions of the literals in the valid interaction index. */
+	private int[] validInteractionPositions;
+	private InteractionValidator validator;
+
+	/**
+	 * Creates a new tester for the given model.
+	 *
+	 * @param cnf  The model.
+	 * @param pool The pool that executes the computation.
+	 */
+	public ParallelTWiseTester(CNF cnf, ForkJoinPool pool) {
+		this.cnf = cnf;
+		this.pool = pool;
+		this.numberOfVariables = cnf.getVariables().size();
+	}
+
+	/**
+	 * Enumerates all combinations that extend the given prefix of
+	 * <code>depth</code> literals. The last literal of a combination is only
+	 * tested against the intersection of the prefix, without storing the
+	 * result.
+	 */
+	private void count(int depth, int start, int[] combination, long[][] intersections, int[] lastWords,
+			long[] counters) {
+		final int end = conditions.length - (t - depth);
+		if (depth == t - 1) {
+			final long[] prefix = intersections[depth];
+			final int lastWord = lastWords[depth];
+			for (int position = start; position <= end; position++) {
+				combination[depth] = conditions[position];
+				countCombination(combination, intersects(prefix, lastWord, conditions[position]), counters);
+			}
+			return;
+		}
+		for (int position = start; position <= end; position++) {
+			combination[depth] = conditions[position];
+			intersect(intersections, lastWords, depth + 1, conditions[position]);
+			count(depth + 1, position + 1, combination, intersections, lastWords, counters);
+		}
+	}
+
+	private void countCombination(int[] combination, boolean covered, long[] counters) {
+		if (covered) {
+			counters[COVERED]++;
+		}
+		if (covered || isCombinationValid(combination)) {
+			counters[VALID]++;
+			if (!covered) {
+				counters[UNCOVERED]++;
+			}
+		} else {
+			counters[INVALID]++;
+		}
+	}
+
+	/**
+	 * Intersects the configurations of the prefix of the given level with the
+	 * configurations that contain the literal. Only the words up to the last
+	 * non-zero word of the prefix are processed.
+	 */
+	private void intersect(long[][] intersections, int[] lastWords, int level, int literal) {
+		final long[] previous = intersections[level - 1];
+		final long[] configurations = literalConfigurations[literalIndex(literal)];
+		final long[] current = intersections[level];
+		int lastWord = 0;
+		for (int i = 0; i < lastWords[level - 1]; i++) {
+			final long word = previous[i] & configurations[i];
+			current[i] = word;
+			if (word != 0) {
+				lastWord = i + 1;
+			}
+		}
+		lastWords[level] = lastWord;
+	}
+
+	/**
+	 * @return {@link Boolean#TRUE} if a configuration of the prefix contains the
+	 *         literal.
+	 */
+	private boolean intersects(long[] prefix, int lastWord, int literal) {
+		final long[] configurations = literalConfigurations[literalIndex(literal)];
+		for (int i = 0; i < lastWord; i++) {
+			if ((prefix[i] & configurations[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the t-wise coverage of the sample.
+	 *
+	 * @return The statistic of all interactions.
+	 */
+	public CoverageStatistic getCoverage() {
+		init();
+		if (conditions.length == 0) {
+			return new TWiseCoverageStatistic(0, 0, 0, 0);
+		}
+		final List<CoverageTask> tasks = new ArrayList<>();
+		for (int position = 0; position <= conditions.length - t; position++) {
+			tasks.add(new CoverageTask(position));
+		}
+		final long[] counters = new long[4];
+		pool.submit(() -> {
+			for (CoverageTask task : RecursiveTask.invokeAll(tasks)) {
+				final long[] taskCounters = task.join();
+				for (int i = 0; i < counters.length; i++) {
+					counters[i] += taskCounters[i];
+				}
+			}
+		}).join();
+		return new TWiseCoverageStatistic(counters[VALID], counters[INVALID], counters[COVERED], counters[UNCOVERED]);
+	}
+
+	/**
+	 * @return The sample.
+	 */
+	public List<LiteralSet> getSample() {
+		return sample;
+	}
+
+	/**
+	 * Checks the validity of all configurations of the sample in parallel.
+	 *
+	 * @return The statistic of all configurations.
+	 */
+	public ValidityStatistic getValidity() {
+		final List<LiteralSet> clauses = cnf.getClauses();
+		final boolean[] validities = new boolean[sample.size()];
+		pool.submit(() -> IntStream.range(0, validities.length).parallel()
+				.forEach(i -> validities[i] = isValid(sample.get(i), clauses))).join();
+		final ValidityStatistic statistic = new ValidityStatistic(validities.length);
+		for (int i = 0; i < validities.length; i++) {
+			statistic.setConfigValidity(i, validities[i]);
+		}
+		return statistic;
+	}
+
+	private void init() {
+		validator = new InteractionValidator(cnf);
+		conditions = getConditions(cnf, getCoreDead(cnf), t);
+		validInteractionPositions = validInteractionIndex != null && validInteractionIndex.getT() == t
+				? validInteractionIndex.getConditionPositions(cnf)
+				: null;
+
+		final int words = (sample.size() + 63) >> 6;
+		allConfigurations = new long[words];
+		for (int i = 0; i < sample.size(); i++) {
+			allConfigurations[i >> 6] |= 1L << i;
+		}
+		literalConfigurations = new long[2 * numberOfVariables + 1][];
+		for (int condition : conditions) {
+			literalConfigurations[literalIndex(condition)] = new long[words];
+		}
+		for (int i = 0; i < sample.size(); i++) {
+			for (int literal : sample.get(i).getLiterals()) {
+				if (literal != 0) {
+					final long[] configurations = literalConfigurations[literalIndex(literal)];
+					if (configurations != null) {
+						configurations[i >> 6] |= 1L << i;
+					}
+				}
+			}
+		}
+	}
+
+	private boolean isCombinationValid(int[] combination) {
+		if (validInteractionPositions != null) {
+			final int[] positions = new int[combination.length];
+			for (int i = 0; i < positions.length; i++) {
+				final int position = validInteractionPositions[literalIndex(combination[i])];
+				// Insert in ascending order
+				int j = i;
+				for (; j > 0 && positions[j - 1] > position; j--) {
+					positions[j] = positions[j - 1];
+				}
+				positions[j] = position;
+			}
+			if (positions[0] >= 0 && isDistinct(positions)) {
+				return validInteractionIndex.contains(positions);
+			}
+		}
+		return validator.isValid(combination);
+	}
+
+	private boolean isDistinct(int[] sortedPositions) {
+		for (int i = 1; i < sortedPositions.length; i++) {
+			if (sortedPositions[i - 1] == sortedPositions[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isValid(LiteralSet configuration, List<LiteralSet> clauses) {
+		for (LiteralSet clause : clauses) {
+			if (!configuration.hasDuplicates(clause)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private int literalIndex(int literal) {
+		return literal > 0 ? literal : numberOfVariables - literal;
+	}
+
+	public void setSample(List<LiteralSet> sample) {
+		this.sample = sample;
+	}
+
+	public void setT(int t) {
+		this.t = t;
+	}
+
+	/**
+	 * Sets the valid interactions of the model, such that the validity of
+	 * uncovered interactions is looked up instead of computed by a SAT solver.
+	 *
+	 * @param validInteractionIndex The index of the model or <code>null</code>.
+	 */
+	public void setValidInteractionIndex(ValidInteractionIndex validInteractionIndex) {
+		this.validInteractionIndex = validInteractionIndex;
+	}
+
+}
@@ -0,0 +1,32 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.CoverageStatistic;
+
+/**
+ * {@link CoverageStatistic} with counters that were computed outside of
+ * FeatureIDE, such that the results can be used in place of the statistic of
+ * the {@link de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationTester
+ * TWiseConfigurationTester}.
+ *
+ * @author Joshua Sprey
+ */
+public class TWiseCoverageStatistic extends CoverageStatistic {
+
+	/**
+	 * Creates a new statistic.
+	 *
+	 * @param numberOfValidConditions     Number of valid interactions.
+	 * @param numberOfInvalidConditions   Number of invalid interactions.
+	 * @param numberOfCoveredConditions   Number of covered interactions.
+	 * @param numberOfUncoveredConditions Number of valid interactions that are not
+	 *                                    covered.
+	 */
+	public TWiseCoverageStatistic(long numberOfValidConditions, long numberOfInvalidConditions,
+			long numberOfCoveredConditions, long numberOfUncoveredConditions) {
+		setNumberOfValidConditions(numberOfValidConditions);
+		setNumberOfInvalidConditions(numberOfInvalidConditions);
+		setNumberOfCoveredConditions(numberOfCoveredConditions);
+		setNumberOfUncoveredConditions(numberOfUncoveredConditions);
+	}
+
+}
@@ -0,0 +1,352 @@
+package de.ovgu.featureide.sampling.eval.coverage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * The set of valid t-wise interactions of a model, i.e., all combinations of t
+ * presence conditions (see {@link ParallelTWiseTester}) that are contained in
+ * at least one valid configuration. The set depends only on the model and t,
+ * and thus, is computed once per model and shared by all algorithms and
+ * iterations. With the index, the {@link ParallelTWiseTester} decides the
+ * validity of an uncovered interaction by a lookup instead of a SAT call.
+ *
+ * The conditions are identified by the names of their features, such that the
+ * index can be used for every randomized variant of the model. Each interaction
+ * is identified by its rank in the combinatorial number system over the
+ * conditions (see {@link InteractionRanking}) and the valid interactions are
+ * marked in a bitmap, which is stored compressed in a file.
+ *
+ * @author Joshua Sprey
+ */
+public class ValidInteractionIndex {
+
+	/**
+	 * Marks the valid interactions whose largest condition is at a given
+	 * position. These interactions have consecutive ranks.
+	 */
+	private class IndexTask extends RecursiveAction {
+		private static final long serialVersionUID = 2739148805419574071L;
+
+		private final int lastPosition;
+		private final InteractionValidator validator;
+
+		private IndexTask(int lastPosition, InteractionValidator validator) {
+			this.lastPosition = lastPosition;
+			this.validator = validator;
+		}
+
+		@Override
+		protected void compute() {
+			final long firstRank = ranking.binomial(lastPosition, t);
+			final long count = ranking.binomial(lastPosition, t - 1);
+			final long[] bits = new long[(int) ((count + 63) >>> 6)];
+			final int[] combination = new int[t];
+			combination[t - 1] = conditions[lastPosition];
+			final long valid = mark(t - 2, lastPosition, combination, firstRank, firstRank, bits);
+			synchronized (ValidInteractionIndex.this) {
+				for (int i = 0; i < bits.length; i++) {
+					or(firstRank + ((long) i << 6), bits[i]);
+				}
+				validInteractions += valid;
+			}
+		}
+
+		/**
+		 * Enumerates the positions below <code>end</code> for the condition at index
+		 * <code>depth</code> of the combination.
+		 */
+		private long mark(int depth, int end, int[] combination, long rank, long firstRank, long[] bits) {
+			if (depth < 0) {
+				if (validator.isValid(combination)) {
+					final long bit = rank - firstRank;
+					bits[(int) (bit >>> 6)] |= 1L << bit;
+					return 1;
+				}
+				return 0;
+			}
+			long valid = 0;
+			for (int position = depth; position < end; position++) {
+				combination[depth] = conditions[position];
+				valid += mark(depth - 1, position, combination, rank + ranking.binomial(position, depth + 1),
+						firstRank, bits);
+			}
+			return valid;
+		}
+	}
+
+	/** File extension of stored indices. */
+	public static final String FILE_EXTENSION = ".vidx";
+	/** Maximum number of interactions, limiting the bitmap to 512 MB. */
+	public static final long MAX_INTERACTIONS = InteractionRanking.MAX_INTERACTIONS;
+
+	private static final int MAGIC = 0x56494458;
+	private static final int PAGE_BITS = InteractionRanking.PAGE_BITS;
+	private static final int VERSION = 1;
+
+	/**
+	 * Computes the index of a model.
+	 *
+	 * @param cnf  The model.
+	 * @param t    The degree of interactions.
+	 * @param pool The pool that executes the computation.
+	 * @return The index.
+	 * @throws IllegalArgumentException If the model has more than
+	 *                                  {@link #MAX_INTERACTIONS} interactions or
+	 *                                  fewer than t conditions.
+	 */
+	public static ValidInteractionIndex compute(CNF cnf, int t, ForkJoinPool pool) {
+		final int[] conditions = InteractionRanking.getConditions(cnf);
+		final ValidInteractionIndex index = new ValidInteractionIndex(getModelKey(cnf), t,
+				toNames(cnf.getVariables(), conditions));
+		index.conditions = conditions;
+		final InteractionValidator validator = new InteractionValidator(cnf);
+		final List<IndexTask> tasks = new ArrayList<>();
+		for (int position = conditions.length - 1; position >= t - 1; position--) {
+			tasks.add(index.new IndexTask(position, validator));
+		}
+		pool.submit(() -> RecursiveAction.invokeAll(tasks)).join();
+		index.conditions = null;
+		return index;
+	}
+
+	/**
+	 * Computes a key that identifies the model, independent of the randomization
+	 * of its variables and clauses.
+	 *
+	 * @param cnf The model.
+	 * @return The key.
+	 */
+	public static String getModelKey(CNF cnf) {
+		final IVariables variables = cnf.getVariables();
+		final List<String> clauses = new ArrayList<>(cnf.getClauses().size());
+		for (LiteralSet clause : cnf.getClauses()) {
+			final String[] literals = new String[clause.size()];
+			for (int i = 0; i < literals.length; i++) {
+				literals[i] = InteractionRanking.getName(variables, clause.getLiterals()[i]);
+			}
+			Arrays.sort(literals);
+			clauses.add(String.join(" ", literals));
+		}
+		clauses.sort(null);
+		final List<String> names = new ArrayList<>(Arrays.asList(variables.getNames()).subList(1,
+				variables.getNames().length));
+		names.sort(null);
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(String.join("\n", names).getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			digest.update(String.join("\n", clauses).getBytes(StandardCharsets.UTF_8));
+			final StringBuilder key = new StringBuilder();
+			for (byte b : digest.digest()) {
+				key.append(String.format("%02x", b));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Loads a stored index, if it belongs to the given model and t.
+	 *
+	 * @param file The file of the index.
+	 * @param cnf  The model.
+	 * @param t    The degree of interactions.
+	 * @return The index or <code>null</code> if the file does not exist or
+	 *         belongs to another model.
+	 * @throws IOException If the file cannot be read.
+	 */
+	public static ValidInteractionIndex load(Path file, CNF cnf, int t) throws IOException {
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(new InflaterInputStream(Files.newInputStream(file))))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION || in.readInt() != t) {
+				return null;
+			}
+			final String modelKey = in.readUTF();
+			if (!modelKey.equals(getModelKey(cnf))) {
+				return null;
+			}
+			final String[] conditionNames = new String[in.readInt()];
+			for (int i = 0; i < conditionNames.length; i++) {
+				conditionNames[i] = in.readUTF();
+			}
+			final ValidInteractionIndex index = new ValidInteractionIndex(modelKey, t, conditionNames);
+			index.validInteractions = in.readLong();
+			for (long[] page : index.pages) {
+				for (int i = 0; i < page.length; i++) {
+					page[i] = in.readLong();
+				}
+			}
+			return index;
+		}
+	}
+
+	private static String[] toNames(IVariables variables, int[] conditions) {
+		final String[] names = new String[conditions.length];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = InteractionRanking.getName(variables, conditions[i]);
+		}
+		return names;
+	}
+
+	/** The names of the conditions with their sign, e.g., "+Feature". */
+	private final String[] conditionNames;
+	/** The conditions of the model while the index is computed. */
+	private int[] conditions;
+	private final String modelKey;
+	private final long[][] pages;
+	private final InteractionRanking ranking;
+	private final int t;
+	private long validInteractions = 0;
+
+	private ValidInteractionIndex(String modelKey, int t, String[] conditionNames) {
+		this.modelKey = modelKey;
+		this.t = t;
+		this.conditionNames = conditionNames;
+		if (conditionNames.length < t) {
+			throw new IllegalArgumentException("Fewer than " + t + " conditions");
+		}
+
+		ranking = new InteractionRanking(conditionNames.length, t, MAX_INTERACTIONS);
+		final long interactions = ranking.getNumberOfInteractions();
+		final int pageSize = 1 << (PAGE_BITS - 6);
+		pages = new long[(int) ((interactions + (1L << PAGE_BITS) - 1) >>> PAGE_BITS)][];
+		for (int i = 0; i < pages.length; i++) {
+			final long remaining = interactions - ((long) i << PAGE_BITS);
+			pages[i] = new long[(int) Math.min(pageSize, (remaining + 63) >>> 6)];
+		}
+	}
+
+	/**
+	 * Returns whether an interaction is valid.
+	 *
+	 * @param positions The positions of the conditions of the interaction (see
+	 *                  {@link #getConditionPositions(CNF)}) in ascending order
+	 *                  without duplicates.
+	 * @return {@link Boolean#TRUE} if the interaction is valid.
+	 */
+	public boolean contains(int[] positions) {
+		final long rank = ranking.rank(positions);
+		final long[] page = pages[(int) (rank >>> PAGE_BITS)];
+		return (page[(int) ((rank >>> 6) & ((1 << (PAGE_BITS - 6)) - 1))] & (1L << rank)) != 0;
+	}
+
+	/**
+	 * Maps the literals of a variant of the model to the positions of the
+	 * conditions in the index.
+	 *
+	 * @param cnf The model or a randomized variant of it.
+	 * @return For each literal <i>l</i>, the position of its condition at index
+	 *         <i>l</i> for positive and <i>n - l</i> for negative literals,
+	 *         where <i>n</i> is the number of variables, or <code>-1</code> if
+	 *         the literal is no condition.
+	 */
+	public int[] getConditionPositions(CNF cnf) {
+		final IVariables variables = cnf.getVariables();
+		final int numberOfVariables = variables.size();
+		final int[] positions = new int[2 * numberOfVariables + 1];
+		Arrays.fill(positions, -1);
+		for (int position = 0; position < conditionNames.length; position++) {
+			final String conditionName = conditionNames[position];
+			final int variable = variables.getVariable(conditionName.substring(1));
+			if (variable > 0) {
+				positions[conditionName.charAt(0) == '+' ? variable : numberOfVariables + variable] = position;
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * @return The degree of interactions.
+	 */
+	public int getT() {
+		return t;
+	}
+
+	/**
+	 * @return The number of valid interactions.
+	 */
+	public long getValidInteractions() {
+		return validInteractions;
+	}
+
+	/**
+	 * Marks the bits of a word as valid interactions, starting at the given rank.
+	 */
+	private void or(long rank, long word) {
+		final long wordIndex = rank >>> 6;
+		final int shift = (int) (rank & 63);
+		orWord(wordIndex, word << shift);
+		if (shift != 0) {
+			orWord(wordIndex + 1, word >>> (64 - shift));
+		}
+	}
+
+	private void orWord(long wordIndex, long word) {
+		if (word != 0) {
+			pages[(int) (wordIndex >>> (PAGE_BITS - 6))][(int) (wordIndex & ((1 << (PAGE_BITS - 6)) - 1))] |= word;
+		}
+	}
+
+	/**
+	 * Stores the index compressed in a file. An existing file is replaced.
+	 *
+	 * @param file The file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void store(Path file) throws IOException {
+		final Path tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), "index", ".tmp");
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(new DeflaterOutputStream(Files.newOutputStream(tempFile))))) {
+				out.writeInt(MAGIC);
+				out.writeInt(VERSION);
+				out.writeInt(t);
+				out.writeUTF(modelKey);
+				out.writeInt(conditionNames.length);
+				for (String conditionName : conditionNames) {
+					out.writeUTF(conditionName);
+				}
+				out.writeLong(validInteractions);
+				for (long[] page : pages) {
+					for (long word : page) {
+						out.writeLong(word);
+					}
+				}
+			}
+			try {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+}
@@ -26,6 +26,12 @@ import de.ovgu.featureide.sampling.process.SamplingMemoryResults;
  */
 public class GarbageCollectorLogAnalyzer {
 
+	/**
+	 * Serializes the redirection of the global output streams, as jobs may
+	 * analyze their logs in parallel.
+	 */
+	private static final Object STREAM_LOCK = new Object();
+
 	/** This output stream omits all logs */
 	private OutputStream emptyStream = new OutputStream() {
 		@Override
@@ -42,28 +48,31 @@ public class GarbageCollectorLogAnalyzer {
 	public SamplingMemoryResults processGCResults() {
 		SamplingMemoryResults memoryResults = new SamplingMemoryResults();
 		if (Files.exists(pathToLogFile)) {
-			long numOfLines = 0;
-			PrintStream oldErr = System.err;
-			PrintStream oldOut = System.out;
-			System.setErr(new PrintStream(emptyStream));
-			System.setOut(new PrintStream(emptyStream));
-			try (Stream<String> lines = Files.lines(pathToLogFile, Charset.defaultCharset())) {
-				numOfLines = lines.count();
-				if (numOfLines > 3) {
-					GCResource logFile = new GcResourceFile(pathToLogFile.toFile());
-					DataReaderFacade dataReaderFacade = new DataReaderFacade();
-					GCModel model = dataReaderFacade.loadModel(logFile);
-					memoryResults.setStatisticCreatedBytesTotal(model.getFreedMemoryByGC().getSum() / 1024L);
-					memoryResults.setStatisticThroughput(model.getThroughput());
-					memoryResults.setStatisticPauseTimeAvg(model.getPause().average());
-					memoryResults.setStatisticPauseTimeTotal(model.getPause().getSum());
-					return memoryResults;
+			synchronized (STREAM_LOCK) {
+				long numOfLines = 0;
+				PrintStream oldErr = System.err;
+				PrintStream oldOut = System.out;
+				System.setErr(new PrintStream(emptyStream));
+				System.setOut(new PrintStream(emptyStream));
+				try (Stream<String> lines = Files.lines(pathToLogFile, Charset.defaultCharset())) {
+					// Only checks whether the log contains enough lines to be parsed
+					numOfLines = lines.limit(4).count();
+					if (numOfLines > 3) {
+						GCResource logFile = new GcResourceFile(pathToLogFile.toFile());
+						DataReaderFacade dataReaderFacade = new DataReaderFacade();
+						GCModel model = dataReaderFacade.loadModel(logFile);
+						memoryResults.setStatisticCreatedBytesTotal(model.getFreedMemoryByGC().getSum() / 1024L);
+						memoryResults.setStatisticThroughput(model.getThroughput());
+						memoryResults.setStatisticPauseTimeAvg(model.getPause().average());
+						memoryResults.setStatisticPauseTimeTotal(model.getPause().getSum());
+						return memoryResults;
+					}
+				} catch (DataReaderException e) {
+				} catch (IOException e1) {
+				} finally {
+					System.setErr(oldErr);
+					System.setOut(oldOut);
 				}
-			} catch (DataReaderException e) {
-			} catch (IOException e1) {
-			} finally {
-				System.setErr(oldErr);
-				System.setOut(oldOut);
 			}
 		}
 
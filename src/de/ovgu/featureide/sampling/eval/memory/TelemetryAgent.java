@@ -0,0 +1,272 @@
+package de.ovgu.featureide.sampling.eval.memory;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+/**
+ * Java agent that is attached to the JVM of a sampling process via
+ * <i>-javaagent:agent.jar=&lt;telemetry file&gt;</i> (see
+ * {@link TelemetryAnalyzer}). It replaces the telemetry file atomically with
+ * the memory statistics of the JVM every {@value #WRITE_INTERVAL} ms and on
+ * shutdown. Thus, the file contains the statistics up to the end of the
+ * process, or up to the last write if the process was killed.
+ * 
+ * The statistics are not polled, so short peaks, short-lived threads, and the
+ * last allocations of the main thread are included. The peak heap is the sum of
+ * the peak usages of all heap pools, which the JVM tracks itself. The allocated
+ * bytes are read from the JVM if it counts the allocations of terminated
+ * threads (Java 21 and later). Otherwise, they are the growth of the heap usage
+ * between two garbage collections, accumulated over all garbage collections.
+ * This includes the unused remainders of thread-local allocation buffers and
+ * may therefore slightly exceed the bytes allocated by the threads.
+ * 
+ * The agent is copied into its own jar file and must therefore only depend on
+ * the JDK and must not use inner or anonymous classes.
+ * 
+ * @author Joshua Sprey
+ */
+public final class TelemetryAgent {
+
+	/** Total number of bytes allocated by all threads. */
+	static final String KEY_ALLOCATED_BYTES = "allocatedBytes";
+	/** CPU time of the process in nanoseconds. */
+	static final String KEY_CPU_TIME = "cpuTime";
+	/** Indicates whether the statistics were written on shutdown. */
+	static final String KEY_FINAL = "final";
+	/** Number of garbage collections. */
+	static final String KEY_GC_COUNT = "gcCount";
+	/** Accumulated time of garbage collections in milliseconds. */
+	static final String KEY_GC_TIME = "gcTime";
+	/** Peak heap usage in bytes. */
+	static final String KEY_PEAK_HEAP = "peakHeap";
+	/** Time since the start of the JVM in milliseconds. */
+	static final String KEY_UPTIME = "uptime";
+
+	/** Time in milliseconds between two writes of the telemetry file. */
+	private static final long WRITE_INTERVAL = 100;
+
+	public static void premain(String arguments) {
+		if (arguments == null || arguments.isEmpty()) {
+			System.err.println("TelemetryAgent: no telemetry file specified");
+			return;
+		}
+		new TelemetryAgent(Paths.get(arguments)).start();
+	}
+
+	public static void premain(String arguments, java.lang.instrument.Instrumentation instrumentation) {
+		premain(arguments);
+	}
+
+	/** Bytes allocated up to the last garbage collection. */
+	private long allocatedBytesBeforeGc = 0;
+	/** Indicates whether the final statistics were written. */
+	private boolean finished = false;
+	/** Indicates whether garbage collections are reported to the agent. */
+	private boolean gcNotifications = false;
+	private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+	private final Set<String> heapPoolNames = new HashSet<>();
+	/** Heap usage after the last garbage collection. */
+	private long heapUsedAfterGc = 0;
+	/** Id of the last processed garbage collection of each collector. */
+	private final HashMap<String, Long> lastGcIds = new HashMap<>();
+	private final OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+	private final Path telemetryFile;
+	private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+	/**
+	 * <i>getTotalThreadAllocatedBytes()</i> of the thread bean (Java 21 and later)
+	 * or <code>null</code>.
+	 */
+	private Method totalAllocatedBytesMethod = null;
+
+	private TelemetryAgent(Path telemetryFile) {
+		this.telemetryFile = telemetryFile.toAbsolutePath();
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP) {
+				heapPools.add(pool);
+				heapPoolNames.add(pool.getName());
+			}
+		}
+		try {
+			totalAllocatedBytesMethod = com.sun.management.ThreadMXBean.class
+					.getMethod("getTotalThreadAllocatedBytes");
+		} catch (NoSuchMethodException e) {
+			// Before Java 21
+		}
+	}
+
+	/**
+	 * Adds the growth of the heap usage since the previous garbage collection to
+	 * the allocated bytes. Garbage collections must be added in the order in
+	 * which they occurred and each of them is added once.
+	 */
+	private synchronized void addGarbageCollection(String gcName, GcInfo gcInfo) {
+		final Long lastGcId = lastGcIds.get(gcName);
+		if (lastGcId == null || gcInfo.getId() > lastGcId) {
+			lastGcIds.put(gcName, gcInfo.getId());
+			allocatedBytesBeforeGc += Math.max(0, getHeapUsed(gcInfo.getMemoryUsageBeforeGc()) - heapUsedAfterGc);
+			heapUsedAfterGc = getHeapUsed(gcInfo.getMemoryUsageAfterGc());
+		}
+	}
+
+	/**
+	 * @param isFinal Whether the JVM shuts down, so that garbage collections that
+	 *                were not yet reported are added.
+	 */
+	private long getAllocatedBytes(boolean isFinal) {
+		if (totalAllocatedBytesMethod != null) {
+			try {
+				final long bytes = ((Number) totalAllocatedBytesMethod.invoke(threadBean)).longValue();
+				if (bytes >= 0) {
+					return bytes;
+				}
+			} catch (ReflectiveOperationException | RuntimeException e) {
+				// Use the heap usage
+			}
+		}
+		if (!gcNotifications) {
+			return -1;
+		}
+		if (isFinal) {
+			// Notifications are delivered asynchronously, so the last one may be missing
+			for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (gcBean instanceof com.sun.management.GarbageCollectorMXBean) {
+					final GcInfo gcInfo = ((com.sun.management.GarbageCollectorMXBean) gcBean).getLastGcInfo();
+					if (gcInfo != null) {
+						addGarbageCollection(gcBean.getName(), gcInfo);
+					}
+				}
+			}
+		}
+		return allocatedBytesBeforeGc + Math.max(0, getHeapUsed() - heapUsedAfterGc);
+	}
+
+	private long getCpuTime() {
+		if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+			return ((com.sun.management.OperatingSystemMXBean) osBean).getProcessCpuTime();
+		}
+		return -1;
+	}
+
+	private long getHeapUsed() {
+		long used = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			used += pool.getUsage().getUsed();
+		}
+		return used;
+	}
+
+	private long getHeapUsed(Map<String, MemoryUsage> poolUsages) {
+		long used = 0;
+		for (Map.Entry<String, MemoryUsage> poolUsage : poolUsages.entrySet()) {
+			if (heapPoolNames.contains(poolUsage.getKey())) {
+				used += poolUsage.getValue().getUsed();
+			}
+		}
+		return used;
+	}
+
+	private long getPeakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : heapPools) {
+			peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+
+	private void handleNotification(Notification notification, Object handback) {
+		if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+			final GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+					.from((CompositeData) notification.getUserData());
+			addGarbageCollection(info.getGcName(), info.getGcInfo());
+		}
+	}
+
+	private void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				write(false);
+				Thread.sleep(WRITE_INTERVAL);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private synchronized void write(boolean isFinal) {
+		// The writer thread keeps running during the shutdown hooks
+		if (finished) {
+			return;
+		}
+		finished = isFinal;
+		long gcCount = 0;
+		long gcTime = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			gcCount += Math.max(0, gcBean.getCollectionCount());
+			gcTime += Math.max(0, gcBean.getCollectionTime());
+		}
+		final StringBuilder sb = new StringBuilder();
+		sb.append(KEY_ALLOCATED_BYTES).append('=').append(getAllocatedBytes(isFinal)).append('\n');
+		sb.append(KEY_PEAK_HEAP).append('=').append(getPeakHeap()).append('\n');
+		sb.append(KEY_GC_COUNT).append('=').append(gcCount).append('\n');
+		sb.append(KEY_GC_TIME).append('=').append(gcTime).append('\n');
+		sb.append(KEY_CPU_TIME).append('=').append(getCpuTime()).append('\n');
+		sb.append(KEY_UPTIME).append('=').append(ManagementFactory.getRuntimeMXBean().getUptime()).append('\n');
+		sb.append(KEY_FINAL).append('=').append(isFinal).append('\n');
+		try {
+			final Path tempFile = telemetryFile.resolveSibling(telemetryFile.getFileName() + ".tmp");
+			Files.write(tempFile, sb.toString().getBytes(StandardCharsets.UTF_8));
+			Files.move(tempFile, telemetryFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			System.err.println("TelemetryAgent: " + e);
+		}
+	}
+
+	private void start() {
+		synchronized (this) {
+			heapUsedAfterGc = getHeapUsed();
+			for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+				if (gcBean instanceof com.sun.management.GarbageCollectorMXBean) {
+					// Garbage collections before the start of the agent are not counted
+					final GcInfo gcInfo = ((com.sun.management.GarbageCollectorMXBean) gcBean).getLastGcInfo();
+					if (gcInfo != null) {
+						lastGcIds.put(gcBean.getName(), gcInfo.getId());
+					}
+				}
+				if (gcBean instanceof NotificationEmitter) {
+					((NotificationEmitter) gcBean).addNotificationListener(this::handleNotification, null, null);
+					gcNotifications = true;
+				}
+			}
+		}
+		final Thread writerThread = new Thread(this::run, "TelemetryAgent");
+		writerThread.setDaemon(true);
+		writerThread.start();
+		Runtime.getRuntime().addShutdownHook(new Thread(() -> write(true), "TelemetryAgent-Shutdown"));
+	}
+
+}
@@ -0,0 +1,141 @@
+package de.ovgu.featureide.sampling.eval.memory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import de.ovgu.featureide.sampling.logger.Logger;
+import de.ovgu.featureide.sampling.process.SamplingMemoryResults;
+
+/***
+ * Extracts the memory consumption of a sampling process from the telemetry file
+ * written by the {@link TelemetryAgent}. In contrast to the
+ * {@link GarbageCollectorLogAnalyzer}, the statistics are available for every
+ * run, including runs that take less than a second, and the file only contains
+ * the aggregated values.
+ * 
+ * @author Joshua Sprey
+ */
+public class TelemetryAnalyzer {
+
+	private static final String AGENT_OPTION = "-javaagent:";
+
+	private static Path agentJar = null;
+
+	/**
+	 * Returns the JVM option that attaches the {@link TelemetryAgent} to a JVM.
+	 * 
+	 * @param telemetryFile The file the agent writes its statistics to.
+	 * @return The JVM option.
+	 * @throws IOException If the jar file of the agent could not be created.
+	 */
+	public static String getAgentOption(Path telemetryFile) throws IOException {
+		return AGENT_OPTION + getAgentJar() + "=" + telemetryFile.toAbsolutePath();
+	}
+
+	/**
+	 * Returns the jar file of the {@link TelemetryAgent}. The jar file is created
+	 * once per framework run from the class file of the agent and only contains
+	 * the agent. Thus, the class path of the sampling process is not affected.
+	 * 
+	 * @return The path to the jar file.
+	 * @throws IOException If the jar file could not be created.
+	 */
+	public static synchronized Path getAgentJar() throws IOException {
+		if (agentJar == null) {
+			final String className = TelemetryAgent.class.getName();
+			final Manifest manifest = new Manifest();
+			manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+			manifest.getMainAttributes().put(new Attributes.Name("Premain-Class"), className);
+
+			final Path jar = Files.createTempFile("sampling-telemetry-agent", ".jar");
+			jar.toFile().deleteOnExit();
+			try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest);
+					InputStream in = TelemetryAgent.class
+							.getResourceAsStream(TelemetryAgent.class.getSimpleName() + ".class")) {
+				if (in == null) {
+					throw new IOException("Class file of " + className + " not found");
+				}
+				out.putNextEntry(new JarEntry(className.replace('.', '/') + ".class"));
+				final byte[] buffer = new byte[8192];
+				for (int length = in.read(buffer); length >= 0; length = in.read(buffer)) {
+					out.write(buffer, 0, length);
+				}
+				out.closeEntry();
+			} catch (IOException e) {
+				Files.deleteIfExists(jar);
+				throw e;
+			}
+			agentJar = jar;
+		}
+		return agentJar;
+	}
+
+	/**
+	 * @param option A JVM option.
+	 * @return {@link Boolean#TRUE} if the option attaches the
+	 *         {@link TelemetryAgent}.
+	 */
+	public static synchronized boolean isAgentOption(String option) {
+		return agentJar != null && option.startsWith(AGENT_OPTION + agentJar + "=");
+	}
+
+	private static long getLong(Properties telemetry, String key) {
+		final String value = telemetry.getProperty(key);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing telemetry value " + key);
+		}
+		return Long.parseLong(value.trim());
+	}
+
+	private final Path pathToTelemetryFile;
+
+	public TelemetryAnalyzer(Path pathToTelemetryFile) {
+		this.pathToTelemetryFile = pathToTelemetryFile;
+	}
+
+	public SamplingMemoryResults processTelemetry() {
+		SamplingMemoryResults memoryResults = new SamplingMemoryResults();
+		if (Files.exists(pathToTelemetryFile)) {
+			try (Reader reader = Files.newBufferedReader(pathToTelemetryFile, StandardCharsets.UTF_8)) {
+				final Properties telemetry = new Properties();
+				telemetry.load(reader);
+				final long allocatedBytes = getLong(telemetry, TelemetryAgent.KEY_ALLOCATED_BYTES);
+				final long cpuTime = getLong(telemetry, TelemetryAgent.KEY_CPU_TIME);
+				final long gcCount = getLong(telemetry, TelemetryAgent.KEY_GC_COUNT);
+				final long gcTime = getLong(telemetry, TelemetryAgent.KEY_GC_TIME);
+				final long peakHeap = getLong(telemetry, TelemetryAgent.KEY_PEAK_HEAP);
+				final long uptime = getLong(telemetry, TelemetryAgent.KEY_UPTIME);
+
+				memoryResults
+						.setStatisticCreatedBytesTotal(allocatedBytes < 0 ? -1 : allocatedBytes / (1024L * 1024L));
+				memoryResults.setStatisticPauseTimeTotal(gcTime);
+				memoryResults.setStatisticPauseTimeAvg(gcCount > 0 ? (double) gcTime / gcCount : 0);
+				memoryResults.setStatisticThroughput(
+						uptime > 0 ? Math.max(0, 100.0 * (1 - ((double) gcTime / uptime))) : -1);
+				memoryResults.setStatisticPeakHeap(peakHeap / (1024L * 1024L));
+				memoryResults.setStatisticCpuTime(cpuTime < 0 ? -1 : cpuTime / 1_000_000L);
+				return memoryResults;
+			} catch (IOException | IllegalArgumentException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+
+		Logger.getInstance().logInfo(
+				"[Error] Could not load telemetry file. Reason could be that the program did not start correctly.", 3,
+				true);
+		memoryResults.setStatisticCreatedBytesTotal(-1);
+		memoryResults.setStatisticThroughput(-1);
+		memoryResults.setStatisticPauseTimeAvg(-1);
+		memoryResults.setStatisticPauseTimeTotal(-1);
+		return memoryResults;
+	}
+}
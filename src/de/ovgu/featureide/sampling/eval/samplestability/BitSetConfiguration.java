@@ -0,0 +1,133 @@
+package de.ovgu.featureide.sampling.eval.samplestability;
+
+import java.util.Arrays;
+
+/**
+ * Compact representation of a configuration as set of selected features. Each
+ * feature is identified by its index in a {@link FeatureIndex} and stored as
+ * one bit, such that set operations on configurations are computed word by
+ * word.
+ *
+ * @author Joshua Sprey
+ */
+public final class BitSetConfiguration {
+
+	private static final int ADDRESS_BITS_PER_WORD = 6;
+
+	private static int wordIndex(int bitIndex) {
+		return bitIndex >> ADDRESS_BITS_PER_WORD;
+	}
+
+	private final long[] words;
+
+	/**
+	 * Creates an empty configuration that can hold the given number of features.
+	 *
+	 * @param numberOfBits The number of features.
+	 */
+	public BitSetConfiguration(int numberOfBits) {
+		words = new long[wordIndex(Math.max(0, numberOfBits - 1)) + 1];
+	}
+
+	/**
+	 * Copy constructor
+	 *
+	 * @param configuration configuration to copy
+	 */
+	public BitSetConfiguration(BitSetConfiguration configuration) {
+		words = Arrays.copyOf(configuration.words, configuration.words.length);
+	}
+
+	/**
+	 * Removes all features from this configuration that are contained in the
+	 * given mask.
+	 *
+	 * @param mask Features to remove.
+	 */
+	public void andNot(BitSetConfiguration mask) {
+		for (int i = 0; i < words.length; i++) {
+			words[i] &= ~mask.words[i];
+		}
+	}
+
+	/**
+	 * @return The number of selected features.
+	 */
+	public int cardinality() {
+		int count = 0;
+		for (long word : words) {
+			count += Long.bitCount(word);
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the features that are selected in both configurations.
+	 *
+	 * @param other The other configuration.
+	 * @return The size of the intersection.
+	 */
+	public int countIntersection(BitSetConfiguration other) {
+		int count = 0;
+		for (int i = 0; i < words.length; i++) {
+			count += Long.bitCount(words[i] & other.words[i]);
+		}
+		return count;
+	}
+
+	/**
+	 * Counts the features with an index lower than <code>numberOfBits</code> that
+	 * are selected in at least one of both configurations.
+	 *
+	 * @param other        The other configuration.
+	 * @param numberOfBits Only the first bits are considered.
+	 * @return The size of the union of the first bits.
+	 */
+	public int countUnion(BitSetConfiguration other, int numberOfBits) {
+		if (numberOfBits <= 0) {
+			return 0;
+		}
+		final int lastWord = wordIndex(numberOfBits - 1);
+		int count = 0;
+		for (int i = 0; i < lastWord; i++) {
+			count += Long.bitCount(words[i] | other.words[i]);
+		}
+		final long lastMask = -1L >>> -numberOfBits;
+		count += Long.bitCount((words[lastWord] | other.words[lastWord]) & lastMask);
+		return count;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		return Arrays.equals(words, ((BitSetConfiguration) obj).words);
+	}
+
+	/**
+	 * @param bitIndex Index of the feature.
+	 * @return {@link Boolean#TRUE} if the feature is selected.
+	 */
+	public boolean get(int bitIndex) {
+		return (words[wordIndex(bitIndex)] & (1L << bitIndex)) != 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return Arrays.hashCode(words);
+	}
+
+	/**
+	 * Selects a feature.
+	 *
+	 * @param bitIndex Index of the feature.
+	 */
+	public void set(int bitIndex) {
+		words[wordIndex(bitIndex)] |= (1L << bitIndex);
+	}
+
+}
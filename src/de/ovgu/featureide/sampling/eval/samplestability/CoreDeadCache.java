@@ -0,0 +1,95 @@
+package de.ovgu.featureide.sampling.eval.samplestability;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
+import de.ovgu.featureide.fm.core.job.monitor.ConsoleMonitor;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.AStabilityMetric;
+
+/**
+ * Caches the core and dead features of feature models, such that the analysis
+ * is executed only once per model, independent of the number of metrics,
+ * algorithms, and iterations that require it. Models are identified by their
+ * source file and the content of their conjunctive normal form. The cache can
+ * be used concurrently.
+ *
+ * @author Joshua Sprey
+ */
+public class CoreDeadCache {
+
+	/**
+	 * Contains the core and dead features of one feature model.
+	 *
+	 * @author Joshua Sprey
+	 */
+	public static class CoreDeadFeatures {
+		private final Set<String> core;
+		private final Set<String> dead;
+
+		public CoreDeadFeatures(Set<String> core, Set<String> dead) {
+			this.core = Collections.unmodifiableSet(core);
+			this.dead = Collections.unmodifiableSet(dead);
+		}
+
+		/**
+		 * @return A read-only set of all core features.
+		 */
+		public Set<String> getCore() {
+			return core;
+		}
+
+		/**
+		 * @return A read-only set of all dead features.
+		 */
+		public Set<String> getDead() {
+			return dead;
+		}
+	}
+
+	/**
+	 * Computes the core and dead features of a feature model.
+	 *
+	 * @param fm The feature model.
+	 * @return The core and dead features.
+	 */
+	public static CoreDeadFeatures analyze(IFeatureModelManager fm) {
+		final List<List<String>> coreDead = AStabilityMetric.checkCoreDead(fm, new ConsoleMonitor<LiteralSet>());
+		return new CoreDeadFeatures(new HashSet<>(coreDead.get(1)), new HashSet<>(coreDead.get(0)));
+	}
+
+	private static String getKey(IFeatureModelManager fm) {
+		return fm.getVarObject().getSourceFile() + "#" + fm.getVariableFormula().getCNF().hashCode();
+	}
+
+	private final ConcurrentHashMap<String, CoreDeadFeatures> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * Removes all cached analysis results.
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * Returns the core and dead features of a feature model. The features are only
+	 * computed if the model was not analyzed before.
+	 *
+	 * @param fm The feature model.
+	 * @return The core and dead features.
+	 */
+	public CoreDeadFeatures getCoreDead(IFeatureModelManager fm) {
+		return cache.computeIfAbsent(getKey(fm), key -> analyze(fm));
+	}
+
+	/**
+	 * @return The number of analyzed models.
+	 */
+	public int size() {
+		return cache.size();
+	}
+}
@@ -0,0 +1,149 @@
+package de.ovgu.featureide.sampling.eval.samplestability;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Dictionary that assigns a unique index to each feature name. It is built once
+ * from the union of the features of both compared models, such that
+ * configurations can be represented as {@link BitSetConfiguration}.
+ *
+ * Features that are only contained in samples are appended behind the features
+ * of the models. Thus, the first {@link #getUniverseSize()} indices always
+ * represent the combined feature set of both models.
+ *
+ * @author Joshua Sprey
+ */
+public class FeatureIndex {
+
+	private final HashMap<String, Integer> indexMap = new HashMap<>();
+	private final List<String> names = new ArrayList<>();
+	private final int universeSize;
+
+	/**
+	 * Creates a new dictionary for the union of both feature sets.
+	 *
+	 * @param features1 Features of the first model.
+	 * @param features2 Features of the second model.
+	 */
+	public FeatureIndex(Collection<String> features1, Collection<String> features2) {
+		addFeatures(features1);
+		addFeatures(features2);
+		universeSize = names.size();
+	}
+
+	/**
+	 * Adds all selected features of the given sample that are not yet contained
+	 * in the dictionary.
+	 *
+	 * @param sample A sample.
+	 */
+	public void addSample(Sample sample) {
+		final String[] sampleDictionary = sample.getDictionary();
+		final boolean[] selected = new boolean[sampleDictionary.length];
+		for (int[] configuration : sample) {
+			for (int literal : configuration) {
+				if (literal > 0) {
+					selected[literal] = true;
+				}
+			}
+		}
+		for (int i = 1; i < selected.length; i++) {
+			if (selected[i] && !indexMap.containsKey(sampleDictionary[i])) {
+				indexMap.put(sampleDictionary[i], names.size());
+				names.add(sampleDictionary[i]);
+			}
+		}
+	}
+
+	private void addFeatures(Collection<String> features) {
+		for (String feature : features) {
+			if (!indexMap.containsKey(feature)) {
+				indexMap.put(feature, names.size());
+				names.add(feature);
+			}
+		}
+	}
+
+	/**
+	 * @param feature Name of the feature.
+	 * @return The index of the feature or <code>-1</code> if the feature is
+	 *         unknown.
+	 */
+	public int getIndex(String feature) {
+		final Integer index = indexMap.get(feature);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * @param index Index of the feature.
+	 * @return The name of the feature.
+	 */
+	public String getName(int index) {
+		return names.get(index);
+	}
+
+	/**
+	 * @return The number of features of the combined feature set of both models.
+	 */
+	public int getUniverseSize() {
+		return universeSize;
+	}
+
+	/**
+	 * @return The number of all known features.
+	 */
+	public int size() {
+		return names.size();
+	}
+
+	/**
+	 * Converts a list of feature names into a {@link BitSetConfiguration}. Unknown
+	 * features are ignored.
+	 *
+	 * @param features The selected features.
+	 * @return The configuration.
+	 */
+	public BitSetConfiguration toConfiguration(Collection<String> features) {
+		final BitSetConfiguration configuration = new BitSetConfiguration(size());
+		for (String feature : features) {
+			final int index = getIndex(feature);
+			if (index >= 0) {
+				configuration.set(index);
+			}
+		}
+		return configuration;
+	}
+
+	/**
+	 * Converts a sample into a list of distinct {@link BitSetConfiguration} of
+	 * its selected features. The order of the configurations is preserved. Each
+	 * entry of the dictionary of the sample is looked up only once.
+	 *
+	 * @param sample A sample.
+	 * @return The distinct configurations of the sample.
+	 */
+	public List<BitSetConfiguration> toConfigurations(Sample sample) {
+		final String[] sampleDictionary = sample.getDictionary();
+		final int[] indexes = new int[sampleDictionary.length];
+		for (int i = 1; i < indexes.length; i++) {
+			indexes[i] = getIndex(sampleDictionary[i]);
+		}
+		final Set<BitSetConfiguration> configurations = new LinkedHashSet<>();
+		for (int[] literals : sample) {
+			final BitSetConfiguration configuration = new BitSetConfiguration(size());
+			for (int literal : literals) {
+				if ((literal > 0) && (indexes[literal] >= 0)) {
+					configuration.set(indexes[literal]);
+				}
+			}
+			configurations.add(configuration);
+		}
+		return new ArrayList<>(configurations);
+	}
+
+}
@@ -1,45 +1,166 @@
 package de.ovgu.featureide.sampling.eval.samplestability;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
 
 /**
  * Data structure used to represent samples. Was especially created to calculate
  * the sample stability with the {@link SamplingStabilityEvaluator}.
- * 
+ *
+ * Each configuration is an array of literals over a dictionary of feature
+ * names: the literal <i>l</i> refers to the feature at index <i>|l|</i> of the
+ * dictionary and is negative if the feature is deselected. All samples of a
+ * model share the dictionary of its variables, such that no strings are created
+ * for the literals. The names of the features of a configuration are only
+ * materialized by {@link #getNames(int)}, e.g., to write the sample as text.
+ *
  * @author Joshua Sprey
  */
-public class Sample extends ArrayList<List<String>> {
+public class Sample implements Iterable<int[]> {
 
 	/**
-	 * 
+	 * Creates a sample from the solutions of a sampling algorithm. The sample uses
+	 * the names of the variables as dictionary.
+	 *
+	 * @param solutions The solutions.
+	 * @param variables The variables the literals refer to.
+	 * @return The sample.
 	 */
-	private static final long serialVersionUID = -3606346823876818613L;
+	public static Sample fromSolutionList(SolutionList solutions, IVariables variables) {
+		Sample sample = new Sample(variables.getNames());
+		for (LiteralSet config : solutions.getSolutions()) {
+			sample.add(config.getLiterals().clone());
+		}
+		return sample;
+	}
+
+	/** The literals of each configuration. */
+	private final List<int[]> configurations = new ArrayList<>();
+	/** The feature names, where index 0 is not used. */
+	private final String[] dictionary;
 
-	public Sample() {
+	/**
+	 * Creates an empty sample.
+	 *
+	 * @param dictionary The feature names of the literals, where index 0 is not
+	 *                   used.
+	 */
+	public Sample(String[] dictionary) {
+		this.dictionary = dictionary;
 	}
 
 	/**
 	 * Copy constructor
-	 * 
+	 *
 	 * @param sample sample to copy
 	 */
 	public Sample(Sample sample) {
-		Collections.copy(this, sample);
+		this(sample.dictionary);
+		for (int[] configuration : sample) {
+			configurations.add(configuration.clone());
+		}
+	}
+
+	/**
+	 * Adds a configuration.
+	 *
+	 * @param literals The literals of the configuration, which must not be
+	 *                 modified afterwards.
+	 */
+	public void add(int[] literals) {
+		configurations.add(literals);
+	}
+
+	/**
+	 * @param index The index of a configuration.
+	 * @return The literals of the configuration.
+	 */
+	public int[] get(int index) {
+		return configurations.get(index);
+	}
+
+	/**
+	 * @return The feature names of the literals, where index 0 is not used.
+	 */
+	public String[] getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @param literal A literal of a configuration.
+	 * @return The name of the feature of the literal.
+	 */
+	public String getName(int literal) {
+		return dictionary[Math.abs(literal)];
+	}
+
+	/**
+	 * Materializes the names of the features of a configuration.
+	 *
+	 * @param index The index of a configuration.
+	 * @return The names of the selected features and the names of the deselected
+	 *         features prefixed with <code>-</code>.
+	 */
+	public List<String> getNames(int index) {
+		final int[] literals = configurations.get(index);
+		final List<String> names = new ArrayList<>(literals.length);
+		for (int literal : literals) {
+			if (literal > 0) {
+				names.add(dictionary[literal]);
+			} else if (literal < 0) {
+				names.add("-" + dictionary[-literal]);
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * @return {@link Boolean#TRUE} if the sample contains no configurations.
+	 */
+	public boolean isEmpty() {
+		return configurations.isEmpty();
+	}
+
+	@Override
+	public Iterator<int[]> iterator() {
+		return configurations.iterator();
 	}
 
 	/**
 	 * Removes all unselected features from the sample.
-	 * 
+	 *
 	 * @return Sample without negative values.
 	 */
 	public Sample omitNegatives() {
-		Sample sample = new Sample();
-		for (List<String> list : this) {
-			sample.add(list.stream().filter(e -> !e.startsWith("-")).collect(Collectors.toList()));
+		Sample sample = new Sample(dictionary);
+		for (int[] literals : configurations) {
+			int selected = 0;
+			for (int literal : literals) {
+				if (literal > 0) {
+					selected++;
+				}
+			}
+			final int[] positiveLiterals = new int[selected];
+			int i = 0;
+			for (int literal : literals) {
+				if (literal > 0) {
+					positiveLiterals[i++] = literal;
+				}
+			}
+			sample.add(positiveLiterals);
 		}
 		return sample;
 	}
+
+	/**
+	 * @return The number of configurations.
+	 */
+	public int size() {
+		return configurations.size();
+	}
 }
@@ -13,6 +13,7 @@ import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
 import de.ovgu.featureide.sampling.eval.samplestability.metrics.FIMDC;
 import de.ovgu.featureide.sampling.eval.samplestability.metrics.ICSTMetric;
 import de.ovgu.featureide.sampling.eval.samplestability.metrics.MSOC;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.PairingStrategy;
 import de.ovgu.featureide.sampling.eval.samplestability.metrics.ROIC;
 
 /**
@@ -34,6 +35,10 @@ public class SamplingStabilityEvaluator {
 		public double resultROIC = -1;
 	}
 
+	/** Cache for the core and dead features of both models. */
+	private final CoreDeadCache coreDeadCache;
+	/** Strategy used by {@link MSOC} and {@link FIMDC} to pair configurations. */
+	private PairingStrategy pairingStrategy = PairingStrategy.GREEDY;
 	/** The feature model of the new samples. */
 	private IFeatureModelManager fmNew;
 	/** The feature model of the old samples. */
@@ -53,6 +58,22 @@ public class SamplingStabilityEvaluator {
 	 */
 	public SamplingStabilityEvaluator(IFeatureModelManager fmOld, Sample sampleOld, IFeatureModelManager fmNew,
 			Sample sampleNew) {
+		this(fmOld, sampleOld, fmNew, sampleNew, new CoreDeadCache());
+	}
+
+	/**
+	 * Creates a new stability evaluator that retrieves the core and dead features
+	 * from the given cache.
+	 * 
+	 * @param fmOld         Old model.
+	 * @param sampleOld     Old sample.
+	 * @param fmNew         New model.
+	 * @param sampleNew     New sample.
+	 * @param coreDeadCache Cache for the core and dead features.
+	 */
+	public SamplingStabilityEvaluator(IFeatureModelManager fmOld, Sample sampleOld, IFeatureModelManager fmNew,
+			Sample sampleNew, CoreDeadCache coreDeadCache) {
+		this.coreDeadCache = coreDeadCache;
 		this.fmOld = fmOld;
 		this.sampleOld = sampleOld.omitNegatives();
 		this.fmNew = fmNew;
@@ -84,22 +105,38 @@ public class SamplingStabilityEvaluator {
 		SampleSimilarityResult result = new SampleSimilarityResult();
 		// 1) ROIC
 		ROIC roic = new ROIC();
+		roic.setCoreDeadCache(coreDeadCache);
 		result.resultROIC = roic.analyze(fmOld, sampleOld, fmNew, sampleNew);
 
 		// 2) MSOC
 		MSOC msoc = new MSOC();
+		msoc.setCoreDeadCache(coreDeadCache);
+		msoc.setMatcher(pairingStrategy.createMatcher());
 		result.resultMSOC = msoc.analyze(fmOld, sampleOld, fmNew, sampleNew);
 
 		// 3) FIMDC
 		FIMDC fimdc = new FIMDC();
+		fimdc.setCoreDeadCache(coreDeadCache);
+		fimdc.setMatcher(pairingStrategy.createMatcher());
 		result.resultFIMDC = fimdc.analyze(fmOld, sampleOld, fmNew, sampleNew);
 
 		// 4) ICSTMetric
 		ICSTMetric icst = new ICSTMetric();
+		icst.setCoreDeadCache(coreDeadCache);
 		result.resultICST = icst.analyze(fmOld, sampleOld, fmNew, sampleNew);
 		return result;
 	}
 
+	/**
+	 * Sets the strategy that is used to pair configurations for {@link MSOC} and
+	 * {@link FIMDC}.
+	 * 
+	 * @param pairingStrategy The pairing strategy.
+	 */
+	public void setPairingStrategy(PairingStrategy pairingStrategy) {
+		this.pairingStrategy = pairingStrategy;
+	}
+
 	/**
 	 * TODO MASTER ??
 	 * 
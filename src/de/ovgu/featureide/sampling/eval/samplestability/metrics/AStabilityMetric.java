@@ -2,6 +2,7 @@ package de.ovgu.featureide.sampling.eval.samplestability.metrics;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -11,6 +12,11 @@ import de.ovgu.featureide.fm.core.base.IFeature;
 import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
 import de.ovgu.featureide.fm.core.job.monitor.ConsoleMonitor;
 import de.ovgu.featureide.fm.core.job.monitor.IMonitor;
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+import de.ovgu.featureide.sampling.eval.samplestability.CoreDeadCache;
+import de.ovgu.featureide.sampling.eval.samplestability.CoreDeadCache.CoreDeadFeatures;
+import de.ovgu.featureide.sampling.eval.samplestability.FeatureIndex;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
 
 public abstract class AStabilityMetric implements IStabilityMetric {
 
@@ -24,19 +30,24 @@ public abstract class AStabilityMetric implements IStabilityMetric {
 		return coreDead;
 	}
 
-	public static Set<Set<String>> intersect(Set<Set<String>> sample1, Set<Set<String>> sample2) {
-		Set<Set<String>> intersection = new HashSet<>();
-		for (Set<String> conf1 : sample1) {
-			for (Set<String> conf2 : sample2) {
-				if (conf1.size() == conf2.size()) {
-					Set<String> checkSet = new HashSet<>();
-					checkSet.addAll(conf1);
-					checkSet.removeAll(conf2);
-					if (checkSet.size() == 0) {
-						intersection.add(conf1);
-						break;
-					}
-				}
+	/**
+	 * Computes the configurations that are contained in both samples. Identical
+	 * configurations are found by a hash join over the
+	 * {@link BitSetConfiguration#hashCode() hash codes} of the bit sets, which
+	 * requires <i>O(n+m)</i> comparisons instead of comparing each pair of
+	 * configurations.
+	 *
+	 * @param sample1 First sample.
+	 * @param sample2 Second sample.
+	 * @return The common configurations in the order of the first sample.
+	 */
+	public static Set<BitSetConfiguration> intersect(List<BitSetConfiguration> sample1,
+			List<BitSetConfiguration> sample2) {
+		final Set<BitSetConfiguration> configurations2 = new HashSet<>(sample2);
+		final Set<BitSetConfiguration> intersection = new LinkedHashSet<>();
+		for (BitSetConfiguration conf1 : sample1) {
+			if (configurations2.contains(conf1)) {
+				intersection.add(conf1);
 			}
 		}
 		return intersection;
@@ -45,19 +56,53 @@ public abstract class AStabilityMetric implements IStabilityMetric {
 	protected Set<String> core_new;
 
 	protected Set<String> core_old;
+	/**
+	 * Cache for the core and dead features. When <code>null</code> the features
+	 * are computed by each metric.
+	 */
+	protected CoreDeadCache coreDeadCache;
 	protected Set<String> dead_new;
 
 	protected Set<String> dead_old;
+	/** Dictionary for the combined feature set of both models. */
+	protected FeatureIndex featureIndex;
 	protected IMonitor<LiteralSet> monitor = new ConsoleMonitor<LiteralSet>();
 
-	protected Set<Set<String>> sample_new;
-
-	protected Set<Set<String>> sample_old;
+	protected List<BitSetConfiguration> sample_new;
+
+	protected List<BitSetConfiguration> sample_old;
+
+	/**
+	 * Builds the {@link #featureIndex} for both models and converts both samples
+	 * into {@link BitSetConfiguration bit sets}.
+	 *
+	 * @param fm1     Old model.
+	 * @param sample1 Old sample.
+	 * @param fm2     New model.
+	 * @param sample2 New sample.
+	 */
+	protected void buildConfigurations(IFeatureModelManager fm1, Sample sample1, IFeatureModelManager fm2,
+			Sample sample2) {
+		featureIndex = new FeatureIndex(fm1.getVarObject().getFeatureOrderList(),
+				fm2.getVarObject().getFeatureOrderList());
+		featureIndex.addSample(sample1);
+		featureIndex.addSample(sample2);
+		this.sample_old = featureIndex.toConfigurations(sample1);
+		this.sample_new = featureIndex.toConfigurations(sample2);
+	}
 
 	protected void getCoreDead(int olNewIdentifier, IFeatureModelManager fm) {
-		List<List<String>> coreDead1 = checkCoreDead(fm, monitor);
-		Set<String> core = ListToSet(coreDead1.get(1));
-		Set<String> dead = ListToSet(coreDead1.get(0));
+		Set<String> core;
+		Set<String> dead;
+		if (coreDeadCache != null) {
+			CoreDeadFeatures coreDead = coreDeadCache.getCoreDead(fm);
+			core = coreDead.getCore();
+			dead = coreDead.getDead();
+		} else {
+			List<List<String>> coreDead1 = checkCoreDead(fm, monitor);
+			core = ListToSet(coreDead1.get(1));
+			dead = ListToSet(coreDead1.get(0));
+		}
 
 		if (olNewIdentifier == 1) {
 			core_old = core;
@@ -76,29 +121,31 @@ public abstract class AStabilityMetric implements IStabilityMetric {
 		return set;
 	}
 
-	protected void removeCoreDead(Set<Set<String>> sample) {
-		for (Set<String> set : sample) {
-			set.removeAll(core_old);
-			set.removeAll(core_new);
-			set.removeAll(dead_old);
-			set.removeAll(dead_new);
-		}
+	/**
+	 * Sets a cache that is used to retrieve the core and dead features of the
+	 * feature models.
+	 *
+	 * @param coreDeadCache The cache, or <code>null</code> to compute the features
+	 *                      for each analysis.
+	 */
+	public void setCoreDeadCache(CoreDeadCache coreDeadCache) {
+		this.coreDeadCache = coreDeadCache;
 	}
 
-	protected Set<Set<String>> SampleListToSet(List<List<String>> sample) {
-		Set<Set<String>> sampleSet = new HashSet<>();
-		for (List<String> conf : sample) {
-			Set<String> setConf = new HashSet<String>();
-			for (String f : conf) {
-				setConf.add(f);
-			}
-			sampleSet.add(setConf);
+	protected void removeCoreDead(List<BitSetConfiguration> sample) {
+		Set<String> coreDead = new HashSet<>();
+		coreDead.addAll(core_old);
+		coreDead.addAll(core_new);
+		coreDead.addAll(dead_old);
+		coreDead.addAll(dead_new);
+		BitSetConfiguration mask = featureIndex.toConfiguration(coreDead);
+		for (BitSetConfiguration conf : sample) {
+			conf.andNot(mask);
 		}
-		return sampleSet;
 	}
 
-	protected Set<Set<String>> union(Set<Set<String>> sample1, Set<Set<String>> sample2) {
-		Set<Set<String>> union = new HashSet<>();
+	protected Set<BitSetConfiguration> union(List<BitSetConfiguration> sample1, List<BitSetConfiguration> sample2) {
+		Set<BitSetConfiguration> union = new HashSet<>();
 		union.addAll(sample1);
 		union.addAll(sample2);
 		return union;
@@ -0,0 +1,88 @@
+package de.ovgu.featureide.sampling.eval.samplestability.metrics;
+
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+
+/**
+ * Computes the similarity of two configurations as the number of features that
+ * are selected in both or deselected in both configurations, relative to the
+ * combined feature set of both models. To compare scores without rounding
+ * errors, the absolute number of agreeing features is used.
+ *
+ * @author Joshua Sprey
+ */
+public class ConfigurationSimilarity {
+
+	/** The size of the combined feature set of both models. */
+	private final int universeSize;
+
+	public ConfigurationSimilarity(int universeSize) {
+		this.universeSize = universeSize;
+	}
+
+	/**
+	 * @return The size of the combined feature set of both models.
+	 */
+	public int getUniverseSize() {
+		return universeSize;
+	}
+
+	/**
+	 * Counts the features of a configuration that are part of the combined
+	 * feature set.
+	 *
+	 * @param conf The configuration.
+	 * @return The number of selected features within the combined feature set.
+	 */
+	public int innerCardinality(BitSetConfiguration conf) {
+		return conf.countUnion(conf, universeSize);
+	}
+
+	/**
+	 * Computes the number of features two configurations agree upon.
+	 *
+	 * @param conf1 First configuration.
+	 * @param conf2 Second configuration.
+	 * @return The absolute similarity score.
+	 */
+	public int score(BitSetConfiguration conf1, BitSetConfiguration conf2) {
+		return conf1.countIntersection(conf2) + (universeSize - conf1.countUnion(conf2, universeSize));
+	}
+
+	/**
+	 * Computes the relative similarity of two configurations.
+	 *
+	 * @param conf1 First configuration.
+	 * @param conf2 Second configuration.
+	 * @return A value between 0 (no similarity) and 1 (identical).
+	 */
+	public double similarity(BitSetConfiguration conf1, BitSetConfiguration conf2) {
+		return toSimilarity(score(conf1, conf2));
+	}
+
+	/**
+	 * Converts an absolute score into the relative similarity.
+	 *
+	 * @param score The absolute score.
+	 * @return The relative similarity.
+	 */
+	public double toSimilarity(int score) {
+		return (double) score / universeSize;
+	}
+
+	/**
+	 * Computes an upper bound for the score of two configurations without
+	 * comparing them. Two configurations whose number of selected features differs
+	 * by <i>d</i> disagree in at least <i>d</i> features.
+	 *
+	 * @param innerCardinality1 Selected features of the first configuration within
+	 *                          the combined feature set.
+	 * @param innerCardinality2 Selected features of the second configuration within
+	 *                          the combined feature set.
+	 * @param outerSlack        Maximum number of common features outside the
+	 *                          combined feature set.
+	 * @return The upper bound for the absolute score.
+	 */
+	public int upperBound(int innerCardinality1, int innerCardinality2, int outerSlack) {
+		return (universeSize - Math.abs(innerCardinality1 - innerCardinality2)) + outerSlack;
+	}
+}
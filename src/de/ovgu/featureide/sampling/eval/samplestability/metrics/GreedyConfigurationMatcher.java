@@ -0,0 +1,138 @@
+package de.ovgu.featureide.sampling.eval.samplestability.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+
+/**
+ * Pairs each configuration of the first sample in sample order with the most
+ * similar configuration of the second sample that is not yet paired. Ties are
+ * resolved in favor of the configuration with the lower index, such that the
+ * result is deterministic.
+ *
+ * Candidates are visited in the order of their difference in the number of
+ * selected features. As soon as the {@link ConfigurationSimilarity#upperBound
+ * upper bound} of the remaining candidates falls below the best similarity
+ * found so far, the search for the current configuration stops. The result is
+ * identical to comparing all configurations.
+ *
+ * @author Joshua Sprey
+ */
+public class GreedyConfigurationMatcher implements IConfigurationMatcher {
+
+	@Override
+	public List<ConfigurationPair> match(List<BitSetConfiguration> sample1, List<BitSetConfiguration> sample2,
+			ConfigurationSimilarity similarity) {
+		final int size2 = sample2.size();
+		final int[] innerCardinality2 = new int[size2];
+		int maxOuterCardinality2 = 0;
+		for (int j = 0; j < size2; j++) {
+			final BitSetConfiguration conf = sample2.get(j);
+			innerCardinality2[j] = similarity.innerCardinality(conf);
+			maxOuterCardinality2 = Math.max(maxOuterCardinality2, conf.cardinality() - innerCardinality2[j]);
+		}
+
+		// indices of the second sample sorted by their cardinality
+		final int[] sorted = sortByCardinality(innerCardinality2);
+		final int[] sortedCardinality = new int[size2];
+		for (int k = 0; k < size2; k++) {
+			sortedCardinality[k] = innerCardinality2[sorted[k]];
+		}
+
+		final boolean[] paired = new boolean[size2];
+		final List<ConfigurationPair> pairList = new ArrayList<>();
+		final List<Integer> unpaired = new ArrayList<>();
+
+		for (int i = 0; i < sample1.size(); i++) {
+			final BitSetConfiguration conf1 = sample1.get(i);
+			final int cardinality1 = similarity.innerCardinality(conf1);
+			final int outerSlack = Math.min(conf1.cardinality() - cardinality1, maxOuterCardinality2);
+
+			int bestScore = 0;
+			int bestIndex = -1;
+
+			// expand from the position of the current cardinality in both directions
+			int upper = lowerBound(sortedCardinality, cardinality1);
+			int lower = upper - 1;
+			while (lower >= 0 || upper < size2) {
+				final int k;
+				if (lower < 0) {
+					k = upper++;
+				} else if (upper >= size2) {
+					k = lower--;
+				} else if ((cardinality1 - sortedCardinality[lower]) <= (sortedCardinality[upper] - cardinality1)) {
+					k = lower--;
+				} else {
+					k = upper++;
+				}
+				final int bound = similarity.upperBound(cardinality1, sortedCardinality[k], outerSlack);
+				if (bound < bestScore || bound <= 0) {
+					break;
+				}
+				final int j = sorted[k];
+				if (paired[j]) {
+					continue;
+				}
+				final int score = similarity.score(conf1, sample2.get(j));
+				if ((score > bestScore) || ((score == bestScore) && (score > 0) && (j < bestIndex))) {
+					bestScore = score;
+					bestIndex = j;
+				}
+			}
+
+			if (bestIndex >= 0) {
+				paired[bestIndex] = true;
+				pairList.add(new ConfigurationPair(i + 1, bestIndex + 1, similarity.toSimilarity(bestScore)));
+			} else {
+				// no similar configuration left, counts as empty pair and as unpaired
+				// configuration
+				pairList.add(new ConfigurationPair());
+				unpaired.add(i + 1);
+			}
+		}
+
+		for (int key : unpaired) {
+			pairList.add(new ConfigurationPair(key, 0, 0));
+		}
+		for (int j = 0; j < size2; j++) {
+			if (!paired[j]) {
+				pairList.add(new ConfigurationPair(0, j + 1, 0));
+			}
+		}
+		return pairList;
+	}
+
+	/**
+	 * @return The first position in the sorted array with a value not lower than
+	 *         the given key.
+	 */
+	private int lowerBound(int[] sortedValues, int key) {
+		int low = 0;
+		int high = sortedValues.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (sortedValues[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	private int[] sortByCardinality(int[] cardinality) {
+		final long[] keys = new long[cardinality.length];
+		for (int j = 0; j < cardinality.length; j++) {
+			keys[j] = ((long) cardinality[j] << 32) | j;
+		}
+		Arrays.sort(keys);
+		final int[] sorted = new int[cardinality.length];
+		for (int k = 0; k < keys.length; k++) {
+			sorted[k] = (int) keys[k];
+		}
+		return sorted;
+	}
+
+}
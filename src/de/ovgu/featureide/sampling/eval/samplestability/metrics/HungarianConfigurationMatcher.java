@@ -0,0 +1,127 @@
+package de.ovgu.featureide.sampling.eval.samplestability.metrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+
+/**
+ * Computes a pairing of both samples that maximizes the sum of all
+ * similarities (optimal assignment). The similarity matrix is computed once
+ * and in parallel. The assignment is solved with the shortest augmenting path
+ * variant of the Hungarian method (Jonker-Volgenant) in
+ * <i>O(n<sup>2</sup>m)</i>, where <i>n</i> is the size of the smaller sample.
+ *
+ * @author Joshua Sprey
+ */
+public class HungarianConfigurationMatcher implements IConfigurationMatcher {
+
+	@Override
+	public List<ConfigurationPair> match(List<BitSetConfiguration> sample1, List<BitSetConfiguration> sample2,
+			ConfigurationSimilarity similarity) {
+		// the smaller sample is assigned to the larger one
+		final boolean transposed = sample1.size() > sample2.size();
+		final List<BitSetConfiguration> rows = transposed ? sample2 : sample1;
+		final List<BitSetConfiguration> columns = transposed ? sample1 : sample2;
+		final int n = rows.size();
+		final int m = columns.size();
+
+		final int[][] scores = new int[n][];
+		IntStream.range(0, n).parallel().forEach(i -> {
+			final BitSetConfiguration conf = rows.get(i);
+			final int[] row = new int[m];
+			for (int j = 0; j < m; j++) {
+				row[j] = similarity.score(conf, columns.get(j));
+			}
+			scores[i] = row;
+		});
+
+		final int[] assignment = assign(scores, n, m);
+
+		final List<ConfigurationPair> pairList = new ArrayList<>();
+		final boolean[] assignedColumns = new boolean[m];
+		for (int i = 0; i < n; i++) {
+			final int j = assignment[i];
+			assignedColumns[j] = true;
+			final double sim = similarity.toSimilarity(scores[i][j]);
+			pairList.add(transposed ? new ConfigurationPair(j + 1, i + 1, sim) : new ConfigurationPair(i + 1, j + 1, sim));
+		}
+		for (int j = 0; j < m; j++) {
+			if (!assignedColumns[j]) {
+				pairList.add(transposed ? new ConfigurationPair(j + 1, 0, 0) : new ConfigurationPair(0, j + 1, 0));
+			}
+		}
+		return pairList;
+	}
+
+	/**
+	 * Solves the assignment problem that maximizes the total score.
+	 *
+	 * @param scores The score matrix with <code>n &lt;= m</code>.
+	 * @param n      Number of rows.
+	 * @param m      Number of columns.
+	 * @return For each row the index of the assigned column.
+	 */
+	private int[] assign(int[][] scores, int n, int m) {
+		// maximizing the score is equivalent to minimizing the negated score
+		final long[] u = new long[n + 1];
+		final long[] v = new long[m + 1];
+		// p[j] row assigned to column j (1-based, 0 = none)
+		final int[] p = new int[m + 1];
+		final int[] way = new int[m + 1];
+		final long[] minv = new long[m + 1];
+		final boolean[] used = new boolean[m + 1];
+
+		for (int i = 1; i <= n; i++) {
+			p[0] = i;
+			int j0 = 0;
+			Arrays.fill(minv, Long.MAX_VALUE);
+			Arrays.fill(used, false);
+			do {
+				used[j0] = true;
+				final int i0 = p[j0];
+				final int[] row = scores[i0 - 1];
+				long delta = Long.MAX_VALUE;
+				int j1 = 0;
+				for (int j = 1; j <= m; j++) {
+					if (!used[j]) {
+						final long cur = -row[j - 1] - u[i0] - v[j];
+						if (cur < minv[j]) {
+							minv[j] = cur;
+							way[j] = j0;
+						}
+						if (minv[j] < delta) {
+							delta = minv[j];
+							j1 = j;
+						}
+					}
+				}
+				for (int j = 0; j <= m; j++) {
+					if (used[j]) {
+						u[p[j]] += delta;
+						v[j] -= delta;
+					} else {
+						minv[j] -= delta;
+					}
+				}
+				j0 = j1;
+			} while (p[j0] != 0);
+			do {
+				final int j1 = way[j0];
+				p[j0] = p[j1];
+				j0 = j1;
+			} while (j0 != 0);
+		}
+
+		final int[] assignment = new int[n];
+		for (int j = 1; j <= m; j++) {
+			if (p[j] != 0) {
+				assignment[p[j] - 1] = j - 1;
+			}
+		}
+		return assignment;
+	}
+
+}
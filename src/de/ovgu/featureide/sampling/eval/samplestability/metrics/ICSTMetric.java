@@ -6,17 +6,16 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
-import com.google.common.collect.Sets;
-
 import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
 
 public class ICSTMetric extends AStabilityMetric {
-	protected Set<String> combinedFeatureSet;
 	protected List<ConfigurationPair> pairList = new ArrayList<>();
 
-	private HashMap<Integer, Set<String>> sampleMap_new;
+	private HashMap<Integer, BitSetConfiguration> sampleMap_new;
 
-	private HashMap<Integer, Set<String>> sampleMap_old;
+	private HashMap<Integer, BitSetConfiguration> sampleMap_old;
 
 	// constructor
 	public ICSTMetric() {
@@ -24,20 +23,16 @@ public class ICSTMetric extends AStabilityMetric {
 	}
 
 	@Override
-	public double analyze(IFeatureModelManager fm1, List<List<String>> sample1List, IFeatureModelManager fm2,
-			List<List<String>> sample2List) {
-		// transform sample lists to sets
-		this.sample_old = SampleListToSet(sample1List);
-		this.sample_new = SampleListToSet(sample2List);
-		// build combined feature set
-		combinedFeatureSet = buildCombinedFS(fm1, fm2);
+	public double analyze(IFeatureModelManager fm1, Sample sample1, IFeatureModelManager fm2, Sample sample2) {
+		// build combined feature set and transform sample lists to bit sets
+		buildConfigurations(fm1, sample1, fm2, sample2);
 		// find core and dead features for the feature models
 		getCoreDead(1, fm1);
 		getCoreDead(2, fm2);
 		// remove core and dead features from input samples
 		removeCoreDead(sample_old);
 		removeCoreDead(sample_new);
-		// transform set of sets to map of sets
+		// transform list of configurations to map of configurations
 		this.sampleMap_old = generateSampleMap(sample_old);
 		this.sampleMap_new = generateSampleMap(sample_new);
 		// find configuration pairs old sample --> new sample
@@ -48,23 +43,15 @@ public class ICSTMetric extends AStabilityMetric {
 		return simAgregation(pairList);
 	}
 
-	private Set<String> buildCombinedFS(IFeatureModelManager fm1, IFeatureModelManager fm2) {
-		Set<String> fs1 = ListToSet(fm1.getVarObject().getFeatureOrderList());
-		Set<String> fs2 = ListToSet(fm2.getVarObject().getFeatureOrderList());
-
-		return Sets.union(fs1, fs2);
-	}
-
-	protected double calcConfSim(Set<String> conf1, Set<String> conf2) {
-		Set<String> difFSconf1 = Sets.difference(combinedFeatureSet, conf1);
-		Set<String> difFSconf2 = Sets.difference(combinedFeatureSet, conf2);
-		double absConfIntersec = Sets.intersection(conf1, conf2).size();
-		double absDifIntersec = Sets.intersection(difFSconf1, difFSconf2).size();
+	protected double calcConfSim(BitSetConfiguration conf1, BitSetConfiguration conf2) {
+		final int universeSize = featureIndex.getUniverseSize();
+		double absConfIntersec = conf1.countIntersection(conf2);
+		double absDifIntersec = universeSize - conf1.countUnion(conf2, universeSize);
 
-		return (absConfIntersec + absDifIntersec) / combinedFeatureSet.size();
+		return (absConfIntersec + absDifIntersec) / universeSize;
 	}
 
-	private void findConfigurationPairs(HashMap<Integer, Set<String>> sample1, HashMap<Integer, Set<String>> sample2) {
+	private void findConfigurationPairs(HashMap<Integer, BitSetConfiguration> sample1, HashMap<Integer, BitSetConfiguration> sample2) {
 		Set<Integer> keySet1 = new HashSet<>();
 		keySet1.addAll(sample1.keySet());
 
@@ -85,10 +72,10 @@ public class ICSTMetric extends AStabilityMetric {
 		}
 	}
 
-	private HashMap<Integer, Set<String>> generateSampleMap(Set<Set<String>> sample) {
-		HashMap<Integer, Set<String>> map = new HashMap<>();
+	private HashMap<Integer, BitSetConfiguration> generateSampleMap(List<BitSetConfiguration> sample) {
+		HashMap<Integer, BitSetConfiguration> map = new HashMap<>();
 		int index = 1;
-		for (Set<String> conf : sample) {
+		for (BitSetConfiguration conf : sample) {
 			Integer key = index++;
 			map.put(key, conf);
 		}
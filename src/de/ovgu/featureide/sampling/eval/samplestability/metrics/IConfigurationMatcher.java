@@ -0,0 +1,22 @@
+package de.ovgu.featureide.sampling.eval.samplestability.metrics;
+
+import java.util.List;
+
+import de.ovgu.featureide.sampling.eval.samplestability.BitSetConfiguration;
+
+/**
+ * Pairs the configurations of two samples, such that each configuration is
+ * part of at most one pair with a configuration of the other sample.
+ *
+ * Configurations are identified by their index in the respective sample plus
+ * one. Configurations that remain without partner are reported as pair with key
+ * <code>0</code> and similarity <code>0</code>.
+ *
+ * @author Joshua Sprey
+ */
+public interface IConfigurationMatcher {
+
+	public List<ConfigurationPair> match(List<BitSetConfiguration> sample1, List<BitSetConfiguration> sample2,
+			ConfigurationSimilarity similarity);
+
+}
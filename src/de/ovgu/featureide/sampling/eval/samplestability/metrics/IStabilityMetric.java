@@ -1,12 +1,10 @@
 package de.ovgu.featureide.sampling.eval.samplestability.metrics;
 
-import java.util.List;
-
 import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
 
 public interface IStabilityMetric {
 
-	public double analyze(IFeatureModelManager fm1, List<List<String>> sample1List, IFeatureModelManager fm2,
-			List<List<String>> sample2List);
+	public double analyze(IFeatureModelManager fm1, Sample sample1, IFeatureModelManager fm2, Sample sample2);
 
 }
@@ -0,0 +1,51 @@
+package de.ovgu.featureide.sampling.eval.samplestability.metrics;
+
+/**
+ * The available strategies to pair configurations for {@link MSOC} and
+ * {@link FIMDC}.
+ *
+ * @author Joshua Sprey
+ */
+public enum PairingStrategy {
+	GREEDY("greedy"), HUNGARIAN("hungarian");
+
+	/**
+	 * Returns the strategy for the given name. Falls back to {@link #GREEDY} for
+	 * unknown names.
+	 *
+	 * @param name Name of the strategy.
+	 * @return The strategy.
+	 */
+	public static PairingStrategy fromName(String name) {
+		for (PairingStrategy strategy : values()) {
+			if (strategy.name.equalsIgnoreCase(name)) {
+				return strategy;
+			}
+		}
+		return GREEDY;
+	}
+
+	private String name = "";
+
+	private PairingStrategy(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return A new matcher implementing this strategy.
+	 */
+	public IConfigurationMatcher createMatcher() {
+		switch (this) {
+		case HUNGARIAN:
+			return new HungarianConfigurationMatcher();
+		case GREEDY:
+		default:
+			return new GreedyConfigurationMatcher();
+		}
+	}
+
+	public String getStrategyName() {
+		return this.name;
+	}
+
+}
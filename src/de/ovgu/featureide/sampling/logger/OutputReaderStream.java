@@ -0,0 +1,65 @@
+package de.ovgu.featureide.sampling.logger;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Splits the written bytes into lines and passes each line to a list of
+ * {@link IOutputReader}. It is the counterpart to {@link StreamRedirector} for
+ * output that is written within the same JVM.
+ * 
+ * @author Joshua Sprey
+ */
+public class OutputReaderStream extends OutputStream {
+
+	private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+	private final List<IOutputReader> outputReaderList;
+
+	public OutputReaderStream(List<IOutputReader> outputReaderList) {
+		this.outputReaderList = outputReaderList;
+	}
+
+	/**
+	 * Passes the remaining characters to the readers as last line.
+	 */
+	@Override
+	public synchronized void close() {
+		if (line.size() > 0) {
+			readLine();
+		}
+	}
+
+	private void readLine() {
+		int length = line.size();
+		final byte[] bytes = line.toByteArray();
+		if (length > 0 && bytes[length - 1] == '\r') {
+			length--;
+		}
+		final String text = new String(bytes, 0, length);
+		line.reset();
+		for (IOutputReader outputReader : outputReaderList) {
+			try {
+				outputReader.readOutput(text);
+			} catch (Exception e) {
+			}
+		}
+	}
+
+	@Override
+	public synchronized void write(int b) {
+		if (b == '\n') {
+			readLine();
+		} else {
+			line.write(b);
+		}
+	}
+
+	@Override
+	public synchronized void write(byte[] buf, int off, int len) {
+		for (int i = off; i < off + len; i++) {
+			write(buf[i]);
+		}
+	}
+
+}
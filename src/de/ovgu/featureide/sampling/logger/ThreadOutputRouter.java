@@ -0,0 +1,93 @@
+package de.ovgu.featureide.sampling.logger;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Replaces {@link System#out} and {@link System#err}, such that the output of a
+ * thread, and all threads started by it, can be redirected to dedicated
+ * streams. The output of all other threads is written to the original streams.
+ * This allows to capture the output of code that is executed within the
+ * framework's JVM, while concurrent threads keep logging as usual.
+ * 
+ * @author Joshua Sprey
+ */
+public final class ThreadOutputRouter extends OutputStream {
+
+	private static ThreadOutputRouter errRouter;
+	private static ThreadOutputRouter outRouter;
+
+	/**
+	 * Installs the routers for {@link System#out} and {@link System#err}. Does
+	 * nothing if they are already installed.
+	 */
+	public static synchronized void install() {
+		if (outRouter == null) {
+			outRouter = new ThreadOutputRouter(System.out);
+			errRouter = new ThreadOutputRouter(System.err);
+			System.setOut(new PrintStream(outRouter, true));
+			System.setErr(new PrintStream(errRouter, true));
+		}
+	}
+
+	/**
+	 * Redirects the output of the current thread and all threads that are started
+	 * by it afterwards. Requires {@link #install()}.
+	 * 
+	 * @param out Target for {@link System#out}.
+	 * @param err Target for {@link System#err}.
+	 */
+	public static void route(OutputStream out, OutputStream err) {
+		outRouter.target.set(out);
+		errRouter.target.set(err);
+	}
+
+	/**
+	 * Restores the original output of the current thread.
+	 */
+	public static void unroute() {
+		System.out.flush();
+		System.err.flush();
+		outRouter.target.remove();
+		errRouter.target.remove();
+	}
+
+	private final PrintStream defaultStream;
+	private final InheritableThreadLocal<OutputStream> target = new InheritableThreadLocal<>();
+
+	private ThreadOutputRouter(PrintStream defaultStream) {
+		this.defaultStream = defaultStream;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		final OutputStream out = target.get();
+		if (out != null) {
+			out.flush();
+		} else {
+			defaultStream.flush();
+		}
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		final OutputStream out = target.get();
+		if (out != null) {
+			out.write(b, off, len);
+		} else {
+			defaultStream.write(b, off, len);
+		}
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		final OutputStream out = target.get();
+		if (out != null) {
+			out.write(b);
+		} else {
+			defaultStream.write(b);
+		}
+	}
+
+}
@@ -24,6 +24,8 @@ import de.ovgu.featureide.sampling.logger.Logger;
  */
 public class AlgorithmLoaderModule {
 
+	/** Class loader for the external algorithms. */
+	private ClassLoader algorithmClassLoader;
 	private final SamplingConfig config;
 	private final TWiseSamplingFramework sampler;
 
@@ -65,56 +67,112 @@ public class AlgorithmLoaderModule {
 	}
 
 	/**
-	 * Loads all algorithm that should be evaluated for the given system iteration.
+	 * Returns the class loader for all external algorithms in the
+	 * {@link SamplingConfig#algorithmPath}. The class loader is created once and
+	 * shared by all algorithm instances.
 	 * 
-	 * @return
+	 * @return The class loader or <code>null</code> if the path is invalid.
 	 */
-	@SuppressWarnings("unchecked")
-	public List<ASamplingAlgorithm> loadAndPrepareAlgorithms() {
-		ArrayList<ASamplingAlgorithm> algorithms = new ArrayList<>();
+	private synchronized ClassLoader getClassLoader() {
+		if (algorithmClassLoader == null) {
+			algorithmClassLoader = createClassLoader();
+		}
+		return algorithmClassLoader;
+	}
 
-		ClassLoader cl = null;
+	@SuppressWarnings("resource")
+	private ClassLoader createClassLoader() {
 		try {
 			// Load all external algorithms
 			File file = config.algorithmPath.toFile();
 			URL url = file.toURI().toURL();
 			URL[] urls = new URL[] { url };
-			cl = new URLClassLoader(urls);
+			return new URLClassLoader(urls);
 		} catch (MalformedURLException e) {
 			Logger.getInstance().logError(e);
+			return null;
 		}
+	}
 
-		for (String algorithmName : config.algorithms.getValue()) {
-			final int tValue = config.tCoverage.getValue();
-			final Path sampleFile = config.tempPath.resolve("sample.csv");
-			final Path modelFile = config.tempPath.resolve("model.dimacs");
-			final Path gcCollectorFile = config.tempPath.resolve("runtimeGC.log");
-			final String minAllocation = config.minimumMemoryAllocation.getValue();
-			final String maxAllocation = config.maximumMemoryAllocation.getValue();
-			// Try if the given string is a class name for an external algorithm
-			try {
-				if (cl != null) {
+	/**
+	 * Loads a single algorithm whose temporary files (model, sample, and garbage
+	 * collector log) are placed in the given directory.
+	 * 
+	 * @param algorithmName    Class name of the algorithm.
+	 * @param workingDirectory Directory for the temporary files of the algorithm.
+	 * @return The algorithm instance or <code>null</code> if it could not be
+	 *         created.
+	 */
+	public ASamplingAlgorithm loadAlgorithm(String algorithmName, Path workingDirectory) {
+		return loadAlgorithm(getClassLoader(), algorithmName, workingDirectory);
+	}
+
+	@SuppressWarnings("unchecked")
+	private ASamplingAlgorithm loadAlgorithm(ClassLoader cl, String algorithmName, Path workingDirectory) {
+		final int tValue = config.tCoverage.getValue();
+		final Path sampleFile = workingDirectory.resolve("sample.csv");
+		final Path modelFile = workingDirectory.resolve("model.dimacs");
+		final Path gcCollectorFile = workingDirectory.resolve("runtimeGC.log");
+		final String minAllocation = config.minimumMemoryAllocation.getValue();
+		final String maxAllocation = config.maximumMemoryAllocation.getValue();
+		// Try if the given string is a class name for an external algorithm
+		try {
+			if (cl != null) {
 
-					Class<ASamplingAlgorithm> cls;
-					cls = (Class<ASamplingAlgorithm>) cl.loadClass(algorithmName);
+				Class<ASamplingAlgorithm> cls;
+				cls = (Class<ASamplingAlgorithm>) cl.loadClass(algorithmName);
+				try {
+					// First try to get a declared constructor for AJavaMemoryTWiseSamplingAlgorithm
+					final ASamplingAlgorithm algorithm = cls
+							.getDeclaredConstructor(Path.class, Path.class, int.class, Path.class, String.class,
+									String.class)
+							.newInstance(modelFile, sampleFile, tValue, gcCollectorFile, minAllocation, maxAllocation);
+					if (algorithm instanceof AJavaMemoryTWiseSamplingAlgorithm) {
+						((AJavaMemoryTWiseSamplingAlgorithm) algorithm)
+								.setTelemetryAgent(config.memoryTelemetry.getValue());
+					}
+					return algorithm;
+				} catch (Exception e) {
 					try {
-						// First try to get a declared constructor for AJavaMemoryTWiseSamplingAlgorithm
-						algorithms.add(cls.getDeclaredConstructor(Path.class, Path.class, int.class, Path.class,
-								String.class, String.class).newInstance(modelFile, sampleFile, tValue, gcCollectorFile,
-										minAllocation, maxAllocation));
-					} catch (Exception e) {
-						try {
-							algorithms.add(cls.getDeclaredConstructor(Path.class, Path.class, int.class)
-									.newInstance(modelFile, sampleFile, tValue));
-						} catch (Exception e2) {
-							// When no constructor was found report.
-							Logger.getInstance().logError(e);
-							Logger.getInstance().logError(e2);
-						}
+						return cls.getDeclaredConstructor(Path.class, Path.class, int.class).newInstance(modelFile,
+								sampleFile, tValue);
+					} catch (Exception e2) {
+						// When no constructor was found report.
+						Logger.getInstance().logError(e);
+						Logger.getInstance().logError(e2);
 					}
 				}
-			} catch (ClassNotFoundException e) {
-				Logger.getInstance().logError(e);
+			}
+		} catch (ClassNotFoundException e) {
+			Logger.getInstance().logError(e);
+		}
+		return null;
+	}
+
+	/**
+	 * Loads all algorithm that should be evaluated for the given system iteration.
+	 * 
+	 * @return
+	 */
+	public List<ASamplingAlgorithm> loadAndPrepareAlgorithms() {
+		return loadAndPrepareAlgorithms(config.tempPath);
+	}
+
+	/**
+	 * Loads all algorithm that should be evaluated for the given system iteration.
+	 * The temporary files of the algorithms are placed in the given directory.
+	 * 
+	 * @param workingDirectory Directory for the temporary files of the algorithms.
+	 * @return
+	 */
+	public List<ASamplingAlgorithm> loadAndPrepareAlgorithms(Path workingDirectory) {
+		ArrayList<ASamplingAlgorithm> algorithms = new ArrayList<>();
+
+		ClassLoader cl = getClassLoader();
+		for (String algorithmName : config.algorithms.getValue()) {
+			ASamplingAlgorithm algorithm = loadAlgorithm(cl, algorithmName, workingDirectory);
+			if (algorithm != null) {
+				algorithms.add(algorithm);
 			}
 		}
 		return algorithms;
@@ -0,0 +1,304 @@
+package de.ovgu.featureide.sampling.modules;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import de.ovgu.featureide.sampling.TWiseSamplingFramework;
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.config.SamplingConfig;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+import de.ovgu.featureide.sampling.logger.Logger;
+import de.ovgu.featureide.sampling.process.SamplingJob;
+import de.ovgu.featureide.sampling.util.BinarySampleStore;
+
+/**
+ * This module is part of {@link TWiseSamplingFramework} and maintains an
+ * append-only journal of all finished cells of the benchmark. A cell is
+ * identified by the system, the system iteration, the algorithm, and the
+ * algorithm iteration. Each entry contains the data row of the cell and is
+ * forced to the storage device before the next entry is written.
+ *
+ * With {@link SamplingConfig#resume}, an interrupted run is continued: The
+ * seed of the interrupted run is restored, the data file, the columnar result
+ * store, and the coverage curve file are reset to their state before the
+ * interrupted run and filled with the journaled rows, and finished cells are
+ * skipped. When the stability
+ * is calculated, the sample of each cell is stored next to the journal in a
+ * {@link BinarySampleStore} per system, such that the samples of skipped cells
+ * can be restored into the {@link StabilityCalculatorModule}.
+ *
+ * @author Joshua Sprey
+ */
+public class JournalModule {
+
+	private static final String HEADER_COVERAGE_CURVE_FILE_SIZE = "#coverageCurveFileSize=";
+	private static final String HEADER_DATA_FILE_SIZE = "#dataFileSize=";
+	private static final String HEADER_DATA_STORE_ROWS = "#dataStoreRows=";
+	private static final String HEADER_SEED = "#seed=";
+	/** Name of the journal file in the csv directory. */
+	public static final String JOURNAL_NAME = "journal.csv";
+	/** Name of the directory of the journaled samples in the csv directory. */
+	public static final String JOURNAL_SAMPLES_NAME = "journal_samples";
+	private static final String SEPARATOR = ";";
+
+	private static String getFileName(String name) {
+		return name.replaceAll("[^A-Za-z0-9._-]", "_");
+	}
+
+	private static String getKey(String systemName, int systemIteration, String algorithmName,
+			int algorithmIteration) {
+		return systemName + SEPARATOR + systemIteration + SEPARATOR + algorithmName + SEPARATOR + algorithmIteration;
+	}
+
+	/** Keys of all finished cells, added by the evaluator threads. */
+	private final Set<String> completedCells = ConcurrentHashMap.newKeySet();
+	private final SamplingConfig config;
+	private FileChannel journalChannel;
+	private Path journalFile;
+	private Path journalSamplesPath;
+	/** Sample stores of the systems. */
+	private final Map<String, BinarySampleStore> sampleStores = new HashMap<>();
+	private final TWiseSamplingFramework sampler;
+
+	public JournalModule(TWiseSamplingFramework sampler) {
+		this.sampler = sampler;
+		this.config = sampler.getConfig();
+	}
+
+	/**
+	 * Closes the journal. The journal is kept, such that a finished run is not
+	 * repeated when it is resumed.
+	 */
+	public void dispose() {
+		if (journalChannel != null) {
+			try {
+				journalChannel.close();
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+			journalChannel = null;
+		}
+	}
+
+	private synchronized BinarySampleStore getSampleStore(String systemName) throws IOException {
+		BinarySampleStore store = sampleStores.get(systemName);
+		if (store == null) {
+			store = new BinarySampleStore(journalSamplesPath.resolve(getFileName(systemName)));
+			store.setCompress(config.sampleCompression.getValue());
+			sampleStores.put(systemName, store);
+		}
+		return store;
+	}
+
+	/**
+	 * Opens the journal. Must be called after the {@link WriterModule} was
+	 * initialized. With {@link SamplingConfig#resume}, an existing journal is
+	 * loaded and its rows are restored, otherwise a new journal is started.
+	 *
+	 * @throws IOException If the journal cannot be read or written.
+	 */
+	public void init() throws IOException {
+		journalFile = config.csvPath.resolve(JOURNAL_NAME);
+		journalSamplesPath = config.csvPath.resolve(JOURNAL_SAMPLES_NAME);
+
+		if (config.resume.getValue() && Files.exists(journalFile)) {
+			resume();
+		} else {
+			deleteSamples();
+			Files.createDirectories(journalSamplesPath);
+			final StringBuilder header = new StringBuilder();
+			header.append(HEADER_SEED).append(config.randomSeed.getValue()).append('\n');
+			header.append(HEADER_DATA_FILE_SIZE).append(sampler.module_Writer.getDataFileSize()).append('\n');
+			header.append(HEADER_DATA_STORE_ROWS).append(sampler.module_Writer.getDataStoreRowCount()).append('\n');
+			header.append(HEADER_COVERAGE_CURVE_FILE_SIZE).append(sampler.module_Writer.getCoverageCurveFileSize())
+					.append('\n');
+			journalChannel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+					StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+			write(header.toString());
+		}
+	}
+
+	private void deleteSamples() throws IOException {
+		if (Files.isDirectory(journalSamplesPath)) {
+			final List<Path> files;
+			try (Stream<Path> paths = Files.walk(journalSamplesPath)) {
+				files = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+			}
+			for (Path file : files) {
+				Files.deleteIfExists(file);
+			}
+		}
+	}
+
+	/**
+	 * @param algorithm          The algorithm.
+	 * @param algorithmIteration The algorithm iteration.
+	 * @return {@link Boolean#TRUE} if the cell of the current system and system
+	 *         iteration was finished by a previous run.
+	 */
+	public boolean isCompleted(ASamplingAlgorithm algorithm, int algorithmIteration) {
+		return completedCells.contains(getKey(config.systemNames.get(sampler.getSystemIndex()),
+				sampler.getSystemIteration(), algorithm.getFullName(), algorithmIteration));
+	}
+
+	/**
+	 * Appends a finished cell to the journal. Must be called in the order in which
+	 * the rows are written to the data file. The row of the coverage curve of the
+	 * job, if any, follows the data row in the same entry.
+	 *
+	 * @param job The finished job.
+	 * @param row The data row of the job.
+	 */
+	public synchronized void record(SamplingJob job, List<String> row) {
+		final String key = getKey(config.systemNames.get(job.getSystemIndex()), job.getSystemIteration(),
+				job.getAlgorithm().getFullName(), job.getAlgorithmIteration());
+		final StringBuilder line = new StringBuilder(key);
+		appendValues(line, row);
+		if (job.getCoverageCurveRow() != null) {
+			appendValues(line, job.getCoverageCurveRow());
+		}
+		line.append('\n');
+		try {
+			write(line.toString());
+			completedCells.add(key);
+		} catch (IOException e) {
+			Logger.getInstance().logError(e);
+		}
+	}
+
+	private void appendValues(StringBuilder line, List<String> values) {
+		for (String value : values) {
+			line.append(SEPARATOR);
+			if (value != null) {
+				line.append(value.replace('\n', ' ').replace('\r', ' '));
+			}
+		}
+	}
+
+	/**
+	 * Restores the sample of a skipped cell into the
+	 * {@link StabilityCalculatorModule}.
+	 *
+	 * @param algorithm          The algorithm.
+	 * @param algorithmIteration The algorithm iteration.
+	 */
+	public void restoreSample(ASamplingAlgorithm algorithm, int algorithmIteration) {
+		if (!config.calculateStability.getValue().toLowerCase().equals("true")) {
+			return;
+		}
+		final String systemName = config.systemNames.get(sampler.getSystemIndex());
+		final String sampleName = getFileName(
+				getKey(systemName, sampler.getSystemIteration(), algorithm.getFullName(), algorithmIteration));
+		try {
+			final BinarySampleStore store = getSampleStore(systemName);
+			if (!Files.exists(store.getFile(sampleName))) {
+				return;
+			}
+			final Sample sample = store.readSample(sampleName);
+			sampler.module_StabilityCalculator.cacheCurrentSample(sampler.getSystemIteration(),
+					sampler.getAlgorithmIndex(), algorithmIteration, sample);
+		} catch (IOException e) {
+			Logger.getInstance().logError(e);
+		}
+	}
+
+	private void resume() throws IOException {
+		final byte[] content = Files.readAllBytes(journalFile);
+		// Ignore an incomplete last entry
+		int length = content.length;
+		while (length > 0 && content[length - 1] != '\n') {
+			length--;
+		}
+		final String[] lines = new String(content, 0, length, StandardCharsets.UTF_8).split("\n");
+
+		long dataFileSize = -1;
+		long dataStoreRows = -1;
+		long coverageCurveFileSize = -1;
+		final int rowLength = WriterModule.DATA_HEADER.size();
+		final List<List<String>> rows = new ArrayList<>();
+		final List<List<String>> coverageCurveRows = new ArrayList<>();
+		for (String line : lines) {
+			if (line.startsWith(HEADER_SEED)) {
+				config.randomSeed.setValue(line.substring(HEADER_SEED.length()));
+			} else if (line.startsWith(HEADER_DATA_FILE_SIZE)) {
+				dataFileSize = Long.parseLong(line.substring(HEADER_DATA_FILE_SIZE.length()));
+			} else if (line.startsWith(HEADER_DATA_STORE_ROWS)) {
+				dataStoreRows = Long.parseLong(line.substring(HEADER_DATA_STORE_ROWS.length()));
+			} else if (line.startsWith(HEADER_COVERAGE_CURVE_FILE_SIZE)) {
+				coverageCurveFileSize = Long.parseLong(line.substring(HEADER_COVERAGE_CURVE_FILE_SIZE.length()));
+			} else if (!line.isEmpty()) {
+				final String[] values = line.split(SEPARATOR, -1);
+				if (values.length >= 4) {
+					completedCells.add(getKey(values[0], Integer.parseInt(values[1]), values[2],
+							Integer.parseInt(values[3])));
+					final List<String> entry = Arrays.asList(values);
+					final int rowEnd = Math.min(values.length, 4 + rowLength);
+					rows.add(entry.subList(4, rowEnd));
+					coverageCurveRows.add(rowEnd < values.length ? entry.subList(rowEnd, values.length) : null);
+				}
+			}
+		}
+		if (dataFileSize < 0) {
+			throw new IOException("Journal " + journalFile + " has no valid header");
+		}
+
+		// Replace all rows of the interrupted run with the journaled rows
+		sampler.module_Writer.truncateData(dataFileSize, dataStoreRows, coverageCurveFileSize);
+		for (int i = 0; i < rows.size(); i++) {
+			sampler.module_Writer.writeDataRow(rows.get(i), coverageCurveRows.get(i));
+		}
+		sampler.module_Writer.checkpoint();
+
+		journalChannel = FileChannel.open(journalFile, StandardOpenOption.WRITE);
+		journalChannel.truncate(length);
+		journalChannel.position(length);
+		Files.createDirectories(journalSamplesPath);
+		Logger.getInstance().logInfo("Resuming run with " + completedCells.size() + " finished cells (seed "
+				+ config.randomSeed.getValue() + ")", 1, false);
+	}
+
+	/**
+	 * Stores the sample of a finished job next to the journal, if the stability is
+	 * calculated. The sample is stored before the cell is journaled, such that it
+	 * is available for every finished cell.
+	 *
+	 * @param job    The finished job.
+	 * @param sample The sample of the job.
+	 */
+	public void storeSample(SamplingJob job, Sample sample) {
+		if (journalSamplesPath == null || !config.calculateStability.getValue().toLowerCase().equals("true")) {
+			return;
+		}
+		final String systemName = config.systemNames.get(job.getSystemIndex());
+		final String sampleName = getFileName(getKey(systemName, job.getSystemIteration(),
+				job.getAlgorithm().getFullName(), job.getAlgorithmIteration()));
+		try {
+			getSampleStore(systemName).write(sampleName, sample);
+		} catch (IOException e) {
+			Logger.getInstance().logError(e);
+		}
+	}
+
+	private void write(String text) throws IOException {
+		final ByteBuffer bytes = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+		while (bytes.hasRemaining()) {
+			journalChannel.write(bytes);
+		}
+		journalChannel.force(false);
+	}
+}
@@ -18,6 +18,7 @@ public class ParameterParserModule {
 	private static final String PARAMETER_INPUTSYSTEM_PATH = "-in";
 
 	private static final String PARAMETER_OUTPUTSYSTEM_PATH = "-out";
+	private static final String PARAMETER_RESUME = "-resume";
 	private static final String PARAMETER_STORE_MODE_PATH = "-store";
 
 	private final SamplingConfig config;
@@ -49,6 +50,8 @@ public class ParameterParserModule {
 	 * 
 	 * -out: Determines the output path (valid system path)
 	 * 
+	 * -resume: Resumes an interrupted run from its journal
+	 * 
 	 * @param args List containing all parameters
 	 */
 	public boolean parseParameter(String[] args) {
@@ -180,6 +183,12 @@ public class ParameterParserModule {
 			config.storeSamples.setValue("true");
 			Logger.getInstance().logInfo("[-store] = true", false);
 		}
+
+		// 6) Identify resume mode
+		if (arguments.contains(PARAMETER_RESUME)) {
+			config.resume.setValue("true");
+			Logger.getInstance().logInfo("[-resume] = true", false);
+		}
 		Logger.getInstance().logInfo(" ", 0, false);
 		return true;
 	}
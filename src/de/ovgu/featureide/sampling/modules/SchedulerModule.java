@@ -0,0 +1,451 @@
+package de.ovgu.featureide.sampling.modules;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.sampling.TWiseSamplingFramework;
+import de.ovgu.featureide.sampling.config.SamplingConfig;
+import de.ovgu.featureide.sampling.eval.coverage.IncrementalTWiseCoverage;
+import de.ovgu.featureide.sampling.logger.Logger;
+import de.ovgu.featureide.sampling.process.InProcessSamplingEngine;
+import de.ovgu.featureide.sampling.process.InProcessSamplingRunner;
+import de.ovgu.featureide.sampling.process.SamplingJob;
+import de.ovgu.featureide.sampling.process.SamplingProcessRunner;
+import de.ovgu.featureide.sampling.process.SamplingResultCache;
+import de.ovgu.featureide.sampling.process.SamplingResults;
+import de.ovgu.featureide.sampling.process.SamplingWorkerPool;
+import de.ovgu.featureide.sampling.process.SamplingWorkerPoolRunner;
+import de.ovgu.featureide.sampling.process.StreamingSampleReader;
+
+/**
+ * This module is part of {@link TWiseSamplingFramework} and is responsible to
+ * execute {@link SamplingJob sampling jobs}. Up to
+ * {@link SamplingConfig#parallelJobs} jobs are executed concurrently. When
+ * {@link SamplingConfig#coresPerJob} is set, the available cores are split into
+ * disjoint core sets and every sampling process is pinned to one of them, such
+ * that concurrent processes do not skew each other's runtime. Independent of
+ * the execution order, the results are written in the order in which the jobs
+ * were submitted.
+ *
+ * Sampling and evaluation form a producer/consumer pipeline. The results of
+ * finished sampling processes are put into a bounded queue, from which
+ * {@link SamplingConfig#evaluationWorkers} workers take them to compute the
+ * metrics and write the rows. Thus, the next sampling process does not wait for
+ * the evaluation of its predecessor. When the queue is full, sampling threads
+ * block until an evaluation is finished (backpressure), which limits the number
+ * of results held in memory.
+ *
+ * With {@link SamplingConfig#inProcess}, Java-based algorithms are executed
+ * within the framework's JVM by an {@link InProcessSamplingEngine} instead of a
+ * new JVM per run, one job at a time. With {@link SamplingConfig#workerPool}, they are executed
+ * by long-lived worker JVMs of a {@link SamplingWorkerPool}.
+ *
+ * With {@link SamplingConfig#resultCache}, the results of unchanged cells are
+ * taken from a {@link SamplingResultCache} instead of executing the algorithm.
+ *
+ * With {@link SamplingConfig#streamingCoverage}, the configurations that a
+ * sampling process emits while running are evaluated by a
+ * {@link StreamingSampleReader}.
+ *
+ * @author Joshua Sprey
+ */
+public class SchedulerModule {
+
+	/** Name of the directory of the result cache in the output directory. */
+	public static final String RESULT_CACHE_NAME = "cache";
+
+	private final SamplingConfig config;
+	/** Contains one core set for each job that can run at the same time. */
+	private BlockingQueue<int[]> coreSets;
+	/** Results of finished sampling processes that wait for their evaluation. */
+	private BlockingQueue<Runnable> evaluationQueue;
+	/** Threads that evaluate the results of finished sampling processes. */
+	private final List<Thread> evaluationWorkers = new ArrayList<>();
+	private ExecutorService executor;
+	/** Executes algorithms in-process, or <code>null</code> for a JVM per run. */
+	private InProcessSamplingEngine inProcessEngine;
+	/** Results of previous runs, or <code>null</code> if caching is disabled. */
+	private SamplingResultCache resultCache;
+	/** Executes algorithms in warm worker JVMs, or <code>null</code>. */
+	private SamplingWorkerPool workerPool;
+	/** Finished jobs and their rows that wait for their predecessors. */
+	private final TreeMap<Integer, SimpleImmutableEntry<SamplingJob, List<String>>> finishedRows = new TreeMap<>();
+	/** Sequence number of the next row that is written. */
+	private int nextRow = 0;
+	/** Sequence number of the next submitted job. */
+	private int nextSequenceNumber = 0;
+	private final List<Future<?>> pendingEvaluations = Collections.synchronizedList(new ArrayList<>());
+	private final List<Future<?>> pendingJobs = new ArrayList<>();
+	private final TWiseSamplingFramework sampler;
+
+	public SchedulerModule(TWiseSamplingFramework sampler) {
+		this.sampler = sampler;
+		this.config = sampler.getConfig();
+	}
+
+	/**
+	 * Waits until all submitted jobs are finished and their results are written.
+	 */
+	public void awaitJobs() {
+		awaitAll(pendingJobs);
+		// all evaluations are submitted once the sampling processes are finished
+		awaitAll(pendingEvaluations);
+	}
+
+	private void awaitAll(List<Future<?>> futures) {
+		synchronized (futures) {
+			for (Future<?> future : futures) {
+				try {
+					future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					Logger.getInstance().logError(e);
+					return;
+				} catch (ExecutionException e) {
+					Logger.getInstance().logError(e.getCause());
+				} catch (CancellationException e) {
+					Logger.getInstance().logError(e);
+				}
+			}
+			futures.clear();
+		}
+	}
+
+	/**
+	 * Writes the row of a finished job and records it in the journal. If preceding
+	 * jobs are not finished yet, the row is kept back until all of them are
+	 * written.
+	 *
+	 * @param job The finished job.
+	 * @param row The row to write or <code>null</code> if the job failed.
+	 */
+	private void commitRow(SamplingJob job, List<String> row) {
+		commitRow(job.getSequenceNumber(), job, row);
+	}
+
+	/**
+	 * Writes the row of a sequence number and all subsequent rows that are kept
+	 * back.
+	 *
+	 * @param sequenceNumber The sequence number of the row.
+	 * @param job            The finished job or <code>null</code> if no job was
+	 *                       created.
+	 * @param row            The row to write or <code>null</code> if the job
+	 *                       failed.
+	 */
+	private synchronized void commitRow(int sequenceNumber, SamplingJob job, List<String> row) {
+		finishedRows.put(sequenceNumber, new SimpleImmutableEntry<>(job, row));
+		while (!finishedRows.isEmpty() && finishedRows.firstKey() == nextRow) {
+			final SimpleImmutableEntry<SamplingJob, List<String>> next = finishedRows.remove(nextRow++);
+			if (next.getValue() != null) {
+				// The journal entry is written first, as the data file may buffer rows
+				sampler.module_Journal.record(next.getKey(), next.getValue());
+				sampler.module_Writer.writeDataRow(next.getValue(), next.getKey().getCoverageCurveRow());
+			}
+		}
+	}
+
+	private void deleteWorkingDirectory(Path workingDirectory) {
+		try {
+			Files.walkFileTree(workingDirectory, new SimpleFileVisitor<Path>() {
+				@Override
+				public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+					Files.deleteIfExists(dir);
+					return FileVisitResult.CONTINUE;
+				}
+
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+					Files.delete(file);
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		} catch (IOException e) {
+			Logger.getInstance().logError(e);
+		}
+	}
+
+	public void dispose() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		for (Thread worker : evaluationWorkers) {
+			worker.interrupt();
+		}
+		evaluationWorkers.clear();
+		if (inProcessEngine != null) {
+			inProcessEngine.dispose();
+			inProcessEngine = null;
+		}
+		if (workerPool != null) {
+			workerPool.dispose();
+			workerPool = null;
+		}
+	}
+
+	/**
+	 * Evaluates the results of a job and writes them. Runs asynchronously to the
+	 * sampling processes.
+	 *
+	 * @param job    The finished job.
+	 * @param result The results of the sampling process or <code>null</code> if
+	 *               the process failed.
+	 */
+	private void evaluate(SamplingJob job, SamplingResults result) {
+		List<String> row = null;
+		try {
+			if (result != null) {
+				row = sampler.module_Writer.createDataRow(job, result);
+			}
+		} catch (Exception e) {
+			Logger.getInstance().logError(e);
+		} finally {
+			commitRow(job, row);
+			if (!config.debug.getValue()) {
+				deleteWorkingDirectory(job.getWorkingDirectory());
+			}
+		}
+	}
+
+	/**
+	 * Executes the sampling process for a single job and hands the results over to
+	 * the evaluation, such that the next sampling process can start immediately.
+	 *
+	 * @param job The job to execute.
+	 */
+	private void execute(SamplingJob job) {
+		SamplingResults result = null;
+		try {
+			Logger.getInstance().logInfo(job.toString(), 2, false);
+			String cacheKey = null;
+			SamplingResults cachedResult = null;
+			if (resultCache != null) {
+				cacheKey = SamplingResultCache.getKey(job.getWorkingDirectory().resolve("model.dimacs"),
+						job.getAlgorithm().getFullName(), config.tCoverage.getValue(), config.randomSeed.getValue(),
+						job.getAlgorithmIteration());
+				cachedResult = resultCache.load(cacheKey, job.getRandomizedModelCNF().getVariables());
+				if (cachedResult != null && cachedResult.getSamplingTime() > config.timeout.getValue()) {
+					// The cached run would exceed the current timeout
+					cachedResult = null;
+				}
+				if (cachedResult != null && !config.resultCacheRemeasure.getValue()) {
+					Logger.getInstance().logInfo("\tUsing cached result", 2, false);
+					result = cachedResult;
+					return;
+				}
+			}
+			final int[] cores = coreSets.take();
+			try {
+				job.setCores(cores);
+				final SamplingProcessRunner processRunner;
+				if (inProcessEngine != null) {
+					processRunner = new InProcessSamplingRunner(inProcessEngine);
+				} else if (workerPool != null) {
+					processRunner = new SamplingWorkerPoolRunner(workerPool);
+				} else {
+					processRunner = new SamplingProcessRunner();
+				}
+				processRunner.setTimeout(config.timeout.getValue());
+				processRunner.setCpuAffinity(cores);
+				processRunner.setResourceMonitorInterval(config.resourceMonitorInterval.getValue());
+				if (config.streamingCoverage.getValue()) {
+					processRunner.setStreamingReader(createStreamingReader(job));
+				}
+				result = processRunner.run(job.getAlgorithm());
+				sampler.module_Writer.writeWarmUp(job, processRunner.getWarmUpMeasurements());
+			} finally {
+				coreSets.put(cores);
+			}
+			if (resultCache != null) {
+				if (cachedResult != null && result.getResult() != null) {
+					// Only the measurements are renewed, the sample stays comparable
+					result.setComputedSample(cachedResult.getResult());
+				}
+				resultCache.store(cacheKey, result);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			Logger.getInstance().logError(e);
+		} catch (Exception e) {
+			Logger.getInstance().logError(e);
+		} finally {
+			enqueueEvaluation(job, result);
+		}
+	}
+
+	/**
+	 * Creates a reader that evaluates the configurations a sampling process emits
+	 * while it is running.
+	 *
+	 * @param job The job to execute.
+	 * @return The reader or <code>null</code> if the model has too many
+	 *         interactions for an incremental evaluation or the coverage is
+	 *         estimated.
+	 */
+	private StreamingSampleReader createStreamingReader(SamplingJob job) {
+		if (sampler.module_Writer.isCoverageEstimated()) {
+			// The exact coverage of the streamed configurations is not feasible
+			return null;
+		}
+		final CNF cnf = job.getRandomizedModelCNF();
+		final int t = config.tCoverage.getValue();
+		try {
+			return new StreamingSampleReader(job.getAlgorithm(), cnf.getVariables(),
+					new IncrementalTWiseCoverage(cnf, t, sampler.module_Writer.getValidInteractions(job)),
+					config.streamingTargetCoverage.getValue());
+		} catch (IllegalArgumentException e) {
+			Logger.getInstance().logInfo("\tStreaming coverage disabled: " + e.getMessage(), 2, false);
+			return null;
+		}
+	}
+
+	/**
+	 * Puts the results of a sampling process into the evaluation queue. Blocks
+	 * while the queue is full.
+	 *
+	 * @param job    The finished job.
+	 * @param result The results of the sampling process or <code>null</code> if
+	 *               the process failed.
+	 */
+	private void enqueueEvaluation(SamplingJob job, SamplingResults result) {
+		final FutureTask<Void> evaluation = new FutureTask<>(() -> evaluate(job, result), null);
+		pendingEvaluations.add(evaluation);
+		try {
+			if (!evaluationQueue.offer(evaluation)) {
+				Logger.getInstance().logInfo("Evaluation queue is full, waiting...", 2, false);
+				evaluationQueue.put(evaluation);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			evaluation.cancel(false);
+			Logger.getInstance().logError(e);
+			// The rows of subsequent jobs must not wait for the dropped evaluation
+			commitRow(job, null);
+			if (!config.debug.getValue()) {
+				deleteWorkingDirectory(job.getWorkingDirectory());
+			}
+		}
+	}
+
+	/**
+	 * @return The sequence number for the next job.
+	 */
+	public int getNextSequenceNumber() {
+		return nextSequenceNumber++;
+	}
+
+	/**
+	 * Determines the number of concurrent jobs and the core sets for the sampling
+	 * processes.
+	 */
+	public void init() {
+		final int availableCores = Runtime.getRuntime().availableProcessors();
+		final int coresPerJob = config.coresPerJob.getValue();
+		int parallelJobs = Math.max(1, config.parallelJobs.getValue());
+		if (coresPerJob > 0) {
+			parallelJobs = Math.max(1, Math.min(parallelJobs, availableCores / coresPerJob));
+		}
+		if (config.inProcess.getValue() && parallelJobs > 1) {
+			// Concurrent runs would share static state and the garbage collection statistics
+			Logger.getInstance().logInfo("[Warning] parallelJobs = " + parallelJobs
+					+ " is ignored, in-process sampling executes one job at a time", 1, false);
+			parallelJobs = 1;
+		}
+
+		coreSets = new ArrayBlockingQueue<>(parallelJobs);
+		for (int i = 0; i < parallelJobs; i++) {
+			int[] cores = new int[Math.min(coresPerJob, availableCores)];
+			for (int j = 0; j < cores.length; j++) {
+				cores[j] = ((i * coresPerJob) + j) % availableCores;
+			}
+			coreSets.add(cores);
+		}
+		executor = Executors.newFixedThreadPool(parallelJobs);
+		if (config.inProcess.getValue()) {
+			inProcessEngine = new InProcessSamplingEngine(config.warmUpIterations.getValue());
+			Logger.getInstance().logInfo("In-process sampling with " + inProcessEngine.getWarmUpIterations()
+					+ " warm-up iterations", 1, false);
+		} else if (config.workerPool.getValue()) {
+			workerPool = new SamplingWorkerPool(config.workerMaxJobs.getValue(),
+					config.workerMaxHeapGrowth.getValue(), config.warmUpIterations.getValue());
+			Logger.getInstance().logInfo("Worker pool with " + workerPool.getWarmUpIterations()
+					+ " warm-up iterations per worker", 1, false);
+		}
+
+		if (config.resultCache.getValue() && config.streamingTargetCoverage.getValue() > 0) {
+			// Stopped runs depend on the target coverage, which is not part of the key
+			Logger.getInstance().logInfo("Result cache disabled by streamingTargetCoverage", 1, false);
+		} else if (config.resultCache.getValue()) {
+			resultCache = new SamplingResultCache(config.outputPath.resolve(RESULT_CACHE_NAME));
+			Logger.getInstance().logInfo("Result cache: " + config.outputPath.resolve(RESULT_CACHE_NAME)
+					+ (config.resultCacheRemeasure.getValue() ? " (remeasure)" : ""), 1, false);
+		}
+
+		final int numberOfEvaluationWorkers = Math.max(1, config.evaluationWorkers.getValue());
+		evaluationQueue = new ArrayBlockingQueue<>(Math.max(1, config.evaluationQueueSize.getValue()));
+		for (int i = 0; i < numberOfEvaluationWorkers; i++) {
+			final Thread worker = new Thread(this::runEvaluationWorker, "Evaluator-" + i);
+			worker.setDaemon(true);
+			worker.start();
+			evaluationWorkers.add(worker);
+		}
+		Logger.getInstance().logInfo("Parallel jobs: " + parallelJobs, 1, false);
+		Logger.getInstance().logInfo("Evaluation workers: " + numberOfEvaluationWorkers, 1, false);
+	}
+
+	/**
+	 * Takes results from the evaluation queue and evaluates them until the worker
+	 * is interrupted.
+	 */
+	private void runEvaluationWorker() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				evaluationQueue.take().run();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Releases a sequence number for which no job could be created, such that the
+	 * rows of the subsequent jobs are still written.
+	 *
+	 * @param sequenceNumber The sequence number.
+	 */
+	public void skip(int sequenceNumber) {
+		commitRow(sequenceNumber, null, null);
+	}
+
+	/**
+	 * Submits a job for execution.
+	 *
+	 * @param job The job to execute.
+	 */
+	public void submit(SamplingJob job) {
+		try {
+			pendingJobs.add(executor.submit(() -> execute(job)));
+		} catch (RuntimeException e) {
+			skip(job.getSequenceNumber());
+			throw e;
+		}
+	}
+}
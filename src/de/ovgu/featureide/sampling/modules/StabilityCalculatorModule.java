@@ -2,12 +2,23 @@ package de.ovgu.featureide.sampling.modules;
 
 import de.ovgu.featureide.sampling.TWiseSamplingFramework;
 import de.ovgu.featureide.sampling.config.SamplingConfig;
+import de.ovgu.featureide.sampling.eval.samplestability.CoreDeadCache;
 import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+import de.ovgu.featureide.sampling.process.SamplingJob;
 import de.ovgu.featureide.sampling.util.PrefixChecker;
 
 public class StabilityCalculatorModule {
 
 	private final SamplingConfig config;
+	/**
+	 * Caches the core and dead features of all models for the whole run, such that
+	 * each model is analyzed only once.
+	 */
+	private final CoreDeadCache coreDeadCache = new CoreDeadCache();
+	/**
+	 * Saves the algorithm iteration of each cached sample of the current system.
+	 */
+	private int[][] currentSystemSampleIterations = null;
 	/**
 	 * Saves samples for the current system. It contains all samples from one model
 	 * and for all system iteration. Each system iteration represents one list
@@ -40,6 +51,45 @@ public class StabilityCalculatorModule {
 		}
 	}
 
+	/**
+	 * Caches the sample of a finished job. When multiple algorithm iterations
+	 * finish concurrently, the sample of the latest algorithm iteration is kept.
+	 * Note: Sample is only cached when stability calculation is activated.
+	 * 
+	 * @param job    The finished job.
+	 * @param sample The sample to cache.
+	 */
+	public void cacheCurrentSample(SamplingJob job, Sample sample) {
+		cacheCurrentSample(job.getSystemIteration(), job.getAlgorithmIndex(), job.getAlgorithmIteration(), sample);
+	}
+
+	/**
+	 * Caches the sample of a finished or restored cell. When multiple algorithm
+	 * iterations are cached, the sample of the latest algorithm iteration is kept.
+	 * Note: Sample is only cached when stability calculation is activated.
+	 * 
+	 * @param systemIteration    The system iteration of the cell (starting at 1).
+	 * @param algorithmIndex     The index of the algorithm.
+	 * @param algorithmIteration The algorithm iteration of the cell.
+	 * @param sample             The sample to cache.
+	 */
+	public synchronized void cacheCurrentSample(int systemIteration, int algorithmIndex, int algorithmIteration,
+			Sample sample) {
+		if (config.calculateStability.getValue().toLowerCase().equals("true")) {
+			if (currentSystemSampleIterations[systemIteration - 1][algorithmIndex] <= algorithmIteration) {
+				currentSystemSampleIterations[systemIteration - 1][algorithmIndex] = algorithmIteration;
+				curentSystemSamples[systemIteration - 1][algorithmIndex] = sample;
+			}
+		}
+	}
+
+	/**
+	 * @return The cache for the core and dead features of the evaluated models.
+	 */
+	public CoreDeadCache getCoreDeadCache() {
+		return coreDeadCache;
+	}
+
 	/**
 	 * Retrieves a cached sample of the current iteration at the cell for the given
 	 * information. Note: Sample can only be retrieved when stability calculation is
@@ -104,6 +154,7 @@ public class StabilityCalculatorModule {
 				previousSystemSamples = curentSystemSamples;
 				curentSystemSamples = new Sample[config.systemIterations.getValue()][numberOfAlgorithms];
 			}
+			currentSystemSampleIterations = new int[config.systemIterations.getValue()][numberOfAlgorithms];
 		}
 	}
 }
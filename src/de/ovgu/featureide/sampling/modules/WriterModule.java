@@ -2,31 +2,47 @@ package de.ovgu.featureide.sampling.modules;
 
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.NumberFormat;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
 import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
 import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
-import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationGenerator;
-import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.TWiseConfigurationTester;
 import de.ovgu.featureide.fm.core.analysis.cnf.generator.configuration.twise.test.CoverageStatistic;
 import de.ovgu.featureide.fm.core.io.manager.FeatureModelManager;
 import de.ovgu.featureide.fm.core.io.manager.IFeatureModelManager;
 import de.ovgu.featureide.sampling.TWiseSamplingFramework;
 import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
 import de.ovgu.featureide.sampling.config.SamplingConfig;
+import de.ovgu.featureide.sampling.eval.coverage.CoverageCurve;
+import de.ovgu.featureide.sampling.eval.coverage.CoverageEstimator;
+import de.ovgu.featureide.sampling.eval.coverage.CoverageEstimator.CoverageEstimate;
+import de.ovgu.featureide.sampling.eval.coverage.OutOfCoreTWiseCoverage;
+import de.ovgu.featureide.sampling.eval.coverage.ParallelTWiseTester;
+import de.ovgu.featureide.sampling.eval.coverage.ValidInteractionIndex;
 import de.ovgu.featureide.sampling.eval.samplestability.Sample;
 import de.ovgu.featureide.sampling.eval.samplestability.SamplingStabilityEvaluator;
 import de.ovgu.featureide.sampling.eval.samplestability.SamplingStabilityEvaluator.SampleSimilarityResult;
+import de.ovgu.featureide.sampling.eval.samplestability.metrics.PairingStrategy;
 import de.ovgu.featureide.sampling.logger.Logger;
+import de.ovgu.featureide.sampling.process.InProcessMeasurement;
+import de.ovgu.featureide.sampling.process.SamplingJob;
 import de.ovgu.featureide.sampling.process.SamplingResults;
+import de.ovgu.featureide.sampling.process.StreamingSampleReader;
+import de.ovgu.featureide.sampling.util.BinarySampleStore;
 import de.ovgu.featureide.sampling.util.CSVWriter;
+import de.ovgu.featureide.sampling.util.columnar.ColumnType;
+import de.ovgu.featureide.sampling.util.columnar.ColumnarWriter;
 
 /**
  * This module is responsible to create, write, and export csv files with
@@ -36,63 +52,377 @@ import de.ovgu.featureide.sampling.util.CSVWriter;
  */
 public class WriterModule {
 
+	/** Names of the columns of the data file. */
+	public static final List<String> DATA_HEADER = Collections.unmodifiableList(Arrays.asList("Author",
+			"AlgorithmID", "ModelID", "ModelName", "Model_Features", "Model_Constraints", "SystemIteration",
+			"AlgorithmIteration", "Timeout", "InTime", "NoError", "Time", "Size", "T-Value", "Validity",
+			"Valid Conditions", "Coverage", "ROIC", "MSOC", "FIMD", "ICST", "Runtime", "Throughput",
+			"TotalCreatedBytes", "TotalPauseTime", "AveragePauseTime", "PeakHeap", "PeakRSS", "UserCPUTime",
+			"SystemCPUTime", "PeakThreads", "StreamedConfigurations", "TimeToCoverage50", "TimeToCoverage90",
+			"TimeToCoverage99", "ConfigurationsToCoverage50", "ConfigurationsToCoverage90",
+			"ConfigurationsToCoverage95", "ConfigurationsToCoverage99", "CoverageLowerBound",
+			"CoverageUpperBound", "CoverageProbes"));
+	/** Types of the columns of the data file in the columnar result store. */
+	public static final List<ColumnType> DATA_TYPES = Collections.unmodifiableList(Arrays.asList(
+			ColumnType.STRING, ColumnType.STRING, ColumnType.INT, ColumnType.STRING, ColumnType.INT,
+			ColumnType.INT, ColumnType.INT, ColumnType.INT, ColumnType.LONG, ColumnType.BOOLEAN,
+			ColumnType.BOOLEAN, ColumnType.LONG, ColumnType.INT, ColumnType.INT, ColumnType.DOUBLE,
+			ColumnType.LONG, ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.DOUBLE,
+			ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.DOUBLE, ColumnType.DOUBLE,
+			ColumnType.DOUBLE, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG,
+			ColumnType.LONG, ColumnType.INT, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.INT,
+			ColumnType.INT, ColumnType.INT, ColumnType.INT, ColumnType.DOUBLE, ColumnType.DOUBLE,
+			ColumnType.LONG));
+	/** Name of the directory of the columnar result store. */
+	public static final String DATA_STORE_NAME = "data.columns";
+
+	/**
+	 * Creates a tester for the validity and the t-wise coverage of a sample.
+	 * 
+	 * @param cnf    The model the sample was computed for.
+	 * @param t      The degree of interactions to cover.
+	 * @param sample The configurations of the sample.
+	 * @param pool   The pool that executes the computation.
+	 * @return The tester.
+	 */
+	public static ParallelTWiseTester createTester(CNF cnf, int t, List<LiteralSet> sample, ForkJoinPool pool) {
+		ParallelTWiseTester tester = new ParallelTWiseTester(cnf, pool);
+		tester.setT(t);
+		tester.setSample(sample);
+		return tester;
+	}
+
 	private final SamplingConfig config;
+	/**
+	 * The csv writer for the coverage curves of the samples, or <code>null</code>
+	 * if the curves are not stored.
+	 */
+	private CSVWriter coverageCurveCSVWriter;
+	/** Optional columnar result store that receives the same rows as the data file. */
+	private ColumnarWriter dataColumnarWriter;
 	/**
 	 * The csv writer that can be used to store the data results for our evaluation
 	 */
 	private CSVWriter dataCSVWriter;
+	/** Computes the validity and coverage of samples. */
+	private ForkJoinPool evaluationPool;
+	/**
+	 * Serializes out-of-core coverage computations, which share the bitmap of the
+	 * valid interactions of a system.
+	 */
+	private final Object outOfCoreLock = new Object();
 	private final TWiseSamplingFramework sampler;
+	/** Number of valid interactions by system name. */
+	private final Map<String, Long> validInteractions = new HashMap<>();
+	/**
+	 * Valid interaction index of the current system by system name, or
+	 * <code>null</code> if the system has no index.
+	 */
+	private final Map<String, ValidInteractionIndex> validInteractionIndices = new HashMap<>();
+	/** Binary sample stores of the sample directories of the systems. */
+	private final Map<Path, BinarySampleStore> sampleStores = new HashMap<>();
+	/**
+	 * The csv writer for the measurements of warm-up runs, or <code>null</code> if
+	 * algorithms are executed in a new JVM for each run.
+	 */
+	private CSVWriter warmUpCSVWriter;
 
 	public WriterModule(TWiseSamplingFramework sampler) {
 		this.sampler = sampler;
 		this.config = sampler.getConfig();
 	}
 
+	/**
+	 * Writes all buffered rows to the data file and forces them to be stored on
+	 * the storage device.
+	 */
+	public void checkpoint() {
+		try {
+			dataCSVWriter.sync();
+			if (coverageCurveCSVWriter != null) {
+				coverageCurveCSVWriter.sync();
+			}
+			if (dataColumnarWriter != null) {
+				dataColumnarWriter.sync();
+			}
+		} catch (IOException e) {
+			Logger.getInstance().logError(e);
+		}
+	}
+
+	public void dispose() {
+		if (evaluationPool != null) {
+			evaluationPool.shutdownNow();
+		}
+		if (dataCSVWriter != null) {
+			try {
+				dataCSVWriter.close();
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+		if (coverageCurveCSVWriter != null) {
+			try {
+				coverageCurveCSVWriter.close();
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+		if (dataColumnarWriter != null) {
+			try {
+				dataColumnarWriter.close();
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+			dataColumnarWriter = null;
+		}
+	}
+
+	/**
+	 * @return The size of the coverage curve file in bytes or <code>-1</code> if
+	 *         the curves are not stored.
+	 * @throws IOException If the buffered rows cannot be written.
+	 */
+	public long getCoverageCurveFileSize() throws IOException {
+		return coverageCurveCSVWriter != null ? coverageCurveCSVWriter.size() : -1;
+	}
+
 	public CSVWriter getDataCSVWriter() {
 		return dataCSVWriter;
 	}
 
-	public void init() {
+	/**
+	 * @return The size of the data file in bytes after all buffered rows are
+	 *         written.
+	 * @throws IOException If the buffered rows cannot be written.
+	 */
+	public long getDataFileSize() throws IOException {
+		return dataCSVWriter.size();
+	}
+
+	/**
+	 * @return The pool that computes the validity and coverage of samples.
+	 */
+	public ForkJoinPool getEvaluationPool() {
+		return evaluationPool;
+	}
+
+	/**
+	 * Returns the number of valid interactions of the model of a job. The number
+	 * does not depend on the randomization of the model, and thus, is computed
+	 * only once per system.
+	 * 
+	 * @param job The job.
+	 * @return The number of valid interactions.
+	 */
+	public long getValidInteractions(SamplingJob job) {
+		final ValidInteractionIndex index = getValidInteractionIndex(job);
+		if (index != null) {
+			return index.getValidInteractions();
+		}
+		final String systemName = config.systemNames.get(job.getSystemIndex());
+		synchronized (validInteractions) {
+			Long count = validInteractions.get(systemName);
+			if (count == null) {
+				if (config.outOfCoreCoverage.getValue()) {
+					count = getOutOfCoreCoverage(job, Collections.emptyList()).getNumberOfValidConditions();
+				} else {
+					final ParallelTWiseTester tester = createTester(job.getRandomizedModelCNF(),
+							config.tCoverage.getValue(), Collections.emptyList(), evaluationPool);
+					count = tester.getCoverage().getNumberOfValidConditions();
+				}
+				validInteractions.put(systemName, count);
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * Returns the valid interaction index of the model of a job, if enabled by
+	 * {@link SamplingConfig#validInteractionIndex}. The index is loaded from the
+	 * sample directory of the system, or computed for the original model and
+	 * stored there, and is kept in memory until the next system is evaluated.
+	 * 
+	 * @param job The job.
+	 * @return The index or <code>null</code>.
+	 */
+	public ValidInteractionIndex getValidInteractionIndex(SamplingJob job) {
+		if (!config.validInteractionIndex.getValue() || isCoverageEstimated()
+				|| config.outOfCoreCoverage.getValue()) {
+			return null;
+		}
+		final String systemName = config.systemNames.get(job.getSystemIndex());
+		synchronized (validInteractionIndices) {
+			if (validInteractionIndices.containsKey(systemName)) {
+				return validInteractionIndices.get(systemName);
+			}
+			validInteractionIndices.clear();
+			final int t = config.tCoverage.getValue();
+			final Path indexFile = job.getSampleDir()
+					.resolve("valid_interactions_t" + t + ValidInteractionIndex.FILE_EXTENSION);
+			ValidInteractionIndex index = null;
+			try {
+				index = ValidInteractionIndex.load(indexFile, job.getModelCNF(), t);
+				if (index == null) {
+					Logger.getInstance().logInfo("\tComputing valid interaction index...", 2, true);
+					index = ValidInteractionIndex.compute(job.getModelCNF(), t, evaluationPool);
+					index.store(indexFile);
+				}
+			} catch (IllegalArgumentException e) {
+				Logger.getInstance().logInfo("\tNo valid interaction index: " + e.getMessage(), 2, true);
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+			validInteractionIndices.put(systemName, index);
+			return index;
+		}
+	}
+
+	/**
+	 * Computes the exact coverage of a sample with an
+	 * {@link OutOfCoreTWiseCoverage}, whose bitmaps are stored in the sample
+	 * directory of the system. If the bitmaps cannot be accessed, the coverage is
+	 * computed in memory.
+	 * 
+	 * @param job    The job.
+	 * @param sample The configurations of the sample.
+	 * @return The statistic of all interactions.
+	 */
+	private CoverageStatistic getOutOfCoreCoverage(SamplingJob job, List<LiteralSet> sample) {
+		final CNF cnf = job.getRandomizedModelCNF();
+		final int t = config.tCoverage.getValue();
+		synchronized (outOfCoreLock) {
+			try {
+				final OutOfCoreTWiseCoverage coverage = new OutOfCoreTWiseCoverage(cnf, t, job.getSampleDir(),
+						evaluationPool);
+				coverage.setChunkSize(config.outOfCoreChunkSize.getValue());
+				return coverage.getCoverage(sample);
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+		return createTester(cnf, t, sample, evaluationPool).getCoverage();
+	}
+
+	/**
+	 * @return The number of rows in the columnar result store or <code>-1</code>
+	 *         if the store is disabled.
+	 */
+	public long getDataStoreRowCount() {
+		return dataColumnarWriter != null ? dataColumnarWriter.getRowCount() : -1;
+	}
+
+	public void init() throws IOException {
+		final int evaluationThreads = config.evaluationThreads.getValue();
+		evaluationPool = new ForkJoinPool(
+				evaluationThreads > 0 ? evaluationThreads : Runtime.getRuntime().availableProcessors());
+
 		dataCSVWriter = new CSVWriter();
 		dataCSVWriter.setAppend(true);
 		dataCSVWriter.setOutputPath(config.csvPath);
 		dataCSVWriter.setFileName("data.csv");
 		dataCSVWriter.setKeepLines(false);
-		dataCSVWriter.setHeader(Arrays.asList("Author", "AlgorithmID", "ModelID", "ModelName", "Model_Features",
-				"Model_Constraints", "SystemIteration", "AlgorithmIteration", "Timeout", "InTime", "NoError", "Time",
-				"Size", "T-Value", "Validity", "Valid Conditions", "Coverage", "ROIC", "MSOC", "FIMD", "ICST",
-				"Runtime", "Throughput", "TotalCreatedBytes", "TotalPauseTime", "AveragePauseTime"));
+		dataCSVWriter.setHeader(DATA_HEADER);
+		// Keep the data file open for the whole run instead of reopening it for each row
+		dataCSVWriter.open(config.csvFlushSize.getValue(), config.csvFlushInterval.getValue());
 		dataCSVWriter.flush();
+
+		if (config.inProcess.getValue() || config.workerPool.getValue()) {
+			warmUpCSVWriter = new CSVWriter();
+			warmUpCSVWriter.setAppend(true);
+			warmUpCSVWriter.setOutputPath(config.csvPath);
+			warmUpCSVWriter.setFileName("warmup.csv");
+			warmUpCSVWriter.setKeepLines(false);
+			warmUpCSVWriter.setHeader(Arrays.asList("AlgorithmID", "ModelID", "ModelName", "SystemIteration",
+					"WarmUpIteration", "InTime", "NoError", "Time", "CPUTime", "AllocatedBytes", "GCTime"));
+			warmUpCSVWriter.flush();
+		}
+
+		if (config.coverageCurve.getValue()) {
+			coverageCurveCSVWriter = new CSVWriter();
+			coverageCurveCSVWriter.setAppend(true);
+			coverageCurveCSVWriter.setOutputPath(config.csvPath);
+			coverageCurveCSVWriter.setFileName("coverage_curve.csv");
+			coverageCurveCSVWriter.setKeepLines(false);
+			coverageCurveCSVWriter.setHeader(Arrays.asList("AlgorithmID", "ModelID", "ModelName",
+					"SystemIteration", "AlgorithmIteration", "ValidInteractions", "CoveredInteractions"));
+			coverageCurveCSVWriter.open(0, 0);
+			coverageCurveCSVWriter.flush();
+		}
+
+		if (config.storeColumnar.getValue()) {
+			dataColumnarWriter = new ColumnarWriter(config.csvPath.resolve(DATA_STORE_NAME), DATA_HEADER,
+					DATA_TYPES);
+		}
+	}
+
+	/**
+	 * Removes all rows that were written behind the given positions, e.g., rows of
+	 * an interrupted run that are restored from the {@link JournalModule journal}.
+	 * 
+	 * @param dataFileSize          The size of the data file in bytes to keep.
+	 * @param dataStoreRowCount     The number of rows of the columnar result store
+	 *                              to keep or <code>-1</code> to keep all rows.
+	 * @param coverageCurveFileSize The size of the coverage curve file in bytes to
+	 *                              keep or <code>-1</code> to keep all rows.
+	 * @throws IOException If the files cannot be truncated.
+	 */
+	public void truncateData(long dataFileSize, long dataStoreRowCount, long coverageCurveFileSize)
+			throws IOException {
+		dataCSVWriter.truncate(dataFileSize);
+		if (coverageCurveCSVWriter != null && coverageCurveFileSize >= 0) {
+			coverageCurveCSVWriter.truncate(coverageCurveFileSize);
+		}
+		if (dataColumnarWriter != null && dataStoreRowCount >= 0) {
+			dataColumnarWriter.truncate(dataStoreRowCount);
+		}
+	}
+
+	/**
+	 * Creates the data row for a finished job without writing it to the file.
+	 * Can be called concurrently for multiple jobs.
+	 * 
+	 * @param job    The finished job.
+	 * @param result The results of the job.
+	 * @return The values of the data row.
+	 */
+	public List<String> createDataRow(SamplingJob job, SamplingResults result) {
+		final CSVWriter rowWriter = new CSVWriter();
+		rowWriter.createNewLine();
+		writeData(rowWriter, job, result);
+		return rowWriter.getValues().get(0);
 	}
 
 	public final void writeCSV(Consumer<CSVWriter> writing) {
-		dataCSVWriter.createNewLine();
-		try {
-			writing.accept(dataCSVWriter);
-		} catch (Exception e) {
-			dataCSVWriter.resetLine();
-			throw e;
+		synchronized (dataCSVWriter) {
+			dataCSVWriter.createNewLine();
+			try {
+				writing.accept(dataCSVWriter);
+			} catch (Exception e) {
+				dataCSVWriter.resetLine();
+				throw e;
+			}
+			dataCSVWriter.flush();
 		}
-		dataCSVWriter.flush();
 	}
 
-	public void writeData(CSVWriter dataCSVWriter, SamplingResults result) {
+	public void writeData(CSVWriter dataCSVWriter, SamplingJob job, SamplingResults result) {
 		// 0. Author
 		dataCSVWriter.addValue(config.author.getValue());
 
 		// 1. First write algorithm info
-		final ASamplingAlgorithm algorithm = sampler.getAlgorithmList().get(sampler.getAlgorithmIndex());
+		final ASamplingAlgorithm algorithm = job.getAlgorithm();
 		dataCSVWriter.addValue(algorithm.getFullName());
 
 		// 2. Write model info
-		dataCSVWriter.addValue(sampler.getSystemIndex());
-		dataCSVWriter.addValue(config.systemNames.get(sampler.getSystemIndex()));
-		dataCSVWriter.addValue(sampler.getModelCNF().getVariables().size());
-		dataCSVWriter.addValue(sampler.getRandomizedModelCNF().getClauses().size());
+		dataCSVWriter.addValue(job.getSystemIndex());
+		dataCSVWriter.addValue(config.systemNames.get(job.getSystemIndex()));
+		dataCSVWriter.addValue(job.getModelCNF().getVariables().size());
+		dataCSVWriter.addValue(job.getRandomizedModelCNF().getClauses().size());
 
 		// 3. Iteration info
-		dataCSVWriter.addValue(sampler.getSystemIteration());
-		dataCSVWriter.addValue(sampler.getAlgorithmIteration());
+		dataCSVWriter.addValue(job.getSystemIteration());
+		dataCSVWriter.addValue(job.getAlgorithmIteration());
 
 		// 4. Time results
 		dataCSVWriter.addValue(config.timeout.getValue());
@@ -104,38 +434,114 @@ public class WriterModule {
 		if (configurationList != null) {
 
 			// Create sample from solution list
-			Sample sample = new Sample();
-			for (LiteralSet config : configurationList.getSolutions()) {
-				List<String> configList = new ArrayList<>(config.size());
-				for (int lit : config.getLiterals()) {
-					String name = sampler.getRandomizedModelCNF().getVariables().getName(lit);
-					if (lit < 0) {
-						configList.add("-" + name);
-					} else {
-						configList.add(name);
-					}
-				}
-				sample.add(configList);
-			}
+			Sample sample = Sample.fromSolutionList(configurationList, job.getRandomizedModelCNF().getVariables());
 			// Cache sample
-			sampler.module_StabilityCalculator.cacheCurrentSample(sampler.getSystemIteration() - 1,
-					sampler.getAlgorithmIndex(), sample);
+			sampler.module_StabilityCalculator.cacheCurrentSample(job, sample);
+			sampler.module_Journal.storeSample(job, sample);
 
 			// 5. Write sample metrics
-			writeSamplesInfo(dataCSVWriter, result);
+			final CoverageEstimate estimate = writeSamplesInfo(dataCSVWriter, job, result, sample);
 			// 6. Write memory metrics
 			writeMemory(dataCSVWriter, result);
+			// 7. Write streaming metrics
+			writeStreaming(dataCSVWriter, result);
+			// 8. Write coverage curve
+			writeCoverageCurve(dataCSVWriter, job, configurationList);
+			// 9. Write confidence interval of estimated coverage
+			writeCoverageEstimate(dataCSVWriter, estimate);
 			// Save sample
 			if (config.storeSamples.getValue()) {
-				writeSamples(config.systemNames.get(sampler.getSystemIndex()) + "_"
-						+ sampler.getAlgorithmList().get(sampler.getAlgorithmIndex()) + "_"
-						+ sampler.getSystemIteration() + "_" + sampler.getAlgorithmIteration(), sample);
+				writeSamples(job, config.systemNames.get(job.getSystemIndex()) + "_" + algorithm + "_"
+						+ job.getSystemIteration() + "_" + job.getAlgorithmIteration(), sample);
 			}
 		} else {
-			// Write default values
-			for (int i = 0; i < 8; i++) {
+			// Write default values for the sample metrics
+			for (int i = 0; i < 9; i++) {
 				dataCSVWriter.addValue(-1);
 			}
+			// Memory metrics are also measured for failed runs
+			writeMemory(dataCSVWriter, result);
+			writeStreaming(dataCSVWriter, result);
+			for (int i = 0; i < CoverageCurve.COVERAGE_LEVELS.length; i++) {
+				dataCSVWriter.addValue(-1);
+			}
+			writeCoverageEstimate(dataCSVWriter, null);
+		}
+	}
+
+	/**
+	 * Writes the confidence interval and the number of probes of an estimated
+	 * coverage, or <code>-1</code> if the coverage was computed exactly.
+	 * 
+	 * @param estimateCSVWriter The writer of the row.
+	 * @param estimate          The estimate or <code>null</code>.
+	 */
+	public void writeCoverageEstimate(CSVWriter estimateCSVWriter, CoverageEstimate estimate) {
+		if (estimate != null) {
+			estimateCSVWriter.addValue(estimate.getLowerBound());
+			estimateCSVWriter.addValue(estimate.getUpperBound());
+			estimateCSVWriter.addValue(estimate.getProbes());
+		} else {
+			for (int i = 0; i < 3; i++) {
+				estimateCSVWriter.addValue(-1);
+			}
+		}
+	}
+
+	/**
+	 * @return {@link Boolean#TRUE} if the coverage is estimated instead of
+	 *         computed exactly for the configured t (see
+	 *         {@link SamplingConfig#coverageEstimationT}).
+	 */
+	public boolean isCoverageEstimated() {
+		final int estimationT = config.coverageEstimationT.getValue();
+		return estimationT > 0 && config.tCoverage.getValue() >= estimationT;
+	}
+
+	/**
+	 * Computes the coverage curve of a sample and writes the number of
+	 * configurations needed for each level of {@link CoverageCurve#COVERAGE_LEVELS}.
+	 * If enabled, the row of the curve for <i>coverage_curve.csv</i>, containing
+	 * the cumulative number of covered interactions after each configuration, is
+	 * set to the job and written together with the data row (see
+	 * {@link #writeDataRow(List, List)}).
+	 * 
+	 * @param curveCSVWriter    The writer of the row.
+	 * @param job               The finished job.
+	 * @param configurationList The sample in emission order.
+	 */
+	public void writeCoverageCurve(CSVWriter curveCSVWriter, SamplingJob job, SolutionList configurationList) {
+		CoverageCurve curve = null;
+		if (coverageCurveCSVWriter != null && !configurationList.getSolutions().isEmpty()
+				&& !isCoverageEstimated()) {
+			Logger.getInstance().logInfo("\tCalculating coverage curve...", 2, true);
+			try {
+				curve = CoverageCurve.compute(job.getRandomizedModelCNF(), config.tCoverage.getValue(),
+						configurationList.getSolutions(), getValidInteractions(job));
+			} catch (IllegalArgumentException e) {
+				Logger.getInstance().logInfo("\tNo coverage curve: " + e.getMessage(), 2, true);
+			}
+		}
+		for (double level : CoverageCurve.COVERAGE_LEVELS) {
+			curveCSVWriter.addValue(curve != null ? curve.getConfigurationsToCoverage(level) : -1);
+		}
+		if (curve != null) {
+			final StringBuilder coveredInteractions = new StringBuilder();
+			for (long covered : curve.getCoveredInteractions()) {
+				coveredInteractions.append(covered).append(' ');
+			}
+			coveredInteractions.setLength(coveredInteractions.length() - 1);
+
+			final CSVWriter rowWriter = new CSVWriter();
+			rowWriter.createNewLine();
+			rowWriter.addValue(job.getAlgorithm().getFullName());
+			rowWriter.addValue(job.getSystemIndex());
+			rowWriter.addValue(config.systemNames.get(job.getSystemIndex()));
+			rowWriter.addValue(job.getSystemIteration());
+			rowWriter.addValue(job.getAlgorithmIteration());
+			rowWriter.addValue(curve.getValidInteractions());
+			rowWriter.addValue(coveredInteractions.toString());
+			job.setCoverageCurveRow(rowWriter.getValues().get(0));
 		}
 	}
 
@@ -150,61 +556,181 @@ public class WriterModule {
 		memoryCSVWriter.addValue(df.format(result.getMemoryResults().getStatisticCreatedBytesTotal()));
 		memoryCSVWriter.addValue(df.format(result.getMemoryResults().getStatisticPauseTimeTotal()));
 		memoryCSVWriter.addValue(df.format(result.getMemoryResults().getStatisticPauseTimeAvg()));
+		memoryCSVWriter.addValue(result.getMemoryResults().getStatisticPeakHeap());
+		memoryCSVWriter.addValue(result.getPeakRss());
+		memoryCSVWriter.addValue(result.getUserCpuTime());
+		memoryCSVWriter.addValue(result.getSystemCpuTime());
+		memoryCSVWriter.addValue(result.getPeakThreads());
+	}
+
+	/**
+	 * Writes the number of streamed configurations and the time after which they
+	 * reached each coverage level of {@link StreamingSampleReader#COVERAGE_LEVELS}.
+	 * 
+	 * @param streamingCSVWriter The writer of the row.
+	 * @param result             The results of the run.
+	 */
+	public void writeStreaming(CSVWriter streamingCSVWriter, SamplingResults result) {
+		streamingCSVWriter.addValue(result.getStreamedConfigurations());
+		final long[] timeToCoverage = result.getTimeToCoverage();
+		for (int i = 0; i < StreamingSampleReader.COVERAGE_LEVELS.length; i++) {
+			streamingCSVWriter.addValue(i < timeToCoverage.length ? timeToCoverage[i] : -1);
+		}
+	}
+
+	/**
+	 * Writes a row to the data file and, if enabled, to the columnar result store
+	 * and its coverage curve to the coverage curve file.
+	 * 
+	 * @param row              The values of the data row.
+	 * @param coverageCurveRow The values of the row of the coverage curve or
+	 *                         <code>null</code>.
+	 */
+	public void writeDataRow(List<String> row, List<String> coverageCurveRow) {
+		dataCSVWriter.writeLine(row);
+		if (coverageCurveCSVWriter != null && coverageCurveRow != null) {
+			coverageCurveCSVWriter.writeLine(coverageCurveRow);
+		}
+		if (dataColumnarWriter != null) {
+			try {
+				dataColumnarWriter.writeRow(row);
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+	}
+
+	/**
+	 * Writes the measurements of the warm-up runs that preceded the given job.
+	 * Times are given in milliseconds.
+	 * 
+	 * @param job          The job whose execution was preceded by the warm-up.
+	 * @param measurements The measurements of the warm-up runs.
+	 */
+	public void writeWarmUp(SamplingJob job, List<InProcessMeasurement> measurements) {
+		if (warmUpCSVWriter == null) {
+			return;
+		}
+		for (int i = 0; i < measurements.size(); i++) {
+			final InProcessMeasurement measurement = measurements.get(i);
+			final CSVWriter rowWriter = new CSVWriter();
+			rowWriter.createNewLine();
+			rowWriter.addValue(job.getAlgorithm().getFullName());
+			rowWriter.addValue(job.getSystemIndex());
+			rowWriter.addValue(config.systemNames.get(job.getSystemIndex()));
+			rowWriter.addValue(job.getSystemIteration());
+			rowWriter.addValue(i + 1);
+			rowWriter.addValue(measurement.isTerminatedInTime());
+			rowWriter.addValue(measurement.getError() == null);
+			rowWriter.addValue(measurement.getWallTime() < 0 ? -1 : measurement.getWallTime() / 1_000_000L);
+			rowWriter.addValue(measurement.getCpuTime() < 0 ? -1 : measurement.getCpuTime() / 1_000_000L);
+			rowWriter.addValue(measurement.getAllocatedBytes());
+			rowWriter.addValue(measurement.getGcTime());
+			warmUpCSVWriter.writeLine(rowWriter.getValues().get(0));
+		}
 	}
 
-	public void writeSamples(final String sampleMethod, final Sample sample) {
+	/**
+	 * Stores a sample in the sample directory of the job. Depending on
+	 * {@link SamplingConfig#sampleFormat}, the sample is written into the
+	 * {@link BinarySampleStore} of the directory or as text file with one sorted
+	 * configuration per line.
+	 * 
+	 * @param job          The finished job.
+	 * @param sampleMethod The name of the sample.
+	 * @param sample       The sample of the job.
+	 */
+	public void writeSamples(final SamplingJob job, final String sampleMethod, final Sample sample) {
 		try {
-			Files.write(sampler.getCurSampleDir().resolve(sampleMethod + ".sample"), sample.stream().map((x) -> {
-				Collections.sort(x);
-				return x;
-			}).map(TWiseSamplingFramework::toString).collect(Collectors.toList()));
+			if (config.sampleFormat.getValue().toLowerCase().equals("text")) {
+				Files.write(job.getSampleDir().resolve(sampleMethod + ".sample"),
+						IntStream.range(0, sample.size()).mapToObj((i) -> {
+							final List<String> names = sample.getNames(i);
+							Collections.sort(names);
+							return names;
+						}).map(TWiseSamplingFramework::toString).collect(Collectors.toList()));
+			} else {
+				getSampleStore(job.getSampleDir()).write(sampleMethod, sample);
+			}
 		} catch (IOException e) {
 			Logger.getInstance().logError(e);
 		}
 	}
 
+	/**
+	 * @param directory The directory of the store.
+	 * @return The binary sample store of the directory.
+	 * @throws IOException If the store cannot be opened.
+	 */
+	private synchronized BinarySampleStore getSampleStore(Path directory) throws IOException {
+		BinarySampleStore store = sampleStores.get(directory);
+		if (store == null) {
+			store = new BinarySampleStore(directory);
+			store.setCompress(config.sampleCompression.getValue());
+			sampleStores.put(directory, store);
+		}
+		return store;
+	}
+
 	/**
 	 * Writes information about the samples (Size, Validity, Coverage Completeness)
 	 * 
 	 * @param dataCSVWriter writer
+	 * @param job           The finished job.
+	 * @param result        The results of the job.
+	 * @param currentSample The sample of the job.
+	 * @return The estimate of the coverage or <code>null</code> if the coverage
+	 *         was computed exactly.
 	 */
-	public void writeSamplesInfo(CSVWriter dataCSVWriter, SamplingResults result) {
+	public CoverageEstimate writeSamplesInfo(CSVWriter dataCSVWriter, SamplingJob job, SamplingResults result,
+			Sample currentSample) {
+		CoverageEstimate estimate = null;
 		final SolutionList configurationList = result.getResult();
 		// Size
 		dataCSVWriter.addValue(configurationList.getSolutions().size());
 		dataCSVWriter.addValue(config.tCoverage.getValue());
 		if (configurationList.getSolutions().size() > 0) {
 			// Validity
-			List<LiteralSet> samples = configurationList.getSolutions();
-			TWiseConfigurationTester tester = new TWiseConfigurationTester(sampler.getRandomizedModelCNF());
-			tester.setNodes(TWiseConfigurationGenerator
-					.convertLiterals(sampler.getRandomizedModelCNF().getVariables().getLiterals()));
-			tester.setT(config.tCoverage.getValue());
-			tester.setSample(samples);
+			ParallelTWiseTester tester = createTester(job.getRandomizedModelCNF(), config.tCoverage.getValue(),
+					configurationList.getSolutions(), evaluationPool);
+			tester.setValidInteractionIndex(getValidInteractionIndex(job));
 
 			Logger.getInstance().logInfo("\tTesting configuration validity...", 2, true);
 			dataCSVWriter.addValue(tester.getValidity().getValidInvalidRatio());
 
 			// Possible interactions + Completeness
-			Logger.getInstance().logInfo("\tCalculating configuration coverage...", 2, true);
-			CoverageStatistic coverageStat = tester.getCoverage();
-			dataCSVWriter.addValue(coverageStat.getNumberOfValidConditions());
-			dataCSVWriter.addValue(coverageStat.getCoverage());
+			if (isCoverageEstimated()) {
+				Logger.getInstance().logInfo("\tEstimating configuration coverage...", 2, true);
+				// All algorithms of a system iteration are evaluated with the same interactions
+				final CoverageEstimator estimator = new CoverageEstimator(job.getRandomizedModelCNF(),
+						config.tCoverage.getValue(), config.randomSeed.getValue() + job.getSystemIteration());
+				estimator.setTargetError(config.coverageEstimationError.getValue());
+				estimator.setMaxProbes(config.coverageEstimationMaxProbes.getValue());
+				estimate = estimator.estimate(configurationList.getSolutions());
+				dataCSVWriter.addValue(Math.round(estimate.getEstimatedValidInteractions()));
+				dataCSVWriter.addValue(estimate.getCoverage());
+			} else {
+				Logger.getInstance().logInfo("\tCalculating configuration coverage...", 2, true);
+				CoverageStatistic coverageStat = config.outOfCoreCoverage.getValue()
+						? getOutOfCoreCoverage(job, configurationList.getSolutions())
+						: tester.getCoverage();
+				dataCSVWriter.addValue(coverageStat.getNumberOfValidConditions());
+				dataCSVWriter.addValue(coverageStat.getCoverage());
+			}
 
 			// Stability
 			if (config.calculateStability.getValue().toLowerCase().equals("true")) {
-				if (sampler.getSystemIndex() >= 1) {
-					Sample currentSample = sampler.module_StabilityCalculator
-							.getCurrentCachedSample(sampler.getSystemIteration() - 1, sampler.getAlgorithmIndex());
+				if (job.getSystemIndex() >= 1) {
 					Sample previousSample = sampler.module_StabilityCalculator
-							.getPreviousCachedSample(sampler.getSystemIteration() - 1, sampler.getAlgorithmIndex());
+							.getPreviousCachedSample(job.getSystemIteration() - 1, job.getAlgorithmIndex());
 					if (currentSample != null && previousSample != null) {
 						IFeatureModelManager currentFM = FeatureModelManager
-								.getInstance(sampler.getSystems()[sampler.getSystemIndex()]);
+								.getInstance(sampler.getSystems()[job.getSystemIndex()]);
 						IFeatureModelManager previousFM = FeatureModelManager
-								.getInstance(sampler.getSystems()[sampler.getSystemIndex() - 1]);
+								.getInstance(sampler.getSystems()[job.getSystemIndex() - 1]);
 						SamplingStabilityEvaluator core = new SamplingStabilityEvaluator(previousFM, previousSample,
-								currentFM, currentSample);
+								currentFM, currentSample, sampler.module_StabilityCalculator.getCoreDeadCache());
+						core.setPairingStrategy(PairingStrategy.fromName(config.pairingStrategy.getValue()));
 						SampleSimilarityResult similarityResult = core.execut();
 						NumberFormat nf = NumberFormat.getNumberInstance(Locale.US);
 						nf.setGroupingUsed(false); // remove the dots grouping each 3 digits for CSV format
@@ -232,9 +758,10 @@ public class WriterModule {
 				}
 			}
 		} else {
-			for (int i = 0; i < 8; i++) {
+			for (int i = 0; i < 7; i++) {
 				dataCSVWriter.addValue(-1);
 			}
 		}
+		return estimate;
 	}
 }
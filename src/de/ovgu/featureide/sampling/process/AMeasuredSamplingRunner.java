@@ -0,0 +1,118 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.logger.ErrStreamCollector;
+import de.ovgu.featureide.sampling.logger.ErrStreamReader;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
+import de.ovgu.featureide.sampling.logger.Logger;
+
+/**
+ * Base class for runners that execute Java-based sampling algorithms without
+ * starting a new JVM for each run. The runtime and memory statistics are taken
+ * from an {@link InProcessMeasurement} instead of a garbage collector log.
+ * Algorithms whose command does not start a Java main class or that cannot be
+ * executed by the runner (see {@link #canExecute(JavaCommand)}) are executed as
+ * separate process.
+ * 
+ * @author Joshua Sprey
+ */
+public abstract class AMeasuredSamplingRunner extends SamplingProcessRunner {
+
+	/** Measurements of the last execution. */
+	private InProcessMeasurement measurement;
+	/** Measurements of the warm-up runs that were executed for the last run. */
+	private List<InProcessMeasurement> warmUpMeasurements = Collections.emptyList();
+
+	@Override
+	protected boolean execute(ASamplingAlgorithm algorithm, SamplingResults result) throws Exception {
+		measurement = null;
+		warmUpMeasurements = Collections.emptyList();
+		final JavaCommand command = JavaCommand.parse(algorithm.getCommandElements());
+		if (command == null || !canExecute(command)) {
+			return super.execute(algorithm, result);
+		}
+
+		warmUpMeasurements = warmUp(algorithm, command);
+		// Do not parse the sample of a warm-up run if the measured run fails
+		Files.deleteIfExists(algorithm.getPathOfOutputFile());
+		if (!canExecute(command)) {
+			// A warm-up run exceeded the timeout
+			return super.execute(algorithm, result);
+		}
+
+		final ErrStreamCollector errStreamCollector = new ErrStreamCollector();
+		if (getStreamingReader() != null) {
+			// The sampling runs in this JVM and cannot be stopped early
+			getStreamingReader().start(null);
+		}
+		final long startTime = System.nanoTime();
+		measurement = executeCommand(command, getOutputReaders(algorithm),
+				Arrays.asList(new ErrStreamReader(), errStreamCollector));
+		final long elapsedTime = measurement.isTerminatedInTime() ? measurement.getWallTime()
+				: System.nanoTime() - startTime;
+		result.setTerminatedInTime(measurement.isTerminatedInTime());
+		result.setNoErrorOccured(measurement.getError() == null && errStreamCollector.getErrList().isEmpty());
+		result.setRuntime(elapsedTime / 1_000_000L);
+		return measurement.isTerminatedInTime();
+	}
+
+	/**
+	 * @param command The command of an algorithm.
+	 * @return {@link Boolean#TRUE} if the runner can execute the algorithm,
+	 *         otherwise it is executed as separate process.
+	 */
+	protected boolean canExecute(JavaCommand command) {
+		return true;
+	}
+
+	/**
+	 * Executes the main method of an algorithm.
+	 * 
+	 * @param command          The command of the algorithm.
+	 * @param outputReaderList Readers for the standard output of the algorithm.
+	 * @param errorReaderList  Readers for the error output of the algorithm.
+	 * @return The measurements of the execution.
+	 * @throws Exception If the algorithm could not be executed.
+	 */
+	protected abstract InProcessMeasurement executeCommand(JavaCommand command,
+			List<IOutputReader> outputReaderList, List<IOutputReader> errorReaderList) throws Exception;
+
+	@Override
+	public List<InProcessMeasurement> getWarmUpMeasurements() {
+		return warmUpMeasurements;
+	}
+
+	@Override
+	protected void setResult(ASamplingAlgorithm algorithm, SamplingResults result) throws IOException {
+		if (measurement == null) {
+			super.setResult(algorithm, result);
+		} else {
+			if (getStreamingReader() != null) {
+				getStreamingReader().setResult(result);
+			}
+			result.setComputedSample(algorithm.parseResults());
+			result.setMemoryResults(measurement.toMemoryResults());
+			Logger.getInstance().logInfo("CPU time: " + (measurement.getCpuTime() / 1_000_000L) + "ms, allocated: "
+					+ (measurement.getAllocatedBytes() / (1024L * 1024L)) + "MB", 2, true);
+		}
+	}
+
+	/**
+	 * Executes the unmeasured warm-up runs that precede the measured run, if
+	 * required.
+	 * 
+	 * @param algorithm The prepared algorithm.
+	 * @param command   The command of the algorithm.
+	 * @return The measurements of the warm-up runs.
+	 * @throws Exception If the warm-up failed.
+	 */
+	protected abstract List<InProcessMeasurement> warmUp(ASamplingAlgorithm algorithm, JavaCommand command)
+			throws Exception;
+
+}
@@ -0,0 +1,103 @@
+package de.ovgu.featureide.sampling.process;
+
+/**
+ * Data class storing the measurements of one execution of a sampling algorithm
+ * within a running JVM, i.e., in-process (see {@link InProcessSamplingEngine})
+ * or in a pooled worker JVM (see {@link SamplingWorkerPool}). Time and
+ * allocation are measured for the thread that executes the main method of the
+ * algorithm, the garbage collection statistics for the whole JVM.
+ * 
+ * @author Joshua Sprey
+ */
+public class InProcessMeasurement {
+
+	long allocatedBytes = -1;
+	long cpuTime = -1;
+	Throwable error = null;
+	long gcCount = 0;
+	long gcTime = 0;
+	long heapAfterRun = -1;
+	boolean terminatedInTime = false;
+	long wallTime = -1;
+
+	/**
+	 * @return The number of bytes allocated by the executing thread or
+	 *         <code>-1</code> if not supported by the JVM.
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return The CPU time of the executing thread in nanoseconds or
+	 *         <code>-1</code> if not supported by the JVM.
+	 */
+	public long getCpuTime() {
+		return cpuTime;
+	}
+
+	/**
+	 * @return The exception that was thrown by the main method or
+	 *         <code>null</code>.
+	 */
+	public Throwable getError() {
+		return error;
+	}
+
+	/**
+	 * @return The number of garbage collections during the execution.
+	 */
+	public long getGcCount() {
+		return gcCount;
+	}
+
+	/**
+	 * @return The accumulated time of garbage collections during the execution in
+	 *         milliseconds.
+	 */
+	public long getGcTime() {
+		return gcTime;
+	}
+
+	/**
+	 * @return The used heap in bytes after a garbage collection following the
+	 *         execution, or <code>-1</code> if not measured.
+	 */
+	public long getHeapAfterRun() {
+		return heapAfterRun;
+	}
+
+	/**
+	 * @return The elapsed time of the execution in nanoseconds.
+	 */
+	public long getWallTime() {
+		return wallTime;
+	}
+
+	/**
+	 * @return {@link Boolean#TRUE} if the main method returned before the
+	 *         timeout, otherwise {@link Boolean#FALSE}.
+	 */
+	public boolean isTerminatedInTime() {
+		return terminatedInTime;
+	}
+
+	/**
+	 * Converts the measurements into the memory statistics that are otherwise
+	 * extracted from the garbage collector log of a sampling process.
+	 * 
+	 * @return The memory statistics.
+	 */
+	public SamplingMemoryResults toMemoryResults() {
+		final SamplingMemoryResults memoryResults = new SamplingMemoryResults();
+		memoryResults.setStatisticCreatedBytesTotal(allocatedBytes < 0 ? -1 : allocatedBytes / (1024L * 1024L));
+		memoryResults.setStatisticPauseTimeTotal(gcTime);
+		memoryResults.setStatisticCpuTime(cpuTime < 0 ? -1 : cpuTime / 1_000_000L);
+		memoryResults.setStatisticPauseTimeAvg(gcCount > 0 ? (double) gcTime / gcCount : 0);
+		final double wallTimeMillis = wallTime / 1_000_000.0;
+		memoryResults.setStatisticThroughput(
+				wallTimeMillis > 0 ? Math.max(0, 100.0 * (1 - (gcTime / wallTimeMillis))) : -1);
+		return memoryResults;
+	}
+
+}
@@ -0,0 +1,283 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.IOException;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
+import de.ovgu.featureide.sampling.logger.Logger;
+import de.ovgu.featureide.sampling.logger.OutputReaderStream;
+import de.ovgu.featureide.sampling.logger.ThreadOutputRouter;
+
+/**
+ * Executes Java-based sampling algorithms within the JVM of the framework
+ * instead of starting a new JVM for each run. The main class of an algorithm is
+ * loaded by a class loader that is isolated from the framework's class path and
+ * that is reused for all runs with the same class path, such that loaded
+ * classes and compiled code persist between runs. The main method is invoked on
+ * a dedicated worker thread, whose output is captured and whose time and
+ * allocation are measured via the {@link ThreadMXBean}.
+ * 
+ * Before the first measured run of an algorithm, a configurable number of
+ * warm-up runs is executed, such that the measured runs reflect the steady-state
+ * performance of the algorithm. The measurements of the warm-up runs are
+ * reported separately.
+ * 
+ * Note that algorithms run in the same process share static state and the
+ * garbage collection statistics of the JVM, so only one job should be executed
+ * at a time. Calls of {@link System#exit(int)} by an algorithm are trapped (see
+ * {@link SystemExitTrap}). An exit with status 0 counts as a successful run and
+ * any other status as an error. Afterwards, the class loader of the algorithm
+ * is replaced, such that no static state of the terminated run remains. Runs
+ * that exceed the timeout are interrupted and then stopped. As they may still
+ * be running, their class path is not executed in-process anymore (see
+ * {@link #isUsable(JavaCommand)}).
+ * 
+ * @author Joshua Sprey
+ */
+public class InProcessSamplingEngine {
+
+	/** Time in milliseconds an interrupted run may take to stop. */
+	private static final long STOP_TIMEOUT = 1_000;
+
+	/** Class paths of runs that exceeded the timeout. */
+	private final Set<String> abandonedClassPaths = ConcurrentHashMap.newKeySet();
+	private final ConcurrentHashMap<String, URLClassLoader> classLoaders = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, FutureTask<List<InProcessMeasurement>>> warmUps = new ConcurrentHashMap<>();
+	private final int warmUpIterations;
+
+	/**
+	 * @param warmUpIterations Number of warm-up runs before the first measured run
+	 *                         of each algorithm.
+	 */
+	public InProcessSamplingEngine(int warmUpIterations) {
+		this.warmUpIterations = Math.max(0, warmUpIterations);
+		ThreadOutputRouter.install();
+		if (!SystemExitTrap.install()) {
+			Logger.getInstance().logInfo(
+					"Calls of System.exit cannot be trapped, start the framework with -Djava.security.manager=allow",
+					1, false);
+		}
+	}
+
+	/**
+	 * Closes all class loaders.
+	 */
+	public void dispose() {
+		for (URLClassLoader classLoader : classLoaders.values()) {
+			try {
+				classLoader.close();
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+		classLoaders.clear();
+	}
+
+	/**
+	 * Invokes the main method of the given command on a new worker thread and
+	 * waits until it returns or the timeout is exceeded.
+	 * 
+	 * @param command          The command of the algorithm.
+	 * @param outputReaderList Readers for the standard output of the algorithm.
+	 * @param errorReaderList  Readers for the error output of the algorithm.
+	 * @param timeout          Timeout in milliseconds.
+	 * @return The measurements of the execution.
+	 * @throws Exception If the main class cannot be loaded.
+	 */
+	public InProcessMeasurement execute(JavaCommand command, List<IOutputReader> outputReaderList,
+			List<IOutputReader> errorReaderList, long timeout) throws Exception {
+		final URLClassLoader classLoader = getClassLoader(command);
+		final Method main = Class.forName(command.getMainClass(), true, classLoader).getMethod("main",
+				String[].class);
+		final String[] arguments = command.getArguments().toArray(new String[0]);
+
+		final InProcessMeasurement measurement = new InProcessMeasurement();
+		final OutputReaderStream out = new OutputReaderStream(outputReaderList);
+		final OutputReaderStream err = new OutputReaderStream(errorReaderList);
+		final SystemExitTrap.Run run = SystemExitTrap.begin();
+		final Thread worker;
+		try {
+			// The worker thread and all threads started by the algorithm trap exits
+			worker = createWorker(command, main, arguments, measurement, out, err);
+		} finally {
+			SystemExitTrap.end();
+		}
+		worker.setDaemon(true);
+		worker.setContextClassLoader(classLoader);
+
+		final long startGcCount = JvmStatistics.getGcCount();
+		final long startGcTime = JvmStatistics.getGcTime();
+		worker.start();
+		worker.join(timeout);
+		measurement.gcCount = JvmStatistics.getGcCount() - startGcCount;
+		measurement.gcTime = JvmStatistics.getGcTime() - startGcTime;
+		if (worker.isAlive()) {
+			measurement.terminatedInTime = false;
+			abandon(command, worker);
+		} else {
+			measurement.terminatedInTime = true;
+		}
+		final SystemExitTrap.ExitException exit = run.getExit();
+		if (exit != null) {
+			measurement.error = exit.getStatus() == 0 ? null : exit;
+			// Threads and static state of the algorithm may remain in the class loader
+			classLoaders.remove(command.getClassPath(), classLoader);
+		}
+		out.close();
+		err.close();
+		if (measurement.error != null) {
+			err.write(String.valueOf(measurement.error).getBytes());
+			err.close();
+		}
+		return measurement;
+	}
+
+	/**
+	 * Stops executing the class path of a run that exceeded the timeout in-process
+	 * and tries to stop the run.
+	 */
+	@SuppressWarnings({ "deprecation", "removal" })
+	private void abandon(JavaCommand command, Thread worker) throws InterruptedException {
+		if (abandonedClassPaths.add(command.getClassPath())) {
+			Logger.getInstance().logInfo(command.getMainClass()
+					+ " exceeded the timeout and is executed as separate process from now on", 2, false);
+		}
+		classLoaders.remove(command.getClassPath());
+		worker.interrupt();
+		worker.join(STOP_TIMEOUT);
+		if (worker.isAlive()) {
+			try {
+				worker.stop();
+			} catch (UnsupportedOperationException e) {
+				// Java 20 and later
+				Logger.getInstance().logInfo("Could not stop " + worker.getName(), 2, false);
+			}
+		}
+	}
+
+	private Thread createWorker(JavaCommand command, Method main, String[] arguments,
+			InProcessMeasurement measurement, OutputReaderStream out, OutputReaderStream err) {
+		return new Thread(() -> {
+			ThreadOutputRouter.route(out, err);
+			final long threadId = Thread.currentThread().getId();
+			final long startAllocation = JvmStatistics.getAllocatedBytes(threadId);
+			final long startCpuTime = JvmStatistics.getCurrentThreadCpuTime();
+			final long startTime = System.nanoTime();
+			try {
+				main.invoke(null, (Object) arguments);
+			} catch (InvocationTargetException e) {
+				measurement.error = e.getCause();
+			} catch (Throwable e) {
+				measurement.error = e;
+			} finally {
+				measurement.wallTime = System.nanoTime() - startTime;
+				final long endCpuTime = JvmStatistics.getCurrentThreadCpuTime();
+				final long endAllocation = JvmStatistics.getAllocatedBytes(threadId);
+				measurement.cpuTime = (startCpuTime < 0 || endCpuTime < 0) ? -1 : endCpuTime - startCpuTime;
+				measurement.allocatedBytes = (startAllocation < 0 || endAllocation < 0) ? -1
+						: endAllocation - startAllocation;
+				ThreadOutputRouter.unroute();
+			}
+		}, "InProcessSampler-" + command.getMainClass());
+	}
+
+	private URLClassLoader getClassLoader(JavaCommand command) throws IOException {
+		URLClassLoader classLoader = classLoaders.get(command.getClassPath());
+		if (classLoader == null) {
+			// The parent is the extension/platform class loader, such that the classes
+			// of the framework are not visible to the algorithm
+			final URLClassLoader newClassLoader = new URLClassLoader(command.getClassPathURLs(),
+					ClassLoader.getSystemClassLoader().getParent());
+			classLoader = classLoaders.putIfAbsent(command.getClassPath(), newClassLoader);
+			if (classLoader == null) {
+				classLoader = newClassLoader;
+			} else {
+				newClassLoader.close();
+			}
+		}
+		return classLoader;
+	}
+
+	/**
+	 * @param command The command of an algorithm.
+	 * @return {@link Boolean#FALSE} if a run with the same class path exceeded the
+	 *         timeout, such that the algorithm must be executed as separate
+	 *         process.
+	 */
+	public boolean isUsable(JavaCommand command) {
+		return !abandonedClassPaths.contains(command.getClassPath());
+	}
+
+	/**
+	 * @return The number of warm-up runs before the first measured run of each
+	 *         algorithm.
+	 */
+	public int getWarmUpIterations() {
+		return warmUpIterations;
+	}
+
+	/**
+	 * Executes the warm-up runs for the given algorithm, if this was not done
+	 * before. Concurrent callers for the same algorithm wait until the warm-up is
+	 * finished. The output file of the algorithm is removed after each warm-up
+	 * run.
+	 * 
+	 * @param algorithm The algorithm, already prepared via
+	 *                  {@link ASamplingAlgorithm#preProcess()}.
+	 * @param command   The command of the algorithm.
+	 * @param timeout   Timeout in milliseconds for each run.
+	 * @return The measurements of the warm-up runs, or an empty list if the
+	 *         algorithm was already warmed up by a previous call.
+	 * @throws Exception If the warm-up failed.
+	 */
+	public List<InProcessMeasurement> warmUp(ASamplingAlgorithm algorithm, JavaCommand command, long timeout)
+			throws Exception {
+		if (warmUpIterations == 0) {
+			return Collections.emptyList();
+		}
+		final FutureTask<List<InProcessMeasurement>> warmUp = new FutureTask<>(() -> {
+			final List<InProcessMeasurement> measurements = new ArrayList<>(warmUpIterations);
+			final List<IOutputReader> noReaders = Collections.emptyList();
+			for (int i = 0; i < warmUpIterations; i++) {
+				final InProcessMeasurement measurement = execute(command, noReaders, noReaders, timeout);
+				Files.deleteIfExists(algorithm.getPathOfOutputFile());
+				measurements.add(measurement);
+				Logger.getInstance().logInfo("Warm-up " + (i + 1) + "/" + warmUpIterations + ": "
+						+ (measurement.getWallTime() / 1_000_000L) + "ms", 2, true);
+				if (!measurement.isTerminatedInTime()) {
+					break;
+				}
+			}
+			return measurements;
+		});
+		final FutureTask<List<InProcessMeasurement>> existingWarmUp = warmUps.putIfAbsent(algorithm.getFullName(),
+				warmUp);
+		if (existingWarmUp != null) {
+			try {
+				existingWarmUp.get();
+			} catch (ExecutionException e) {
+				// Reported by the caller that executed the warm-up
+			}
+			return Collections.emptyList();
+		}
+		warmUp.run();
+		try {
+			return warmUp.get();
+		} catch (ExecutionException e) {
+			throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+		}
+	}
+
+}
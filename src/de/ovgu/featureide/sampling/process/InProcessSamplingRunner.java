@@ -0,0 +1,42 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.util.List;
+
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
+
+/**
+ * Executes Java-based sampling algorithms within the JVM of the framework by
+ * using an {@link InProcessSamplingEngine}. The cores given by
+ * {@link #setCpuAffinity(int[])} are only applied to algorithms that are
+ * executed as separate process. Algorithms that exceeded the timeout in-process
+ * are executed as separate process as well.
+ * 
+ * @author Joshua Sprey
+ */
+public class InProcessSamplingRunner extends AMeasuredSamplingRunner {
+
+	private final InProcessSamplingEngine engine;
+
+	public InProcessSamplingRunner(InProcessSamplingEngine engine) {
+		this.engine = engine;
+	}
+
+	@Override
+	protected boolean canExecute(JavaCommand command) {
+		return engine.isUsable(command);
+	}
+
+	@Override
+	protected InProcessMeasurement executeCommand(JavaCommand command, List<IOutputReader> outputReaderList,
+			List<IOutputReader> errorReaderList) throws Exception {
+		return engine.execute(command, outputReaderList, errorReaderList, getTimeout());
+	}
+
+	@Override
+	protected List<InProcessMeasurement> warmUp(ASamplingAlgorithm algorithm, JavaCommand command)
+			throws Exception {
+		return engine.warmUp(algorithm, command, getTimeout());
+	}
+
+}
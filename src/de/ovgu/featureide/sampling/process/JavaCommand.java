@@ -0,0 +1,149 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Decomposes the command of a Java-based sampling algorithm (<i>java (JVM
+ * options) -cp (class path) (main class) (arguments)</i>) into its class path,
+ * main class, JVM options, and program arguments, such that the algorithm can
+ * be invoked without starting a new JVM for each run.
+ * 
+ * @author Joshua Sprey
+ */
+public class JavaCommand {
+
+	/**
+	 * Parses the given command.
+	 * 
+	 * @param command The command elements of an algorithm.
+	 * @return The parsed command or <code>null</code> if the command does not
+	 *         start a Java main class (e.g., a native program or <i>java
+	 *         -jar</i>).
+	 */
+	public static JavaCommand parse(List<String> command) {
+		if (command.isEmpty() || !isJavaExecutable(command.get(0))) {
+			return null;
+		}
+		String classPath = ".";
+		final List<String> jvmOptions = new ArrayList<>();
+		for (int i = 1; i < command.size(); i++) {
+			final String element = command.get(i);
+			if (element.equals("-cp") || element.equals("-classpath") || element.equals("--class-path")) {
+				if (++i >= command.size()) {
+					return null;
+				}
+				classPath = command.get(i);
+			} else if (element.equals("-jar")) {
+				return null;
+			} else if (!element.startsWith("-")) {
+				return new JavaCommand(command.get(0), jvmOptions, classPath, element,
+						command.subList(i + 1, command.size()));
+			} else {
+				jvmOptions.add(element);
+			}
+		}
+		return null;
+	}
+
+	private static boolean isJavaExecutable(String executable) {
+		final String fileName = Paths.get(executable).getFileName().toString();
+		return fileName.equals("java") || fileName.equals("java.exe");
+	}
+
+	private final List<String> arguments;
+	private final String classPath;
+	private final String javaExecutable;
+	private final List<String> jvmOptions;
+	private final String mainClass;
+
+	public JavaCommand(String javaExecutable, List<String> jvmOptions, String classPath, String mainClass,
+			List<String> arguments) {
+		this.javaExecutable = javaExecutable;
+		this.jvmOptions = Collections.unmodifiableList(new ArrayList<>(jvmOptions));
+		this.classPath = classPath;
+		this.mainClass = mainClass;
+		this.arguments = Collections.unmodifiableList(new ArrayList<>(arguments));
+	}
+
+	/**
+	 * @return The program arguments.
+	 */
+	public List<String> getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * @return The class path as given in the command.
+	 */
+	public String getClassPath() {
+		return classPath;
+	}
+
+	/**
+	 * Resolves the class path into URLs. Entries of the form <i>dir/*</i> are
+	 * expanded to all jar files in the directory.
+	 * 
+	 * @return The URLs of all class path entries.
+	 * @throws IOException If a directory cannot be listed.
+	 */
+	public URL[] getClassPathURLs() throws IOException {
+		final List<URL> urls = new ArrayList<>();
+		for (String entry : classPath.split(File.pathSeparator)) {
+			if (entry.isEmpty()) {
+				continue;
+			}
+			if (entry.endsWith("*")) {
+				final Path directory = Paths.get(entry.substring(0, entry.length() - 1));
+				if (Files.isDirectory(directory)) {
+					final List<Path> jars = new ArrayList<>();
+					try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.{jar,JAR}")) {
+						stream.forEach(jars::add);
+					}
+					Collections.sort(jars);
+					for (Path jar : jars) {
+						urls.add(jar.toUri().toURL());
+					}
+				}
+			} else {
+				urls.add(Paths.get(entry).toUri().toURL());
+			}
+		}
+		return urls.toArray(new URL[0]);
+	}
+
+	/**
+	 * @return The command that starts the JVM.
+	 */
+	public String getJavaExecutable() {
+		return javaExecutable;
+	}
+
+	/**
+	 * @return The options for the JVM.
+	 */
+	public List<String> getJvmOptions() {
+		return jvmOptions;
+	}
+
+	/**
+	 * @return The fully qualified name of the main class.
+	 */
+	public String getMainClass() {
+		return mainClass;
+	}
+
+	@Override
+	public String toString() {
+		return mainClass + " " + String.join(" ", arguments);
+	}
+
+}
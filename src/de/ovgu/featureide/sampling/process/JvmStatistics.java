@@ -0,0 +1,79 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Provides the statistics of the current JVM that are used to measure sampling
+ * algorithms that are executed without a dedicated JVM.
+ * 
+ * @author Joshua Sprey
+ */
+final class JvmStatistics {
+
+	private static final ThreadMXBean THREAD_BEAN = ManagementFactory.getThreadMXBean();
+
+	static {
+		if (THREAD_BEAN.isThreadCpuTimeSupported() && !THREAD_BEAN.isThreadCpuTimeEnabled()) {
+			THREAD_BEAN.setThreadCpuTimeEnabled(true);
+		}
+	}
+
+	/**
+	 * @param threadId The id of a living thread.
+	 * @return The number of bytes allocated by the thread or <code>-1</code> if
+	 *         not supported by the JVM.
+	 */
+	static long getAllocatedBytes(long threadId) {
+		if (THREAD_BEAN instanceof com.sun.management.ThreadMXBean) {
+			final com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) THREAD_BEAN;
+			if (allocationBean.isThreadAllocatedMemorySupported() && allocationBean.isThreadAllocatedMemoryEnabled()) {
+				return allocationBean.getThreadAllocatedBytes(threadId);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return The CPU time of the current thread in nanoseconds or <code>-1</code>
+	 *         if not supported by the JVM.
+	 */
+	static long getCurrentThreadCpuTime() {
+		return THREAD_BEAN.isCurrentThreadCpuTimeSupported() ? THREAD_BEAN.getCurrentThreadCpuTime() : -1;
+	}
+
+	/**
+	 * @return The number of garbage collections since the start of the JVM.
+	 */
+	static long getGcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gcBean.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * @return The accumulated time of garbage collections since the start of the
+	 *         JVM in milliseconds.
+	 */
+	static long getGcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(0, gcBean.getCollectionTime());
+		}
+		return time;
+	}
+
+	/**
+	 * @return The used heap memory in bytes.
+	 */
+	static long getUsedHeap() {
+		return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+	}
+
+	private JvmStatistics() {
+	}
+
+}
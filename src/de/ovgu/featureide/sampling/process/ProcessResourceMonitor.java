@@ -0,0 +1,305 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import de.ovgu.featureide.sampling.logger.Logger;
+
+/**
+ * Polls the resource usage of a sampling process and all of its descendants
+ * from the <i>/proc</i> file system (Linux only). The monitor records the peak
+ * resident set size and the peak number of threads of the whole process tree,
+ * as well as the user and system CPU time consumed by all processes of the tree.
+ * The CPU time of a process is taken from its last poll, so processes that live
+ * shorter than the poll interval may be missed.
+ *
+ * On systems without <i>/proc</i>, the monitor does nothing and all results
+ * stay <code>-1</code>.
+ *
+ * @author Joshua Sprey
+ */
+public class ProcessResourceMonitor implements Runnable {
+
+	/** CPU time of a process in clock ticks, taken from its last poll. */
+	private static final class CpuTime {
+		private long system;
+		private long user;
+	}
+
+	/** Index of the parent pid in <i>/proc/[pid]/stat</i> after the command name. */
+	private static final int STAT_PPID = 1;
+	/** Index of the resident set size in pages after the command name. */
+	private static final int STAT_RSS = 21;
+	/** Index of the system CPU time in clock ticks after the command name. */
+	private static final int STAT_STIME = 12;
+	/** Index of the number of threads after the command name. */
+	private static final int STAT_THREADS = 17;
+	/** Index of the user CPU time in clock ticks after the command name. */
+	private static final int STAT_UTIME = 11;
+
+	private static final Path PROC_PATH = Paths.get("/proc");
+
+	private static long clockTicksPerSecond = -1;
+	private static long pageSize = -1;
+
+	/**
+	 * Returns the process id of a process. Uses <i>Process#pid()</i> if available
+	 * (Java 9 and later) and the field <i>pid</i> of the process implementation
+	 * otherwise.
+	 *
+	 * @param process The process.
+	 * @return The process id or <code>-1</code> if it cannot be determined.
+	 */
+	public static long getPid(Process process) {
+		try {
+			final Method pidMethod = Process.class.getMethod("pid");
+			return ((Number) pidMethod.invoke(process)).longValue();
+		} catch (NoSuchMethodException e) {
+			// Java 8
+		} catch (Exception e) {
+			Logger.getInstance().logError(e);
+		}
+		try {
+			final Field pidField = process.getClass().getDeclaredField("pid");
+			pidField.setAccessible(true);
+			return pidField.getLong(process);
+		} catch (Exception e) {
+			Logger.getInstance().logError(e);
+			return -1;
+		}
+	}
+
+	/**
+	 * @return {@link Boolean#TRUE} if the resource usage of processes can be
+	 *         monitored on this system.
+	 */
+	public static boolean isSupported() {
+		return Files.isDirectory(PROC_PATH.resolve("self"));
+	}
+
+	private static synchronized void initSystemValues() {
+		if (clockTicksPerSecond < 0) {
+			clockTicksPerSecond = readConfigValue("CLK_TCK", 100);
+			pageSize = readConfigValue("PAGESIZE", 4096);
+		}
+	}
+
+	private static long readConfigValue(String name, long defaultValue) {
+		try {
+			final Process process = new ProcessBuilder("getconf", name).redirectErrorStream(true).start();
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII))) {
+				final String line = reader.readLine();
+				process.waitFor();
+				return line == null ? defaultValue : Long.parseLong(line.trim());
+			}
+		} catch (Exception e) {
+			return defaultValue;
+		}
+	}
+
+	/**
+	 * Reads the fields of <i>/proc/[pid]/stat</i> behind the command name, which
+	 * may contain spaces and parentheses.
+	 */
+	private static String[] readStat(Path processDirectory) {
+		try {
+			final String stat = new String(Files.readAllBytes(processDirectory.resolve("stat")),
+					StandardCharsets.US_ASCII);
+			final int commandEnd = stat.lastIndexOf(')');
+			if (commandEnd < 0) {
+				return null;
+			}
+			final String[] fields = stat.substring(commandEnd + 1).trim().split(" ");
+			return fields.length > STAT_RSS ? fields : null;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private final HashMap<Long, CpuTime> cpuTimes = new HashMap<>();
+	private final long interval;
+	private long peakRss = -1;
+	private long peakThreads = -1;
+	private final long rootPid;
+	private volatile boolean running = true;
+	private Thread thread;
+
+	/**
+	 * @param rootPid  The process id of the sampling process.
+	 * @param interval Time in milliseconds between two polls.
+	 */
+	public ProcessResourceMonitor(long rootPid, long interval) {
+		this.rootPid = rootPid;
+		this.interval = Math.max(1, interval);
+	}
+
+	private List<Long> getProcessTree() {
+		final HashMap<Long, List<Long>> children = new HashMap<>();
+		try (DirectoryStream<Path> processDirectories = Files.newDirectoryStream(PROC_PATH, "[0-9]*")) {
+			for (Path processDirectory : processDirectories) {
+				final String[] stat = readStat(processDirectory);
+				if (stat != null) {
+					final long pid = Long.parseLong(processDirectory.getFileName().toString());
+					children.computeIfAbsent(Long.parseLong(stat[STAT_PPID]), k -> new ArrayList<>()).add(pid);
+				}
+			}
+		} catch (IOException | NumberFormatException e) {
+			Logger.getInstance().logError(e);
+		}
+		final List<Long> tree = new ArrayList<>();
+		final Set<Long> visited = new HashSet<>();
+		final ArrayDeque<Long> queue = new ArrayDeque<>();
+		queue.add(rootPid);
+		while (!queue.isEmpty()) {
+			final Long pid = queue.poll();
+			if (visited.add(pid)) {
+				tree.add(pid);
+				final List<Long> childList = children.get(pid);
+				if (childList != null) {
+					queue.addAll(childList);
+				}
+			}
+		}
+		return tree;
+	}
+
+	/**
+	 * @return The peak resident set size of the process tree in kilo bytes (KB) or
+	 *         <code>-1</code> if unknown.
+	 */
+	public synchronized long getPeakRss() {
+		return peakRss < 0 ? -1 : (peakRss * pageSize) / 1024L;
+	}
+
+	/**
+	 * @return The peak number of threads of the process tree or <code>-1</code> if
+	 *         unknown.
+	 */
+	public synchronized long getPeakThreads() {
+		return peakThreads;
+	}
+
+	/**
+	 * @return The system CPU time of the process tree in milliseconds (ms) or
+	 *         <code>-1</code> if unknown.
+	 */
+	public synchronized long getSystemCpuTime() {
+		if (cpuTimes.isEmpty()) {
+			return -1;
+		}
+		long ticks = 0;
+		for (CpuTime cpuTime : cpuTimes.values()) {
+			ticks += cpuTime.system;
+		}
+		return (ticks * 1000L) / clockTicksPerSecond;
+	}
+
+	/**
+	 * @return The user CPU time of the process tree in milliseconds (ms) or
+	 *         <code>-1</code> if unknown.
+	 */
+	public synchronized long getUserCpuTime() {
+		if (cpuTimes.isEmpty()) {
+			return -1;
+		}
+		long ticks = 0;
+		for (CpuTime cpuTime : cpuTimes.values()) {
+			ticks += cpuTime.user;
+		}
+		return (ticks * 1000L) / clockTicksPerSecond;
+	}
+
+	/**
+	 * Polls the current resource usage of the process tree once.
+	 */
+	public synchronized void poll() {
+		long rss = 0;
+		long threads = 0;
+		boolean found = false;
+		for (Long pid : getProcessTree()) {
+			final String[] stat = readStat(PROC_PATH.resolve(pid.toString()));
+			if (stat != null) {
+				try {
+					final CpuTime cpuTime = cpuTimes.computeIfAbsent(pid, k -> new CpuTime());
+					cpuTime.user = Math.max(cpuTime.user, Long.parseLong(stat[STAT_UTIME]));
+					cpuTime.system = Math.max(cpuTime.system, Long.parseLong(stat[STAT_STIME]));
+					rss += Long.parseLong(stat[STAT_RSS]);
+					threads += Long.parseLong(stat[STAT_THREADS]);
+					found = true;
+				} catch (NumberFormatException e) {
+				}
+			}
+		}
+		if (found) {
+			peakRss = Math.max(peakRss, rss);
+			peakThreads = Math.max(peakThreads, threads);
+		}
+	}
+
+	@Override
+	public void run() {
+		while (running) {
+			poll();
+			try {
+				Thread.sleep(interval);
+			} catch (InterruptedException e) {
+				break;
+			}
+		}
+	}
+
+	/**
+	 * Stores the recorded resource usage in the given results.
+	 *
+	 * @param result The results of the sampling process.
+	 */
+	public void setResult(SamplingResults result) {
+		result.setPeakRss(getPeakRss());
+		result.setPeakThreads(getPeakThreads());
+		result.setUserCpuTime(getUserCpuTime());
+		result.setSystemCpuTime(getSystemCpuTime());
+	}
+
+	/**
+	 * Starts polling in a background thread if monitoring is supported.
+	 */
+	public void start() {
+		if (rootPid >= 0 && isSupported()) {
+			initSystemValues();
+			poll();
+			thread = new Thread(this, "ProcessResourceMonitor-" + rootPid);
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Stops polling and waits for the background thread.
+	 */
+	public void stop() {
+		running = false;
+		if (thread != null) {
+			thread.interrupt();
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+}
@@ -0,0 +1,167 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+
+/**
+ * Data class describing one cell of the benchmark, i.e., one run of an
+ * algorithm for a certain (system, system iteration, algorithm, algorithm
+ * iteration) combination. Each job owns a separate working directory, such
+ * that multiple jobs can be executed concurrently.
+ *
+ * @author Joshua Sprey
+ */
+public class SamplingJob {
+
+	/** The algorithm instance that is bound to the working directory. */
+	private final ASamplingAlgorithm algorithm;
+	/** The index of the algorithm in the algorithm list. */
+	private final int algorithmIndex;
+	/** The value of the algorithm iteration. */
+	private final int algorithmIteration;
+	/** The cores the sampling process is pinned to. Empty for no pinning. */
+	private int[] cores = new int[0];
+	/** The row of the coverage curve of the sample or <code>null</code>. */
+	private List<String> coverageCurveRow;
+	/** The feature model of the system in conjunctive normal form. */
+	private final CNF modelCNF;
+	/** The randomized feature model used for this system iteration. */
+	private final CNF randomizedModelCNF;
+	/** The folder for storing the computed samples of the current system. */
+	private final Path sampleDir;
+	/** Position of this job in the benchmark. Determines the output order. */
+	private final int sequenceNumber;
+	/** The numerical index of the system. */
+	private final int systemIndex;
+	/** The value of the system iteration. */
+	private final int systemIteration;
+	/** Folder containing all temporary files of this job. */
+	private final Path workingDirectory;
+
+	public SamplingJob(int sequenceNumber, int systemIndex, int systemIteration, int algorithmIndex,
+			int algorithmIteration, ASamplingAlgorithm algorithm, CNF modelCNF, CNF randomizedModelCNF, Path sampleDir,
+			Path workingDirectory) {
+		this.sequenceNumber = sequenceNumber;
+		this.systemIndex = systemIndex;
+		this.systemIteration = systemIteration;
+		this.algorithmIndex = algorithmIndex;
+		this.algorithmIteration = algorithmIteration;
+		this.algorithm = algorithm;
+		this.modelCNF = modelCNF;
+		this.randomizedModelCNF = randomizedModelCNF;
+		this.sampleDir = sampleDir;
+		this.workingDirectory = workingDirectory;
+	}
+
+	/**
+	 * @return The algorithm instance of this job.
+	 */
+	public ASamplingAlgorithm getAlgorithm() {
+		return algorithm;
+	}
+
+	/**
+	 * @return The index of the algorithm in the algorithm list.
+	 */
+	public int getAlgorithmIndex() {
+		return algorithmIndex;
+	}
+
+	/**
+	 * @return The value of the algorithm iteration.
+	 */
+	public int getAlgorithmIteration() {
+		return algorithmIteration;
+	}
+
+	/**
+	 * @return The cores assigned to the sampling process of this job.
+	 */
+	public int[] getCores() {
+		return cores;
+	}
+
+	/**
+	 * @return The row of the coverage curve of the sample, which is written
+	 *         together with the data row, or <code>null</code>.
+	 */
+	public List<String> getCoverageCurveRow() {
+		return coverageCurveRow;
+	}
+
+	/**
+	 * @return The feature model of the system in conjunctive normal form.
+	 */
+	public CNF getModelCNF() {
+		return modelCNF;
+	}
+
+	/**
+	 * @return The randomized feature model of the system iteration.
+	 */
+	public CNF getRandomizedModelCNF() {
+		return randomizedModelCNF;
+	}
+
+	/**
+	 * @return The folder for storing samples of the current system.
+	 */
+	public Path getSampleDir() {
+		return sampleDir;
+	}
+
+	/**
+	 * @return The position of this job in the benchmark.
+	 */
+	public int getSequenceNumber() {
+		return sequenceNumber;
+	}
+
+	/**
+	 * @return The numerical index of the system.
+	 */
+	public int getSystemIndex() {
+		return systemIndex;
+	}
+
+	/**
+	 * @return The value of the system iteration.
+	 */
+	public int getSystemIteration() {
+		return systemIteration;
+	}
+
+	/**
+	 * @return The folder containing all temporary files of this job.
+	 */
+	public Path getWorkingDirectory() {
+		return workingDirectory;
+	}
+
+	/**
+	 * Sets the row of the coverage curve of the sample.
+	 *
+	 * @param coverageCurveRow The values of the row.
+	 */
+	public void setCoverageCurveRow(List<String> coverageCurveRow) {
+		this.coverageCurveRow = coverageCurveRow;
+	}
+
+	/**
+	 * Sets the cores the sampling process should be pinned to.
+	 *
+	 * @param cores Indices of the cores. Empty for no pinning.
+	 */
+	public void setCores(int[] cores) {
+		this.cores = cores;
+	}
+
+	@Override
+	public String toString() {
+		return (systemIndex + 1) + " | " + systemIteration + " | (" + (algorithmIndex + 1) + ") "
+				+ algorithm.getFullName() + " | " + algorithmIteration;
+	}
+}
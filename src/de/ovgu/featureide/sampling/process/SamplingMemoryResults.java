@@ -7,12 +7,28 @@ package de.ovgu.featureide.sampling.process;
  */
 public class SamplingMemoryResults {
 
+	protected long statisticCpuTime = -1;
 	protected long statisticCreatedBytesTotal = 0;
 	protected double statisticPauseTimeAvg = 0;
 	protected double statisticPauseTimeTotal = 0;
+	protected long statisticPeakHeap = -1;
 	protected double statisticThroughput = 0;
 
 	/**
+	 * @return The CPU time consumed by the sampling process in milliseconds (ms)
+	 *         or <code>-1</code> if unknown.
+	 */
+	public long getStatisticCpuTime() {
+		return statisticCpuTime;
+	}
+
+	/**
+	 * Returns the total bytes generated by the sampling process. With the
+	 * telemetry agent and for in-process runs, these are the bytes allocated by
+	 * all threads. With the garbage collector log, these are the bytes freed by
+	 * the garbage collector, which does not include the objects that are still
+	 * alive when the process ends.
+	 *
 	 * @return The total bytes generated by the sampling process. The returned value
 	 *         is given in mega bytes (MBs).
 	 */
@@ -35,6 +51,14 @@ public class SamplingMemoryResults {
 		return statisticPauseTimeTotal;
 	}
 
+	/**
+	 * @return The highest heap usage of the sampling process in mega bytes (MB) or
+	 *         <code>-1</code> if unknown.
+	 */
+	public long getStatisticPeakHeap() {
+		return statisticPeakHeap;
+	}
+
 	/**
 	 * @return The throughput of the sampling process. It is the relation between
 	 *         complete runtime and total pause time.
@@ -43,6 +67,15 @@ public class SamplingMemoryResults {
 		return statisticThroughput;
 	}
 
+	/**
+	 * Sets the CPU time consumed by this run.
+	 * 
+	 * @param statisticCpuTime The CPU time in milliseconds (ms).
+	 */
+	public void setStatisticCpuTime(long statisticCpuTime) {
+		this.statisticCpuTime = statisticCpuTime;
+	}
+
 	/**
 	 * Sets the number of mega bytes (MB) created of this run.
 	 * 
@@ -70,6 +103,15 @@ public class SamplingMemoryResults {
 		this.statisticPauseTimeTotal = statisticPauseTimeTotal;
 	}
 
+	/**
+	 * Sets the highest heap usage of this run.
+	 * 
+	 * @param statisticPeakHeap The peak heap usage in mega bytes (MB).
+	 */
+	public void setStatisticPeakHeap(long statisticPeakHeap) {
+		this.statisticPeakHeap = statisticPeakHeap;
+	}
+
 	/**
 	 * Sets the throughput of this run.
 	 * 
@@ -1,13 +1,19 @@
 package de.ovgu.featureide.sampling.process;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
 import de.ovgu.featureide.sampling.logger.ErrStreamCollector;
 import de.ovgu.featureide.sampling.logger.ErrStreamReader;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
 import de.ovgu.featureide.sampling.logger.Logger;
 import de.ovgu.featureide.sampling.logger.OutStreamReader;
 import de.ovgu.featureide.sampling.logger.StreamRedirector;
@@ -20,8 +26,107 @@ import de.ovgu.featureide.sampling.logger.StreamRedirector;
  */
 public class SamplingProcessRunner {
 
+	/** Tool used to pin a process to a set of cores (Linux only). */
+	private static final Path TASKSET_PATH = Paths.get("/usr/bin/taskset");
+	/** Time in milliseconds to wait for the output after the process ended. */
+	private static final long STREAM_DRAIN_TIMEOUT = 5000;
+
+	/**
+	 * Prefixes the given command with a call to <i>taskset</i>, if cores were
+	 * assigned and the tool is available.
+	 * 
+	 * @param command     The command of the algorithm.
+	 * @param cpuAffinity Indices of the cores. Empty for no pinning.
+	 * @return The command that is actually executed.
+	 */
+	public static List<String> applyCpuAffinity(List<String> command, int[] cpuAffinity) {
+		if (cpuAffinity.length == 0 || !Files.isExecutable(TASKSET_PATH)) {
+			return command;
+		}
+		final StringBuilder cores = new StringBuilder();
+		for (int core : cpuAffinity) {
+			cores.append(core);
+			cores.append(',');
+		}
+		cores.deleteCharAt(cores.length() - 1);
+
+		final List<String> pinnedCommand = new ArrayList<>(command.size() + 3);
+		pinnedCommand.add(TASKSET_PATH.toString());
+		pinnedCommand.add("-c");
+		pinnedCommand.add(cores.toString());
+		pinnedCommand.addAll(command);
+		return pinnedCommand;
+	}
+
+	/** The cores the sampling process is pinned to. Empty for no pinning. */
+	private int[] cpuAffinity = new int[0];
+	/**
+	 * Time in milliseconds between two polls of the resource usage of the sampling
+	 * process. 0 disables the monitoring.
+	 */
+	private long resourceMonitorInterval = 0;
+	/** Reads the configurations streamed by the sampling process, if any. */
+	private StreamingSampleReader streamingReader = null;
 	private long timeout = Long.MAX_VALUE;
 
+	/**
+	 * Prefixes the given command with a call to <i>taskset</i>, if cores were
+	 * assigned and the tool is available.
+	 * 
+	 * @param command The command of the algorithm.
+	 * @return The command that is actually executed.
+	 */
+	protected List<String> applyCpuAffinity(List<String> command) {
+		return applyCpuAffinity(command, cpuAffinity);
+	}
+
+	/**
+	 * @return The cores the sampling process is pinned to.
+	 */
+	public int[] getCpuAffinity() {
+		return cpuAffinity;
+	}
+
+	/**
+	 * @return The measurements of unmeasured warm-up runs that preceded the last
+	 *         run. Empty if the runner does not perform warm-up runs.
+	 */
+	public List<InProcessMeasurement> getWarmUpMeasurements() {
+		return Collections.emptyList();
+	}
+
+	/**
+	 * @return The time in milliseconds between two polls of the resource usage of
+	 *         the sampling process (0 = disabled).
+	 */
+	public long getResourceMonitorInterval() {
+		return resourceMonitorInterval;
+	}
+
+	/**
+	 * @return The reader of the configurations streamed by the sampling process or
+	 *         <code>null</code>.
+	 */
+	public StreamingSampleReader getStreamingReader() {
+		return streamingReader;
+	}
+
+	/**
+	 * Returns the readers for the standard output of the sampling process.
+	 * 
+	 * @param algorithm The algorithm to evaluate.
+	 * @return The readers.
+	 */
+	protected List<IOutputReader> getOutputReaders(ASamplingAlgorithm algorithm) {
+		final List<IOutputReader> readers = new ArrayList<>(3);
+		readers.add(new OutStreamReader());
+		readers.add(algorithm);
+		if (streamingReader != null) {
+			readers.add(streamingReader);
+		}
+		return readers;
+	}
+
 	/**
 	 * @return The timeout for the sampling process.
 	 */
@@ -30,58 +135,89 @@ public class SamplingProcessRunner {
 	}
 
 	/**
-	 * Executes a sampling process via a {@link Process}. Every kind of command can
-	 * be used, and thus, all kind of programs are supported.
+	 * Executes the prepared sampling algorithm via a {@link Process}. Every kind of
+	 * command can be used, and thus, all kind of programs are supported.
+	 * 
+	 * @param algorithm The algorithm to evaluate.
+	 * @param result    Result object that should be filled with the runtime
+	 *                  information.
+	 * @return {@link Boolean#TRUE} if the process terminated in time.
+	 * @throws Exception If the process could not be executed.
+	 */
+	protected boolean execute(ASamplingAlgorithm algorithm, SamplingResults result) throws Exception {
+		boolean terminatedInTime = false;
+		final List<String> command = algorithm.getCommandElements();
+		if (!command.isEmpty()) {
+			final ProcessBuilder processBuilder = new ProcessBuilder(applyCpuAffinity(command));
+			Process process = null;
+
+			final ErrStreamCollector errStreamCollector = new ErrStreamCollector();
+			final StreamRedirector errRedirector = new StreamRedirector(
+					Arrays.asList(new ErrStreamReader(), errStreamCollector));
+			final StreamRedirector outRedirector = new StreamRedirector(getOutputReaders(algorithm));
+			final Thread outThread = new Thread(outRedirector);
+			final Thread errThread = new Thread(errRedirector);
+			ProcessResourceMonitor resourceMonitor = null;
+			try {
+				final long startTime = System.nanoTime();
+				process = processBuilder.start();
+				if (streamingReader != null) {
+					streamingReader.start(process);
+				}
+				if (resourceMonitorInterval > 0) {
+					resourceMonitor = new ProcessResourceMonitor(ProcessResourceMonitor.getPid(process),
+							resourceMonitorInterval);
+					resourceMonitor.start();
+				}
+
+				outRedirector.setInputStream(process.getInputStream());
+				errRedirector.setInputStream(process.getErrorStream());
+				outThread.start();
+				errThread.start();
+
+				terminatedInTime = process.waitFor(timeout, TimeUnit.MILLISECONDS);
+				final long endTime = System.nanoTime();
+				if (streamingReader != null) {
+					// Let the reader process the remaining configurations
+					outThread.join(STREAM_DRAIN_TIMEOUT);
+				}
+				result.setTerminatedInTime(terminatedInTime);
+				result.setNoErrorOccured(errStreamCollector.getErrList().isEmpty());
+				result.setRuntime((endTime - startTime) / 1_000_000L);
+			} finally {
+				if (resourceMonitor != null) {
+					// Stop before the process tree is killed on a timeout
+					resourceMonitor.stop();
+					resourceMonitor.setResult(result);
+				}
+				if (process != null) {
+					process.destroyForcibly();
+				}
+			}
+		} else {
+			result.setTerminatedInTime(false);
+			result.setNoErrorOccured(false);
+			result.setRuntime(SamplingResults.INVALID_TIME);
+		}
+		return terminatedInTime;
+	}
+
+	/**
+	 * Prepares and executes a sampling algorithm and collects its results.
 	 * 
 	 * @param algorithm The algorithm to evaluate.
-	 * @param result    Empty result object that should be filled.
+	 * @return The results of the sampling process.
 	 */
 	public SamplingResults run(ASamplingAlgorithm algorithm) {
 		SamplingResults result = new SamplingResults();
 		boolean terminatedInTime = false;
-		long startTime = 0, endTime = 0;
 		try {
 			System.gc();
 			algorithm.preProcess();
 
 			Logger.getInstance().logInfo(algorithm.getCommand(), 1, true);
 
-			final List<String> command = algorithm.getCommandElements();
-			if (!command.isEmpty()) {
-				final ProcessBuilder processBuilder = new ProcessBuilder(command);
-				Process process = null;
-
-				final ErrStreamCollector errStreamCollector = new ErrStreamCollector();
-				final StreamRedirector errRedirector = new StreamRedirector(
-						Arrays.asList(new ErrStreamReader(), errStreamCollector));
-				final StreamRedirector outRedirector = new StreamRedirector(
-						Arrays.asList(new OutStreamReader(), algorithm));
-				final Thread outThread = new Thread(outRedirector);
-				final Thread errThread = new Thread(errRedirector);
-				try {
-					startTime = System.nanoTime();
-					process = processBuilder.start();
-
-					outRedirector.setInputStream(process.getInputStream());
-					errRedirector.setInputStream(process.getErrorStream());
-					outThread.start();
-					errThread.start();
-
-					terminatedInTime = process.waitFor(timeout, TimeUnit.MILLISECONDS);
-					endTime = System.nanoTime();
-					result.setTerminatedInTime(terminatedInTime);
-					result.setNoErrorOccured(errStreamCollector.getErrList().isEmpty());
-					result.setRuntime((endTime - startTime) / 1_000_000L);
-				} finally {
-					if (process != null) {
-						process.destroyForcibly();
-					}
-				}
-			} else {
-				result.setTerminatedInTime(false);
-				result.setNoErrorOccured(false);
-				result.setRuntime(SamplingResults.INVALID_TIME);
-			}
+			terminatedInTime = execute(algorithm, result);
 		} catch (Exception e) {
 			Logger.getInstance().logError(e, true);
 			result.setTerminatedInTime(false);
@@ -113,10 +249,54 @@ public class SamplingProcessRunner {
 	 * @throws IOException
 	 */
 	protected void setResult(ASamplingAlgorithm algorithm, SamplingResults result) throws IOException {
+		if (streamingReader != null) {
+			streamingReader.setResult(result);
+			if (streamingReader.isTargetReached()) {
+				// The process was stopped before it could write its sample
+				result.setComputedSample(streamingReader.getSolutionList());
+				try {
+					result.setMemoryResults(algorithm.parseMemory());
+				} catch (Exception e) {
+					Logger.getInstance().logInfo("\tNo memory results for stopped process", 2, true);
+				}
+				return;
+			}
+		}
 		result.setComputedSample(algorithm.parseResults());
 		result.setMemoryResults(algorithm.parseMemory());
 	}
 
+	/**
+	 * Pins the sampling process to the given cores, such that concurrent sampling
+	 * processes do not compete for the same cores.
+	 * 
+	 * @param cpuAffinity Indices of the cores. Empty for no pinning.
+	 */
+	public void setCpuAffinity(int[] cpuAffinity) {
+		this.cpuAffinity = cpuAffinity;
+	}
+
+	/**
+	 * Enables the monitoring of the peak resident set size, CPU time, and number of
+	 * threads of the sampling process and its descendants (Linux only).
+	 * 
+	 * @param resourceMonitorInterval Time in milliseconds between two polls. 0
+	 *                                disables the monitoring.
+	 */
+	public void setResourceMonitorInterval(long resourceMonitorInterval) {
+		this.resourceMonitorInterval = Math.max(0, resourceMonitorInterval);
+	}
+
+	/**
+	 * Sets a reader for the configurations the sampling process emits while it is
+	 * running. The reader is used for the next run only.
+	 * 
+	 * @param streamingReader The reader or <code>null</code> to disable streaming.
+	 */
+	public void setStreamingReader(StreamingSampleReader streamingReader) {
+		this.streamingReader = streamingReader;
+	}
+
 	/**
 	 * Sets the timeout for the sampling process.
 	 * 
@@ -0,0 +1,221 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.sampling.logger.Logger;
+
+/**
+ * Content-addressed cache for the results of sampling processes. An entry is
+ * identified by the hash of the randomized model file, the full name of the
+ * algorithm, the t-value, the seed, and the algorithm iteration. Thus, cells of
+ * a benchmark that did not change since a previous run can be served from disk
+ * instead of executing the algorithm again.
+ *
+ * Each entry contains the computed sample and all measurements of the run. Only
+ * runs that terminated in time without errors are cached. Entries are written
+ * atomically, such that concurrent jobs and interrupted runs never leave
+ * incomplete entries.
+ *
+ * @author Joshua Sprey
+ */
+public class SamplingResultCache {
+
+	private static final String FILE_EXTENSION = ".result";
+	private static final String HEADER = "#SamplingResultCache 1";
+	private static final String SAMPLE_SECTION = "sample";
+
+	/**
+	 * Computes the key of a cell.
+	 *
+	 * @param modelFile          The randomized model file given to the algorithm.
+	 * @param algorithmName      The full name of the algorithm.
+	 * @param t                  The t-value.
+	 * @param seed               The seed of the benchmark.
+	 * @param algorithmIteration The algorithm iteration.
+	 * @return The key as hexadecimal string.
+	 * @throws IOException If the model file cannot be read.
+	 */
+	public static String getKey(Path modelFile, String algorithmName, int t, long seed, int algorithmIteration)
+			throws IOException {
+		try {
+			final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			digest.update(Files.readAllBytes(modelFile));
+			digest.update(("\n" + algorithmName + "\n" + t + "\n" + seed + "\n" + algorithmIteration)
+					.getBytes(StandardCharsets.UTF_8));
+			final StringBuilder key = new StringBuilder();
+			for (byte b : digest.digest()) {
+				key.append(String.format("%02x", b));
+			}
+			return key.toString();
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static long getLong(Map<String, String> values, String key) {
+		return Long.parseLong(values.get(key));
+	}
+
+	private static double getDouble(Map<String, String> values, String key) {
+		return Double.parseDouble(values.get(key));
+	}
+
+	private final Path directory;
+
+	/**
+	 * @param directory The directory containing the cache entries.
+	 */
+	public SamplingResultCache(Path directory) {
+		this.directory = directory;
+	}
+
+	private Path getEntryFile(String key) {
+		return directory.resolve(key.substring(0, 2)).resolve(key + FILE_EXTENSION);
+	}
+
+	/**
+	 * Loads the results of a cell.
+	 *
+	 * @param key       The key of the cell.
+	 * @param variables The variables of the randomized model, which the literals of
+	 *                  the sample refer to.
+	 * @return The cached results or <code>null</code> if the cell is not cached.
+	 */
+	public SamplingResults load(String key, IVariables variables) {
+		final Path entryFile = getEntryFile(key);
+		if (!Files.exists(entryFile)) {
+			return null;
+		}
+		try (BufferedReader reader = Files.newBufferedReader(entryFile, StandardCharsets.UTF_8)) {
+			if (!HEADER.equals(reader.readLine())) {
+				return null;
+			}
+			final Map<String, String> values = new HashMap<>();
+			for (String line = reader.readLine(); line != null && !line.equals(SAMPLE_SECTION); line = reader
+					.readLine()) {
+				final int separator = line.indexOf('=');
+				if (separator > 0) {
+					values.put(line.substring(0, separator), line.substring(separator + 1));
+				}
+			}
+			final List<LiteralSet> solutions = new ArrayList<>();
+			for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+				final String[] tokens = line.trim().split(" ");
+				final int[] literals = new int[tokens.length - 1];
+				for (int i = 1; i < tokens.length; i++) {
+					literals[i - 1] = Integer.parseInt(tokens[i]);
+				}
+				solutions.add(new LiteralSet(literals, Order.valueOf(tokens[0]), false));
+			}
+
+			final SamplingResults result = new SamplingResults();
+			result.setComputedSample(new SolutionList(variables, solutions));
+			result.setTerminatedInTime(Boolean.parseBoolean(values.get("terminatedInTime")));
+			result.setNoErrorOccured(Boolean.parseBoolean(values.get("noErrorOccured")));
+			result.setRuntime(getLong(values, "runtime"));
+			result.setPeakRss(getLong(values, "peakRss"));
+			result.setPeakThreads(getLong(values, "peakThreads"));
+			result.setUserCpuTime(getLong(values, "userCpuTime"));
+			result.setSystemCpuTime(getLong(values, "systemCpuTime"));
+			if (values.containsKey("streamedConfigurations")) {
+				result.setStreamedConfigurations(Integer.parseInt(values.get("streamedConfigurations")));
+				final String timeToCoverage = values.get("timeToCoverage");
+				result.setTimeToCoverage(timeToCoverage.isEmpty() ? new long[0]
+						: Arrays.stream(timeToCoverage.split(",")).mapToLong(Long::parseLong).toArray());
+			}
+			final SamplingMemoryResults memoryResults = new SamplingMemoryResults();
+			memoryResults.setStatisticCreatedBytesTotal(getLong(values, "createdBytesTotal"));
+			memoryResults.setStatisticPauseTimeAvg(getDouble(values, "pauseTimeAvg"));
+			memoryResults.setStatisticPauseTimeTotal(getDouble(values, "pauseTimeTotal"));
+			memoryResults.setStatisticThroughput(getDouble(values, "throughput"));
+			memoryResults.setStatisticPeakHeap(getLong(values, "peakHeap"));
+			memoryResults.setStatisticCpuTime(getLong(values, "cpuTime"));
+			result.setMemoryResults(memoryResults);
+			return result;
+		} catch (IOException | RuntimeException e) {
+			Logger.getInstance().logError("Invalid cache entry " + entryFile + ": " + e);
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the results of a cell, if the run terminated in time without errors
+	 * and computed a sample. An existing entry is replaced.
+	 *
+	 * @param key    The key of the cell.
+	 * @param result The results of the run.
+	 */
+	public void store(String key, SamplingResults result) {
+		final SolutionList sample = result.getResult();
+		if (sample == null || !result.isTerminatedInTime() || !result.isNoErrorOccured()) {
+			return;
+		}
+		final Path entryFile = getEntryFile(key);
+		try {
+			Files.createDirectories(entryFile.getParent());
+			final Path tempFile = Files.createTempFile(entryFile.getParent(), key, ".tmp");
+			try {
+				try (BufferedWriter writer = Files.newBufferedWriter(tempFile, StandardCharsets.UTF_8)) {
+					final SamplingMemoryResults memoryResults = result.getMemoryResults();
+					writer.write(HEADER + "\n");
+					writer.write("terminatedInTime=" + result.isTerminatedInTime() + "\n");
+					writer.write("noErrorOccured=" + result.isNoErrorOccured() + "\n");
+					writer.write("runtime=" + result.getSamplingTime() + "\n");
+					writer.write("peakRss=" + result.getPeakRss() + "\n");
+					writer.write("peakThreads=" + result.getPeakThreads() + "\n");
+					writer.write("userCpuTime=" + result.getUserCpuTime() + "\n");
+					writer.write("systemCpuTime=" + result.getSystemCpuTime() + "\n");
+					writer.write("streamedConfigurations=" + result.getStreamedConfigurations() + "\n");
+					writer.write("timeToCoverage=" + Arrays.stream(result.getTimeToCoverage())
+							.mapToObj(Long::toString).collect(Collectors.joining(",")) + "\n");
+					writer.write("createdBytesTotal=" + memoryResults.getStatisticCreatedBytesTotal() + "\n");
+					writer.write("pauseTimeAvg=" + memoryResults.getStatisticPauseTimeAvg() + "\n");
+					writer.write("pauseTimeTotal=" + memoryResults.getStatisticPauseTimeTotal() + "\n");
+					writer.write("throughput=" + memoryResults.getStatisticThroughput() + "\n");
+					writer.write("peakHeap=" + memoryResults.getStatisticPeakHeap() + "\n");
+					writer.write("cpuTime=" + memoryResults.getStatisticCpuTime() + "\n");
+					writer.write(SAMPLE_SECTION + "\n");
+					final StringBuilder line = new StringBuilder();
+					for (LiteralSet solution : sample.getSolutions()) {
+						line.setLength(0);
+						line.append(solution.getOrder().name());
+						for (int literal : solution.getLiterals()) {
+							line.append(' ').append(literal);
+						}
+						line.append('\n');
+						writer.write(line.toString());
+					}
+				}
+				try {
+					Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(tempFile, entryFile, StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(tempFile);
+			}
+		} catch (IOException e) {
+			Logger.getInstance().logError(e);
+		}
+	}
+}
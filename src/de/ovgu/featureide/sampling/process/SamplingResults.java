@@ -18,8 +18,14 @@ public class SamplingResults {
 
 	private boolean resultNoErrorOccured = false;
 
+	private long resultPeakRss = -1;
+	private long resultPeakThreads = -1;
 	private long resultRuntime = INVALID_TIME;
+	private int resultStreamedConfigurations = -1;
+	private long resultSystemCpuTime = -1;
 	private boolean resultTerminatedInTime = false;
+	private long[] resultTimeToCoverage = new long[0];
+	private long resultUserCpuTime = -1;
 
 	/**
 	 * Gets the memory results for this run.
@@ -30,6 +36,22 @@ public class SamplingResults {
 		return memoryResults;
 	}
 
+	/**
+	 * @return The peak resident set size of the sampling process and its
+	 *         descendants in kilo bytes (KB) or <code>-1</code> if unknown.
+	 */
+	public long getPeakRss() {
+		return resultPeakRss;
+	}
+
+	/**
+	 * @return The peak number of threads of the sampling process and its
+	 *         descendants or <code>-1</code> if unknown.
+	 */
+	public long getPeakThreads() {
+		return resultPeakThreads;
+	}
+
 	/**
 	 * @return The computed sample of the run.
 	 */
@@ -44,6 +66,40 @@ public class SamplingResults {
 		return resultRuntime;
 	}
 
+	/**
+	 * @return The number of configurations the sampling process emitted while
+	 *         running or <code>-1</code> if the output was not streamed.
+	 */
+	public int getStreamedConfigurations() {
+		return resultStreamedConfigurations;
+	}
+
+	/**
+	 * @return The system CPU time of the sampling process and its descendants in
+	 *         milliseconds (ms) or <code>-1</code> if unknown.
+	 */
+	public long getSystemCpuTime() {
+		return resultSystemCpuTime;
+	}
+
+	/**
+	 * @return The time in milliseconds after which the streamed configurations
+	 *         reached each level of {@link StreamingSampleReader#COVERAGE_LEVELS}
+	 *         (<code>-1</code> if not reached). Empty if the output was not
+	 *         streamed.
+	 */
+	public long[] getTimeToCoverage() {
+		return resultTimeToCoverage;
+	}
+
+	/**
+	 * @return The user CPU time of the sampling process and its descendants in
+	 *         milliseconds (ms) or <code>-1</code> if unknown.
+	 */
+	public long getUserCpuTime() {
+		return resultUserCpuTime;
+	}
+
 	/**
 	 * @return {@link Boolean#TRUE} when no error occurred in the sampling process,
 	 *         otherwise {@link Boolean#FALSE}.
@@ -87,6 +143,24 @@ public class SamplingResults {
 		this.resultNoErrorOccured = noError;
 	}
 
+	/**
+	 * Sets the peak resident set size of the sampling process.
+	 * 
+	 * @param peakRss The peak resident set size in kilo bytes (KB).
+	 */
+	public void setPeakRss(long peakRss) {
+		this.resultPeakRss = peakRss;
+	}
+
+	/**
+	 * Sets the peak number of threads of the sampling process.
+	 * 
+	 * @param peakThreads The peak number of threads.
+	 */
+	public void setPeakThreads(long peakThreads) {
+		this.resultPeakThreads = peakThreads;
+	}
+
 	/**
 	 * Sets the runtime needed by the sampling process.
 	 * 
@@ -96,6 +170,25 @@ public class SamplingResults {
 		this.resultRuntime = time;
 	}
 
+	/**
+	 * Sets the number of configurations the sampling process emitted while
+	 * running.
+	 * 
+	 * @param streamedConfigurations The number of configurations.
+	 */
+	public void setStreamedConfigurations(int streamedConfigurations) {
+		this.resultStreamedConfigurations = streamedConfigurations;
+	}
+
+	/**
+	 * Sets the system CPU time of the sampling process.
+	 * 
+	 * @param systemCpuTime The system CPU time in milliseconds (ms).
+	 */
+	public void setSystemCpuTime(long systemCpuTime) {
+		this.resultSystemCpuTime = systemCpuTime;
+	}
+
 	/**
 	 * Sets whether the sampling process terminated in time.
 	 * 
@@ -105,4 +198,23 @@ public class SamplingResults {
 		this.resultTerminatedInTime = terminatedInTime;
 	}
 
+	/**
+	 * Sets the time after which the streamed configurations reached each coverage
+	 * level.
+	 * 
+	 * @param timeToCoverage The times in milliseconds (ms).
+	 */
+	public void setTimeToCoverage(long[] timeToCoverage) {
+		this.resultTimeToCoverage = timeToCoverage;
+	}
+
+	/**
+	 * Sets the user CPU time of the sampling process.
+	 * 
+	 * @param userCpuTime The user CPU time in milliseconds (ms).
+	 */
+	public void setUserCpuTime(long userCpuTime) {
+		this.resultUserCpuTime = userCpuTime;
+	}
+
 }
@@ -0,0 +1,135 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URLClassLoader;
+import java.util.Collections;
+
+/**
+ * Main class of the long-lived worker JVMs of a {@link SamplingWorkerPool}. A
+ * worker loads the main class of one sampling algorithm with an isolated class
+ * loader, connects to the pool via a local socket, and executes one run of the
+ * algorithm for each request it receives until the pool requests its exit.
+ * 
+ * Protocol (all values as written by {@link DataOutputStream}):<br>
+ * Request: <i>byte type</i> ({@link #REQUEST_RUN} or {@link #REQUEST_EXIT}),
+ * followed for runs by <i>int n</i> and <i>n</i> program arguments as UTF
+ * strings.<br>
+ * Response: <i>long wall time (ns), long CPU time (ns), long allocated bytes,
+ * long GC count, long GC time (ms), long used heap after run (bytes), boolean
+ * error</i>, followed by the UTF error message if an error occurred, and
+ * <i>boolean exited</i>.<br>
+ * After each run, the worker writes {@link #DONE_MARKER} to its standard and
+ * error output, such that the pool can assign the output to the run.
+ * 
+ * Calls of {@link System#exit(int)} by the algorithm are trapped (see
+ * {@link SystemExitTrap}). An exit with status 0 counts as a successful run and
+ * any other status as an error. As the algorithm may have left threads or
+ * static state behind, the response then requests the pool to replace the
+ * worker.
+ * 
+ * Usage: <code>SamplingWorker &lt;port&gt; &lt;class path&gt; &lt;main
+ * class&gt;</code>
+ * 
+ * @author Joshua Sprey
+ */
+public final class SamplingWorker {
+
+	/** Line that terminates the output of each run. */
+	static final String DONE_MARKER = "#SamplingWorker:done";
+	/** Request to terminate the worker. */
+	static final byte REQUEST_EXIT = 2;
+	/** Request to execute one run of the algorithm. */
+	static final byte REQUEST_RUN = 1;
+
+	private static final int MAX_ERROR_LENGTH = 1000;
+
+	public static void main(String[] args) throws Exception {
+		if (args.length < 3) {
+			System.err.println("Usage: SamplingWorker <port> <class path> <main class>");
+			System.exit(1);
+		}
+		final JavaCommand command = new JavaCommand("java", Collections.<String>emptyList(), args[1], args[2],
+				Collections.<String>emptyList());
+		final URLClassLoader classLoader = new URLClassLoader(command.getClassPathURLs(),
+				ClassLoader.getSystemClassLoader().getParent());
+		Thread.currentThread().setContextClassLoader(classLoader);
+		final Method main = Class.forName(command.getMainClass(), true, classLoader).getMethod("main",
+				String[].class);
+		if (!SystemExitTrap.install()) {
+			System.err.println("SamplingWorker: calls of System.exit cannot be trapped");
+		}
+
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+			final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+			while (in.readByte() == REQUEST_RUN) {
+				final String[] arguments = new String[in.readInt()];
+				for (int i = 0; i < arguments.length; i++) {
+					arguments[i] = in.readUTF();
+				}
+
+				final long threadId = Thread.currentThread().getId();
+				final long startGcCount = JvmStatistics.getGcCount();
+				final long startGcTime = JvmStatistics.getGcTime();
+				final long startAllocation = JvmStatistics.getAllocatedBytes(threadId);
+				final long startCpuTime = JvmStatistics.getCurrentThreadCpuTime();
+				final long startTime = System.nanoTime();
+				Throwable error = null;
+				final SystemExitTrap.Run run = SystemExitTrap.begin();
+				try {
+					main.invoke(null, (Object) arguments);
+				} catch (InvocationTargetException e) {
+					error = e.getCause();
+				} catch (Throwable e) {
+					error = e;
+				} finally {
+					SystemExitTrap.end();
+				}
+				final SystemExitTrap.ExitException exit = run.getExit();
+				if (exit != null) {
+					error = exit.getStatus() == 0 ? null : exit;
+				}
+				final long wallTime = System.nanoTime() - startTime;
+				final long endCpuTime = JvmStatistics.getCurrentThreadCpuTime();
+				final long endAllocation = JvmStatistics.getAllocatedBytes(threadId);
+				final long gcCount = JvmStatistics.getGcCount() - startGcCount;
+				final long gcTime = JvmStatistics.getGcTime() - startGcTime;
+
+				System.out.flush();
+				System.out.println(DONE_MARKER);
+				System.err.println(DONE_MARKER);
+
+				// Measure the retained heap for the recycling of the worker
+				System.gc();
+				final long usedHeap = JvmStatistics.getUsedHeap();
+
+				out.writeLong(wallTime);
+				out.writeLong((startCpuTime < 0 || endCpuTime < 0) ? -1 : endCpuTime - startCpuTime);
+				out.writeLong((startAllocation < 0 || endAllocation < 0) ? -1 : endAllocation - startAllocation);
+				out.writeLong(gcCount);
+				out.writeLong(gcTime);
+				out.writeLong(usedHeap);
+				out.writeBoolean(error != null);
+				if (error != null) {
+					final String message = String.valueOf(error);
+					out.writeUTF(message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH)
+							: message);
+				}
+				out.writeBoolean(exit != null);
+				out.flush();
+			}
+		}
+		System.exit(0);
+	}
+
+	private SamplingWorker() {
+	}
+
+}
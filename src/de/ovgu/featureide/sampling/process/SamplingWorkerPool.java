@@ -0,0 +1,474 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.eval.memory.TelemetryAnalyzer;
+import de.ovgu.featureide.sampling.logger.ErrStreamReader;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
+import de.ovgu.featureide.sampling.logger.Logger;
+import de.ovgu.featureide.sampling.logger.OutStreamReader;
+import de.ovgu.featureide.sampling.logger.StreamRedirector;
+
+/**
+ * Manages long-lived worker JVMs (see {@link SamplingWorker}) that execute
+ * Java-based sampling algorithms, such that the JVM startup is not paid for
+ * each run while each algorithm is still isolated in its own process. Workers
+ * are kept per algorithm main class, class path, JVM options, and core set. A
+ * worker executes one run at a time; concurrent runs use separate workers.
+ * 
+ * To keep the measurements comparable, a worker is replaced by a fresh JVM
+ * after a given number of runs or when its heap retained after a run grew by
+ * more than a given percentage compared to its first run. Workers that exceed
+ * the timeout or terminate unexpectedly are destroyed. Options for garbage
+ * collector logs are removed from the JVM options, as the memory statistics are
+ * measured by the worker.
+ * 
+ * @author Joshua Sprey
+ */
+public class SamplingWorkerPool {
+
+	/**
+	 * A worker JVM. Can only be used by the runner that acquired it.
+	 */
+	public final class Worker {
+
+		private long baselineHeap = -1;
+		private boolean broken = false;
+		/** Indicates whether an algorithm called System.exit in the worker. */
+		private boolean exited = false;
+		private final DataInputStream in;
+		private int jobs = 0;
+		private final String key;
+		private long lastHeap = -1;
+		private final DataOutputStream out;
+		private final Process process;
+		private final Socket socket;
+		private final WorkerOutput stderr;
+		private final WorkerOutput stdout;
+
+		private Worker(String key, Process process, Socket socket, WorkerOutput stdout, WorkerOutput stderr)
+				throws IOException {
+			this.key = key;
+			this.process = process;
+			this.socket = socket;
+			this.stdout = stdout;
+			this.stderr = stderr;
+			in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+			out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+		}
+
+		private void destroy() {
+			try {
+				if (!broken && process.isAlive()) {
+					out.writeByte(SamplingWorker.REQUEST_EXIT);
+					out.flush();
+					process.waitFor(EXIT_TIMEOUT, TimeUnit.MILLISECONDS);
+				}
+			} catch (IOException e) {
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} finally {
+				process.destroyForcibly();
+				try {
+					socket.close();
+				} catch (IOException e) {
+				}
+				workers.remove(this);
+			}
+		}
+
+		private boolean needsRecycling() {
+			if (broken || !process.isAlive()) {
+				return true;
+			}
+			if (exited) {
+				Logger.getInstance().logInfo("Recycling worker after System.exit", 2, true);
+				return true;
+			}
+			if (maxJobs > 0 && jobs >= maxJobs) {
+				Logger.getInstance().logInfo("Recycling worker after " + jobs + " runs", 2, true);
+				return true;
+			}
+			if (maxHeapGrowth > 0 && baselineHeap > 0
+					&& lastHeap > baselineHeap + ((baselineHeap * maxHeapGrowth) / 100)) {
+				Logger.getInstance().logInfo(
+						"Recycling worker after heap growth from " + baselineHeap + " to " + lastHeap + " bytes", 2,
+						true);
+				return true;
+			}
+			return false;
+		}
+
+		private InProcessMeasurement run(List<String> arguments, List<IOutputReader> outputReaderList,
+				List<IOutputReader> errorReaderList, long timeout) {
+			final InProcessMeasurement measurement = new InProcessMeasurement();
+			final CountDownLatch outDone = stdout.attach(outputReaderList);
+			final CountDownLatch errDone = stderr.attach(errorReaderList);
+			final long startTime = System.nanoTime();
+			try {
+				out.writeByte(SamplingWorker.REQUEST_RUN);
+				out.writeInt(arguments.size());
+				for (String argument : arguments) {
+					out.writeUTF(argument);
+				}
+				out.flush();
+				socket.setSoTimeout(timeout >= Integer.MAX_VALUE ? 0 : (int) Math.max(1, timeout));
+
+				measurement.wallTime = in.readLong();
+				measurement.cpuTime = in.readLong();
+				measurement.allocatedBytes = in.readLong();
+				measurement.gcCount = in.readLong();
+				measurement.gcTime = in.readLong();
+				measurement.heapAfterRun = in.readLong();
+				if (in.readBoolean()) {
+					final String message = in.readUTF();
+					measurement.error = new Exception(message);
+					reportError(errorReaderList, message);
+				}
+				exited |= in.readBoolean();
+				measurement.terminatedInTime = true;
+				jobs++;
+				lastHeap = measurement.heapAfterRun;
+				if (baselineHeap < 0) {
+					baselineHeap = measurement.heapAfterRun;
+				}
+				outDone.await(OUTPUT_TIMEOUT, TimeUnit.MILLISECONDS);
+				errDone.await(OUTPUT_TIMEOUT, TimeUnit.MILLISECONDS);
+			} catch (SocketTimeoutException e) {
+				broken = true;
+				measurement.terminatedInTime = false;
+			} catch (IOException e) {
+				// The worker terminated, e.g., because System.exit could not be trapped
+				broken = true;
+				measurement.terminatedInTime = true;
+				measurement.wallTime = System.nanoTime() - startTime;
+				measurement.error = e;
+				reportError(errorReaderList, "Worker terminated unexpectedly: " + e);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				broken = true;
+			} finally {
+				if (broken) {
+					process.destroyForcibly();
+				}
+				stdout.detach();
+				stderr.detach();
+			}
+			return measurement;
+		}
+	}
+
+	/**
+	 * Forwards the output of a worker to the readers of the current run.
+	 */
+	private static final class WorkerOutput implements IOutputReader {
+
+		private final List<IOutputReader> defaultReaderList;
+		private CountDownLatch done = new CountDownLatch(0);
+		private List<IOutputReader> readerList;
+
+		private WorkerOutput(IOutputReader defaultReader) {
+			defaultReaderList = Collections.singletonList(defaultReader);
+			readerList = defaultReaderList;
+		}
+
+		private synchronized CountDownLatch attach(List<IOutputReader> readerList) {
+			this.readerList = readerList;
+			done = new CountDownLatch(1);
+			return done;
+		}
+
+		private synchronized void detach() {
+			readerList = defaultReaderList;
+		}
+
+		private void forward(List<IOutputReader> readerList, String line) {
+			for (IOutputReader outputReader : readerList) {
+				try {
+					outputReader.readOutput(line);
+				} catch (Exception e) {
+				}
+			}
+		}
+
+		@Override
+		public void readOutput(String line) throws Exception {
+			final List<IOutputReader> currentReaderList;
+			final CountDownLatch currentDone;
+			synchronized (this) {
+				currentReaderList = readerList;
+				currentDone = done;
+			}
+			if (line.endsWith(SamplingWorker.DONE_MARKER)) {
+				// The marker may be appended to an unterminated line of the algorithm
+				final String rest = line.substring(0, line.length() - SamplingWorker.DONE_MARKER.length());
+				if (!rest.isEmpty()) {
+					forward(currentReaderList, rest);
+				}
+				currentDone.countDown();
+			} else {
+				forward(currentReaderList, line);
+			}
+		}
+	}
+
+	/** Time in milliseconds a new worker may take to connect to the pool. */
+	private static final long CONNECT_TIMEOUT = 60_000;
+	/** Time in milliseconds a worker may take to exit after a request. */
+	private static final long EXIT_TIMEOUT = 1_000;
+	/**
+	 * JVM options for garbage collector logs, which are removed for workers
+	 * together with the telemetry agent.
+	 */
+	private static final List<String> GC_LOG_OPTIONS = Arrays.asList("-Xlog:gc", "-Xloggc", "-XX:+PrintGC");
+	/** Time in milliseconds to wait for the remaining output of a run. */
+	private static final long OUTPUT_TIMEOUT = 5_000;
+
+	private static void reportError(List<IOutputReader> errorReaderList, String message) {
+		for (IOutputReader outputReader : errorReaderList) {
+			try {
+				outputReader.readOutput(message);
+			} catch (Exception e) {
+			}
+		}
+	}
+
+	private volatile boolean disposed = false;
+	private final ConcurrentHashMap<String, ConcurrentLinkedDeque<Worker>> idleWorkers = new ConcurrentHashMap<>();
+	private final int maxHeapGrowth;
+	private final int maxJobs;
+	private final int warmUpIterations;
+	private final Set<Worker> workers = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * @param maxJobs          Number of runs after which a worker is replaced (0 =
+	 *                         unlimited).
+	 * @param maxHeapGrowth    Growth of the retained heap in percent after which a
+	 *                         worker is replaced (0 = unlimited).
+	 * @param warmUpIterations Number of unmeasured runs executed by each new worker
+	 *                         before its first measured run.
+	 */
+	public SamplingWorkerPool(int maxJobs, int maxHeapGrowth, int warmUpIterations) {
+		this.maxJobs = Math.max(0, maxJobs);
+		this.maxHeapGrowth = Math.max(0, maxHeapGrowth);
+		this.warmUpIterations = Math.max(0, warmUpIterations);
+	}
+
+	/**
+	 * Returns an idle worker for the given command or starts a new one.
+	 * 
+	 * @param command The command of the algorithm.
+	 * @param cores   The cores a new worker is pinned to. Empty for no pinning.
+	 * @return The worker, which must be returned via {@link #release(Worker)}.
+	 * @throws Exception If no worker could be started.
+	 */
+	public Worker acquire(JavaCommand command, int[] cores) throws Exception {
+		final List<String> jvmOptions = getWorkerJvmOptions(command);
+		final String key = command.getJavaExecutable() + " " + jvmOptions + " " + command.getClassPath() + " "
+				+ command.getMainClass() + " " + Arrays.toString(cores);
+		final ConcurrentLinkedDeque<Worker> idle = idleWorkers.computeIfAbsent(key,
+				k -> new ConcurrentLinkedDeque<>());
+		for (Worker worker = idle.pollFirst(); worker != null; worker = idle.pollFirst()) {
+			if (worker.process.isAlive()) {
+				return worker;
+			}
+			worker.destroy();
+		}
+		return startWorker(key, command, jvmOptions, cores);
+	}
+
+	/**
+	 * Terminates all workers.
+	 */
+	public void dispose() {
+		disposed = true;
+		for (Worker worker : new ArrayList<>(workers)) {
+			worker.destroy();
+		}
+		idleWorkers.clear();
+	}
+
+	/**
+	 * Executes one measured run on the given worker.
+	 * 
+	 * @param worker           The acquired worker.
+	 * @param command          The command of the algorithm.
+	 * @param outputReaderList Readers for the standard output of the run.
+	 * @param errorReaderList  Readers for the error output of the run.
+	 * @param timeout          Timeout in milliseconds.
+	 * @return The measurements of the run.
+	 */
+	public InProcessMeasurement execute(Worker worker, JavaCommand command, List<IOutputReader> outputReaderList,
+			List<IOutputReader> errorReaderList, long timeout) {
+		return worker.run(command.getArguments(), outputReaderList, errorReaderList, timeout);
+	}
+
+	/**
+	 * @param worker An acquired worker.
+	 * @return {@link Boolean#TRUE} if the worker can execute further runs.
+	 */
+	public boolean isUsable(Worker worker) {
+		return !worker.broken && worker.process.isAlive();
+	}
+
+	/**
+	 * @return The number of unmeasured runs executed by each new worker.
+	 */
+	public int getWarmUpIterations() {
+		return warmUpIterations;
+	}
+
+	private List<String> getWorkerJvmOptions(JavaCommand command) {
+		final List<String> jvmOptions = new ArrayList<>();
+		optionLoop: for (String option : command.getJvmOptions()) {
+			if (TelemetryAnalyzer.isAgentOption(option)) {
+				continue;
+			}
+			for (String gcLogOption : GC_LOG_OPTIONS) {
+				if (option.startsWith(gcLogOption)) {
+					continue optionLoop;
+				}
+			}
+			jvmOptions.add(option);
+		}
+		return jvmOptions;
+	}
+
+	/**
+	 * Returns a worker to the pool. Workers that failed or that have to be
+	 * recycled are terminated.
+	 * 
+	 * @param worker The acquired worker.
+	 */
+	public void release(Worker worker) {
+		if (disposed || worker.needsRecycling()) {
+			worker.destroy();
+		} else {
+			idleWorkers.get(worker.key).addFirst(worker);
+		}
+	}
+
+	private Worker startWorker(String key, JavaCommand command, List<String> jvmOptions, int[] cores)
+			throws Exception {
+		final String workerClassPath = Paths
+				.get(SamplingWorker.class.getProtectionDomain().getCodeSource().getLocation().toURI()).toString();
+		try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+			final List<String> workerCommand = new ArrayList<>();
+			workerCommand.add(command.getJavaExecutable());
+			workerCommand.addAll(jvmOptions);
+			final String exitTrapOption = SystemExitTrap.getJvmOption();
+			if (exitTrapOption != null) {
+				workerCommand.add(exitTrapOption);
+			}
+			workerCommand.add("-cp");
+			workerCommand.add(workerClassPath);
+			workerCommand.add(SamplingWorker.class.getName());
+			workerCommand.add(Integer.toString(serverSocket.getLocalPort()));
+			workerCommand.add(command.getClassPath());
+			workerCommand.add(command.getMainClass());
+			Logger.getInstance().logInfo("Starting worker: " + String.join(" ", workerCommand), 2, true);
+
+			final Process process = new ProcessBuilder(SamplingProcessRunner.applyCpuAffinity(workerCommand, cores))
+					.start();
+			final WorkerOutput stdout = new WorkerOutput(new OutStreamReader());
+			final WorkerOutput stderr = new WorkerOutput(new ErrStreamReader());
+			final StreamRedirector outRedirector = new StreamRedirector(Collections.singletonList(stdout));
+			final StreamRedirector errRedirector = new StreamRedirector(Collections.singletonList(stderr));
+			outRedirector.setInputStream(process.getInputStream());
+			errRedirector.setInputStream(process.getErrorStream());
+			final Thread outThread = new Thread(outRedirector, "SamplingWorker-out");
+			final Thread errThread = new Thread(errRedirector, "SamplingWorker-err");
+			outThread.setDaemon(true);
+			errThread.setDaemon(true);
+			outThread.start();
+			errThread.start();
+
+			// Wait for the connection while the worker is alive
+			serverSocket.setSoTimeout(1000);
+			final long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT;
+			while (true) {
+				try {
+					final Socket socket = serverSocket.accept();
+					final Worker worker;
+					try {
+						socket.setTcpNoDelay(true);
+						worker = new Worker(key, process, socket, stdout, stderr);
+					} catch (IOException e) {
+						socket.close();
+						process.destroyForcibly();
+						throw e;
+					}
+					workers.add(worker);
+					if (disposed) {
+						worker.destroy();
+						throw new IllegalStateException("Worker pool was disposed");
+					}
+					return worker;
+				} catch (SocketTimeoutException e) {
+					if (!process.isAlive() || System.currentTimeMillis() > deadline) {
+						process.destroyForcibly();
+						throw new IOException("Worker for " + command.getMainClass() + " did not start");
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Executes the unmeasured warm-up runs on a new worker. The output file of the
+	 * algorithm is removed after each warm-up run.
+	 * 
+	 * @param worker    The acquired worker.
+	 * @param algorithm The algorithm, already prepared via
+	 *                  {@link ASamplingAlgorithm#preProcess()}.
+	 * @param command   The command of the algorithm.
+	 * @param timeout   Timeout in milliseconds for each run.
+	 * @return The measurements of the warm-up runs, or an empty list if the worker
+	 *         was already used before.
+	 * @throws IOException If the output file cannot be removed.
+	 */
+	public List<InProcessMeasurement> warmUp(Worker worker, ASamplingAlgorithm algorithm, JavaCommand command,
+			long timeout) throws IOException {
+		if (worker.jobs > 0 || warmUpIterations == 0) {
+			return Collections.emptyList();
+		}
+		final List<InProcessMeasurement> measurements = new ArrayList<>(warmUpIterations);
+		final List<IOutputReader> noReaders = Collections.emptyList();
+		for (int i = 0; i < warmUpIterations; i++) {
+			final InProcessMeasurement measurement = worker.run(command.getArguments(), noReaders, noReaders,
+					timeout);
+			Files.deleteIfExists(algorithm.getPathOfOutputFile());
+			measurements.add(measurement);
+			Logger.getInstance().logInfo("Warm-up " + (i + 1) + "/" + warmUpIterations + ": "
+					+ (measurement.getWallTime() / 1_000_000L) + "ms", 2, true);
+			if (worker.broken) {
+				break;
+			}
+		}
+		// Recycling only considers measured runs
+		worker.jobs = 0;
+		worker.baselineHeap = -1;
+		return measurements;
+	}
+
+}
@@ -0,0 +1,57 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.util.List;
+
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
+
+/**
+ * Executes Java-based sampling algorithms on a warm worker JVM of a
+ * {@link SamplingWorkerPool}. New workers are pinned to the cores given by
+ * {@link #setCpuAffinity(int[])}.
+ * 
+ * @author Joshua Sprey
+ */
+public class SamplingWorkerPoolRunner extends AMeasuredSamplingRunner {
+
+	private final SamplingWorkerPool pool;
+	/** The worker acquired for the current run. */
+	private SamplingWorkerPool.Worker worker;
+
+	public SamplingWorkerPoolRunner(SamplingWorkerPool pool) {
+		this.pool = pool;
+	}
+
+	@Override
+	protected InProcessMeasurement executeCommand(JavaCommand command, List<IOutputReader> outputReaderList,
+			List<IOutputReader> errorReaderList) throws Exception {
+		try {
+			if (worker == null || !pool.isUsable(worker)) {
+				if (worker != null) {
+					pool.release(worker);
+				}
+				worker = pool.acquire(command, getCpuAffinity());
+			}
+			return pool.execute(worker, command, outputReaderList, errorReaderList, getTimeout());
+		} finally {
+			if (worker != null) {
+				pool.release(worker);
+				worker = null;
+			}
+		}
+	}
+
+	@Override
+	protected List<InProcessMeasurement> warmUp(ASamplingAlgorithm algorithm, JavaCommand command)
+			throws Exception {
+		worker = pool.acquire(command, getCpuAffinity());
+		try {
+			return pool.warmUp(worker, algorithm, command, getTimeout());
+		} catch (Exception e) {
+			pool.release(worker);
+			worker = null;
+			throw e;
+		}
+	}
+
+}
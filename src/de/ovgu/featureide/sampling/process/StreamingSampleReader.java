@@ -0,0 +1,184 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.sampling.algorithms.ASamplingAlgorithm;
+import de.ovgu.featureide.sampling.eval.coverage.IncrementalTWiseCoverage;
+import de.ovgu.featureide.sampling.logger.IOutputReader;
+import de.ovgu.featureide.sampling.logger.Logger;
+
+/**
+ * Reads the configurations that a sampling process emits on its standard output
+ * while it is running (see
+ * {@link ASamplingAlgorithm#parseStreamedConfiguration(String)}) and updates an
+ * {@link IncrementalTWiseCoverage} with each configuration. The time at which
+ * the coverage levels {@link #COVERAGE_LEVELS} are reached is recorded. When a
+ * target coverage is given, the sampling process is stopped as soon as the
+ * target is reached and the streamed configurations are used as its sample.
+ *
+ * @author Joshua Sprey
+ */
+public class StreamingSampleReader implements IOutputReader {
+
+	/** Coverage levels for which the time to reach them is recorded. */
+	public static final double[] COVERAGE_LEVELS = { 0.5, 0.9, 0.99 };
+
+	private final ASamplingAlgorithm algorithm;
+	private final List<LiteralSet> configurations = new ArrayList<>();
+	private final IncrementalTWiseCoverage coverage;
+	/** Number of configurations after which each coverage level was reached. */
+	private final long[] configurationsToCoverage = new long[COVERAGE_LEVELS.length];
+	private Process process;
+	private long startTime;
+	private final double targetCoverage;
+	private volatile boolean targetReached = false;
+	/** Time in milliseconds after which each coverage level was reached. */
+	private final long[] timeToCoverage = new long[COVERAGE_LEVELS.length];
+	private final IVariables variables;
+
+	/**
+	 * @param algorithm      The algorithm that parses the output.
+	 * @param variables      The variables of the randomized model of the run.
+	 * @param coverage       The coverage counter for the randomized model of the
+	 *                       run.
+	 * @param targetCoverage Coverage at which the sampling process is stopped. 0
+	 *                       to let the process finish.
+	 */
+	public StreamingSampleReader(ASamplingAlgorithm algorithm, IVariables variables,
+			IncrementalTWiseCoverage coverage, double targetCoverage) {
+		this.algorithm = algorithm;
+		this.variables = variables;
+		this.coverage = coverage;
+		this.targetCoverage = targetCoverage;
+		Arrays.fill(configurationsToCoverage, -1);
+		Arrays.fill(timeToCoverage, -1);
+	}
+
+	/**
+	 * @return The number of configurations after which each level of
+	 *         {@link #COVERAGE_LEVELS} was reached or <code>-1</code>.
+	 */
+	public synchronized long[] getConfigurationsToCoverage() {
+		return configurationsToCoverage.clone();
+	}
+
+	/**
+	 * @return The coverage of the streamed configurations.
+	 */
+	public synchronized double getCoverage() {
+		return coverage.getCoverage();
+	}
+
+	/**
+	 * @return The number of streamed configurations.
+	 */
+	public synchronized int getStreamedConfigurations() {
+		return configurations.size();
+	}
+
+	/**
+	 * @return The streamed configurations.
+	 */
+	public synchronized SolutionList getSolutionList() {
+		return new SolutionList(variables, new ArrayList<>(configurations));
+	}
+
+	/**
+	 * @return The time in milliseconds after which each level of
+	 *         {@link #COVERAGE_LEVELS} was reached or <code>-1</code>.
+	 */
+	public synchronized long[] getTimeToCoverage() {
+		return timeToCoverage.clone();
+	}
+
+	/**
+	 * @return {@link Boolean#TRUE} if the process was stopped because the target
+	 *         coverage was reached.
+	 */
+	public boolean isTargetReached() {
+		return targetReached;
+	}
+
+	/**
+	 * Checks that every literal of a configuration refers to a variable of the
+	 * model and that no variable occurs twice, so a configuration is either added
+	 * to both the sample and the coverage or to neither.
+	 */
+	private boolean isValid(int[] configuration) {
+		final boolean[] seen = new boolean[variables.size() + 1];
+		for (int literal : configuration) {
+			final int variable = Math.abs(literal);
+			if (variable <= 0 || variable > variables.size() || seen[variable]) {
+				return false;
+			}
+			seen[variable] = true;
+		}
+		return true;
+	}
+
+	@Override
+	public synchronized void readOutput(String line) throws Exception {
+		final int[] configuration = algorithm.parseStreamedConfiguration(line);
+		if (configuration == null || targetReached) {
+			return;
+		}
+		if (!isValid(configuration)) {
+			Logger.getInstance().logError("Skipped malformed streamed configuration: " + line, true);
+			return;
+		}
+		final long elapsedTime = (System.nanoTime() - startTime) / 1_000_000L;
+		final int[] literals = configuration.clone();
+		if (literals.length == variables.size()) {
+			// Complete configurations are stored with one literal per variable index
+			configurations.add(new LiteralSet(literals, Order.INDEX));
+		} else {
+			Arrays.sort(literals);
+			configurations.add(new LiteralSet(literals, Order.NATURAL, false));
+		}
+		coverage.add(configuration);
+
+		final double currentCoverage = coverage.getCoverage();
+		for (int i = 0; i < COVERAGE_LEVELS.length; i++) {
+			if (timeToCoverage[i] < 0 && currentCoverage >= COVERAGE_LEVELS[i]) {
+				timeToCoverage[i] = elapsedTime;
+				configurationsToCoverage[i] = configurations.size();
+			}
+		}
+		if (targetCoverage > 0 && currentCoverage >= targetCoverage) {
+			targetReached = true;
+			Logger.getInstance().logInfo("\tTarget coverage reached after " + configurations.size()
+					+ " configurations (" + elapsedTime + "ms)", 2, true);
+			if (process != null) {
+				process.destroyForcibly();
+			}
+		}
+	}
+
+	/**
+	 * Copies the recorded times and numbers of configurations into the results.
+	 *
+	 * @param result The results of the run.
+	 */
+	public synchronized void setResult(SamplingResults result) {
+		result.setStreamedConfigurations(configurations.size());
+		result.setTimeToCoverage(timeToCoverage.clone());
+	}
+
+	/**
+	 * Starts the measurement of the time to coverage.
+	 *
+	 * @param process The sampling process, which is stopped when the target
+	 *                coverage is reached, or <code>null</code> if the run cannot be
+	 *                stopped.
+	 */
+	public synchronized void start(Process process) {
+		this.process = process;
+		this.startTime = System.nanoTime();
+	}
+}
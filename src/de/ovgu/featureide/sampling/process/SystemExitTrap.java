@@ -0,0 +1,151 @@
+package de.ovgu.featureide.sampling.process;
+
+import java.security.Permission;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Security manager that turns calls of {@link System#exit(int)} and
+ * {@link Runtime#halt(int)} by a sampling algorithm into an
+ * {@link ExitException}, such that the JVM executing the algorithm survives its
+ * end. Exits are only trapped in a thread that executes a run (see
+ * {@link #begin()}) and in the threads started by it. All other permissions are
+ * granted.
+ *
+ * Java 18 and later only allow a security manager if the JVM was started with
+ * <i>-Djava.security.manager=allow</i>. Otherwise, {@link #install()} fails and
+ * exits are not trapped.
+ *
+ * @author Joshua Sprey
+ */
+final class SystemExitTrap extends SecurityManager {
+
+	/**
+	 * Thrown instead of terminating the JVM.
+	 */
+	static final class ExitException extends SecurityException {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int status;
+
+		private ExitException(int status) {
+			super("System.exit(" + status + ")");
+			this.status = status;
+		}
+
+		/**
+		 * @return The exit status passed by the algorithm.
+		 */
+		int getStatus() {
+			return status;
+		}
+	}
+
+	/**
+	 * The first exit requested during a run.
+	 */
+	static final class Run {
+
+		private volatile ExitException exit = null;
+
+		/**
+		 * @return The first trapped exit of the run or <code>null</code> if the
+		 *         algorithm did not request an exit.
+		 */
+		ExitException getExit() {
+			return exit;
+		}
+
+		private synchronized void setExit(ExitException exit) {
+			if (this.exit == null) {
+				this.exit = exit;
+			}
+		}
+	}
+
+	private static final InheritableThreadLocal<Run> CURRENT_RUN = new InheritableThreadLocal<>();
+	private static boolean installed = false;
+
+	/**
+	 * Starts to trap the exits of the current thread and of the threads it starts.
+	 * Must be followed by {@link #end()}.
+	 *
+	 * @return The run, which records the first trapped exit.
+	 */
+	static Run begin() {
+		final Run run = new Run();
+		CURRENT_RUN.set(run);
+		return run;
+	}
+
+	/**
+	 * Stops to trap the exits of the current thread. Threads started during the
+	 * run still have their exits trapped.
+	 */
+	static void end() {
+		CURRENT_RUN.remove();
+	}
+
+	/**
+	 * Returns the JVM option that allows to install the security manager in a new
+	 * JVM. Assumes that the new JVM has the same version as the current one.
+	 *
+	 * @return The option or <code>null</code> if no option is required.
+	 */
+	static String getJvmOption() {
+		// "1.8" for Java 8, the option is only known since Java 12
+		final String version = System.getProperty("java.specification.version", "");
+		try {
+			return !version.startsWith("1.") && Integer.parseInt(version) >= 12 ? "-Djava.security.manager=allow"
+					: null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Installs the security manager if no other security manager is installed.
+	 *
+	 * @return {@link Boolean#TRUE} if exits are trapped.
+	 */
+	@SuppressWarnings("removal")
+	static synchronized boolean install() {
+		if (!installed) {
+			if (System.getSecurityManager() != null) {
+				return false;
+			}
+			// The common pool does not use the context class loader if it is created with
+			// a security manager
+			ForkJoinPool.commonPool();
+			try {
+				System.setSecurityManager(new SystemExitTrap());
+			} catch (UnsupportedOperationException | SecurityException e) {
+				return false;
+			}
+			installed = true;
+		}
+		return true;
+	}
+
+	private SystemExitTrap() {
+	}
+
+	@Override
+	public void checkExit(int status) {
+		final Run run = CURRENT_RUN.get();
+		if (run != null) {
+			final ExitException exit = new ExitException(status);
+			run.setExit(exit);
+			throw exit;
+		}
+	}
+
+	@Override
+	public void checkPermission(Permission permission) {
+	}
+
+	@Override
+	public void checkPermission(Permission permission, Object context) {
+	}
+
+}
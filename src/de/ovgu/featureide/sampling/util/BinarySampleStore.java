@@ -0,0 +1,358 @@
+package de.ovgu.featureide.sampling.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.IVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet.Order;
+import de.ovgu.featureide.fm.core.analysis.cnf.SolutionList;
+import de.ovgu.featureide.sampling.eval.samplestability.Sample;
+
+/**
+ * Stores samples of one model in a compact binary format. The names of all
+ * features are written once into a dictionary file ({@value #DICTIONARY_NAME})
+ * in the directory of the store. Each sample is written into its own file
+ * ({@value #FILE_EXTENSION}), in which every configuration is packed into a
+ * bitset of the selected features over the dictionary. Only configurations
+ * that do not assign every feature of the dictionary additionally contain a
+ * bitset of the deselected features. The configurations can optionally be
+ * compressed.
+ *
+ * The dictionary is append-only, such that the indexes of stored samples stay
+ * valid when samples with unknown features are added.
+ *
+ * @author Joshua Sprey
+ */
+public class BinarySampleStore {
+
+	/** Name of the dictionary file in the directory of the store. */
+	public static final String DICTIONARY_NAME = "variables.txt";
+	/** File extension of stored samples. */
+	public static final String FILE_EXTENSION = ".bsample";
+
+	private static final byte COMPLETE_CONFIGURATION = 0;
+	private static final byte FLAG_COMPRESSED = 1;
+	private static final int MAGIC = 0x42534D50;
+	private static final byte PARTIAL_CONFIGURATION = 1;
+	private static final byte VERSION = 1;
+
+	private static int getBitsetLength(int variableCount) {
+		return (variableCount + 63) >>> 6;
+	}
+
+	private boolean compress = true;
+	private final Path directory;
+	/** Index of each feature name in the dictionary. */
+	private final Map<String, Integer> indexes = new HashMap<>();
+	/** Feature names of the dictionary in the order of their indexes. */
+	private final List<String> names = new ArrayList<>();
+
+	/**
+	 * Opens the store in the given directory. An existing dictionary is loaded.
+	 *
+	 * @param directory The directory of the store.
+	 * @throws IOException If the directory cannot be created or the dictionary
+	 *                     cannot be read.
+	 */
+	public BinarySampleStore(Path directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory);
+		final Path dictionaryFile = directory.resolve(DICTIONARY_NAME);
+		if (Files.exists(dictionaryFile)) {
+			for (String name : Files.readAllLines(dictionaryFile, StandardCharsets.UTF_8)) {
+				addName(name);
+			}
+		}
+	}
+
+	private void addName(String name) {
+		indexes.put(name, names.size());
+		names.add(name);
+	}
+
+	/**
+	 * Adds all unknown feature names of a sample to the dictionary.
+	 *
+	 * @param sample The sample.
+	 * @return The index in the dictionary of the store for each entry of the
+	 *         dictionary of the sample, or <code>-1</code> for unused entries.
+	 * @throws IOException If the dictionary cannot be written.
+	 */
+	private int[] extendDictionary(Sample sample) throws IOException {
+		final String[] sampleDictionary = sample.getDictionary();
+		final boolean[] used = new boolean[sampleDictionary.length];
+		for (int[] configuration : sample) {
+			for (int literal : configuration) {
+				used[Math.abs(literal)] = true;
+			}
+		}
+		final List<String> newNames = new ArrayList<>();
+		for (int i = 1; i < used.length; i++) {
+			if (used[i] && !indexes.containsKey(sampleDictionary[i])) {
+				addName(sampleDictionary[i]);
+				newNames.add(sampleDictionary[i]);
+			}
+		}
+		if (!newNames.isEmpty()) {
+			// New names are sorted, such that the configurations of a new dictionary are
+			// read in the same order as the former text format
+			newNames.sort(null);
+			final int firstIndex = names.size() - newNames.size();
+			for (int i = 0; i < newNames.size(); i++) {
+				names.set(firstIndex + i, newNames.get(i));
+				indexes.put(newNames.get(i), firstIndex + i);
+			}
+			Files.write(directory.resolve(DICTIONARY_NAME), newNames, StandardCharsets.UTF_8,
+					StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		}
+		final int[] storeIndexes = new int[sampleDictionary.length];
+		for (int i = 0; i < storeIndexes.length; i++) {
+			storeIndexes[i] = used[i] ? indexes.get(sampleDictionary[i]) : -1;
+		}
+		return storeIndexes;
+	}
+
+	/**
+	 * @param name The name of the sample.
+	 * @return The file of the sample.
+	 */
+	public Path getFile(String name) {
+		return directory.resolve(name + FILE_EXTENSION);
+	}
+
+	/**
+	 * @param compress Whether the configurations of new samples are compressed.
+	 */
+	public void setCompress(boolean compress) {
+		this.compress = compress;
+	}
+
+	/**
+	 * Writes a sample. An existing sample with the same name is replaced.
+	 *
+	 * @param name   The name of the sample.
+	 * @param sample The sample.
+	 * @throws IOException If the sample cannot be written.
+	 */
+	public synchronized void write(String name, Sample sample) throws IOException {
+		final int[] storeIndexes = extendDictionary(sample);
+		final int variableCount = names.size();
+		final int bitsetLength = getBitsetLength(variableCount);
+
+		final Path file = getFile(name);
+		final Path tempFile = Files.createTempFile(directory, name, ".tmp");
+		try {
+			try (DataOutputStream header = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+				header.writeInt(MAGIC);
+				header.writeByte(VERSION);
+				header.writeByte(compress ? FLAG_COMPRESSED : 0);
+				header.writeInt(variableCount);
+				header.writeInt(sample.size());
+				header.flush();
+
+				final Deflater deflater = compress ? new Deflater(Deflater.BEST_SPEED) : null;
+				try {
+					final OutputStream payloadStream = compress ? new DeflaterOutputStream(header, deflater)
+							: header;
+					final DataOutputStream payload = new DataOutputStream(payloadStream);
+					final long[] selected = new long[bitsetLength];
+					final long[] deselected = new long[bitsetLength];
+					for (int[] configuration : sample) {
+						Arrays.fill(selected, 0);
+						Arrays.fill(deselected, 0);
+						int assigned = 0;
+						for (int literal : configuration) {
+							if (literal < 0) {
+								final int index = storeIndexes[-literal];
+								deselected[index >>> 6] |= 1L << index;
+							} else if (literal > 0) {
+								final int index = storeIndexes[literal];
+								selected[index >>> 6] |= 1L << index;
+							} else {
+								continue;
+							}
+							assigned++;
+						}
+						final boolean complete = assigned == variableCount;
+						payload.writeByte(complete ? COMPLETE_CONFIGURATION : PARTIAL_CONFIGURATION);
+						for (long word : selected) {
+							payload.writeLong(word);
+						}
+						if (!complete) {
+							for (long word : deselected) {
+								payload.writeLong(word);
+							}
+						}
+					}
+					payload.flush();
+					if (payloadStream instanceof DeflaterOutputStream) {
+						((DeflaterOutputStream) payloadStream).finish();
+					}
+				} finally {
+					if (deflater != null) {
+						deflater.end();
+					}
+				}
+			}
+			try {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/**
+	 * Reads the configurations of a sample as selected and deselected bitsets.
+	 *
+	 * @param name     The name of the sample.
+	 * @param consumer Receives the bitsets of each configuration.
+	 * @throws IOException If the sample cannot be read.
+	 */
+	private void read(String name, ConfigurationConsumer consumer) throws IOException {
+		try (DataInputStream header = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(getFile(name))))) {
+			if (header.readInt() != MAGIC) {
+				throw new IOException(getFile(name) + " is not a binary sample");
+			}
+			final byte version = header.readByte();
+			if (version != VERSION) {
+				throw new IOException("Unsupported version " + version + " of " + getFile(name));
+			}
+			final boolean compressed = (header.readByte() & FLAG_COMPRESSED) != 0;
+			final int variableCount = header.readInt();
+			final int configurationCount = header.readInt();
+			if (variableCount > names.size()) {
+				throw new IOException(getFile(name) + " refers to unknown dictionary entries");
+			}
+
+			final InputStream payloadStream = compressed ? new InflaterInputStream(header) : header;
+			final DataInputStream payload = new DataInputStream(payloadStream);
+			final int bitsetLength = getBitsetLength(variableCount);
+			final long[] selected = new long[bitsetLength];
+			final long[] deselected = new long[bitsetLength];
+			for (int i = 0; i < configurationCount; i++) {
+				final boolean complete = payload.readByte() == COMPLETE_CONFIGURATION;
+				for (int j = 0; j < bitsetLength; j++) {
+					selected[j] = payload.readLong();
+				}
+				for (int j = 0; j < bitsetLength; j++) {
+					deselected[j] = complete ? ~selected[j] : payload.readLong();
+				}
+				consumer.accept(selected, deselected, variableCount);
+			}
+		}
+	}
+
+	/**
+	 * Reads a sample. The sample uses the dictionary of the store, in which the
+	 * literal <i>i + 1</i> refers to the feature at index <i>i</i>, and the
+	 * features of each configuration are ordered as in the dictionary.
+	 *
+	 * @param name The name of the sample.
+	 * @return The sample.
+	 * @throws IOException If the sample cannot be read.
+	 */
+	public synchronized Sample readSample(String name) throws IOException {
+		final String[] dictionary = new String[names.size() + 1];
+		for (int index = 0; index < names.size(); index++) {
+			dictionary[index + 1] = names.get(index);
+		}
+		final Sample sample = new Sample(dictionary);
+		final int[] literals = new int[names.size()];
+		read(name, (selected, deselected, variableCount) -> {
+			int size = 0;
+			for (int index = 0; index < variableCount; index++) {
+				if ((selected[index >>> 6] & (1L << index)) != 0) {
+					literals[size++] = index + 1;
+				} else if ((deselected[index >>> 6] & (1L << index)) != 0) {
+					literals[size++] = -(index + 1);
+				}
+			}
+			sample.add(Arrays.copyOf(literals, size));
+		});
+		return sample;
+	}
+
+	/**
+	 * Reads a sample as solution list of a model. Features of the sample that are
+	 * not part of the model are ignored.
+	 *
+	 * @param name      The name of the sample.
+	 * @param variables The variables of the model.
+	 * @return The solution list.
+	 * @throws IOException If the sample cannot be read.
+	 */
+	public synchronized SolutionList readSolutionList(String name, IVariables variables) throws IOException {
+		final int[] variableIndexes = new int[names.size()];
+		for (int index = 0; index < variableIndexes.length; index++) {
+			variableIndexes[index] = variables.getVariable(names.get(index));
+		}
+		final List<LiteralSet> solutions = new ArrayList<>();
+		final int[] literals = new int[variables.maxVariableID() + 1];
+		read(name, (selected, deselected, variableCount) -> {
+			// Literals are collected at the position of their variable to keep the
+			// order of the model
+			Arrays.fill(literals, 0);
+			int literalCount = 0;
+			for (int index = 0; index < variableCount; index++) {
+				final int variable = variableIndexes[index];
+				if (variable > 0) {
+					if ((selected[index >>> 6] & (1L << index)) != 0) {
+						literals[variable] = variable;
+						literalCount++;
+					} else if ((deselected[index >>> 6] & (1L << index)) != 0) {
+						literals[variable] = -variable;
+						literalCount++;
+					}
+				}
+			}
+			final int[] solution = new int[literalCount];
+			int position = 0;
+			for (int literal : literals) {
+				if (literal != 0) {
+					solution[position++] = literal;
+				}
+			}
+			if (literalCount == variables.size()) {
+				solutions.add(new LiteralSet(solution, Order.INDEX, false));
+			} else {
+				// Partial configurations cannot be indexed by variable
+				solutions.add(new LiteralSet(solution, Order.NATURAL));
+			}
+		});
+		return new SolutionList(variables, solutions);
+	}
+
+	/**
+	 * Receives the bitsets of a configuration. The bitsets are reused for the next
+	 * configuration.
+	 */
+	@FunctionalInterface
+	private interface ConfigurationConsumer {
+		void accept(long[] selected, long[] deselected, int variableCount);
+	}
+}
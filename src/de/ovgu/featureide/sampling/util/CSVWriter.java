@@ -1,6 +1,8 @@
 package de.ovgu.featureide.sampling.util;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -8,12 +10,21 @@ import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.Timer;
+import java.util.TimerTask;
 
 /**
  * This class is responsible to write results of the sampling framework properly
  * to CSV files. Generally one {@link CSVWriter} is created for each output file
  * and supports the process to write information into these files.
  * 
+ * By default, each {@link #flush()} opens, appends to, and closes the file. In
+ * streaming mode (see {@link #open(int, long)}) the file is kept open until
+ * {@link #close()} and flushed lines are buffered and written once the buffer
+ * exceeds a given size or a given time has passed. All methods that modify the
+ * rows of the writer are synchronized, such that rows can be produced by
+ * concurrent threads.
+ * 
  * @author Joshua Sprey
  * @author Sebastian Krieter
  *
@@ -24,9 +35,24 @@ public class CSVWriter {
 
 	/** Indicates whether a writer should recreate or append to the file. */
 	private boolean append = false;
+	/**
+	 * Contains flushed lines that are not yet written to the file in streaming
+	 * mode.
+	 */
+	private final StringBuilder buffer = new StringBuilder();
+	/** The open channel to the csv file in streaming mode. */
+	private FileChannel channel;
+	/** Time in milliseconds after which buffered lines are written. */
+	private long flushInterval = 0;
+	/** Number of buffered characters after which buffered lines are written. */
+	private int flushSize = 0;
+	/** Periodically writes buffered lines in streaming mode. */
+	private Timer flushTimer;
 	/** Contains all headers for the csv file. */
 	private List<String> header = null;
 	private boolean keepLines = false;
+	/** Time of the last write to the file in streaming mode. */
+	private long lastWrite;
 
 	/** Indicates that a new file should be created. */
 	private boolean newFile = true;
@@ -49,7 +75,7 @@ public class CSVWriter {
 	 * 
 	 * @param headerValue The new header to add to the csv file.
 	 */
-	public void addHeaderValue(String headerValue) {
+	public synchronized void addHeaderValue(String headerValue) {
 		header.add(headerValue);
 	}
 
@@ -59,17 +85,39 @@ public class CSVWriter {
 	 * 
 	 * @param line The new header to add to the csv file.
 	 */
-	public void addLine(List<String> line) {
+	public synchronized void addLine(List<String> line) {
 		values.add(line);
 	}
 
+	/**
+	 * Writes all buffered lines and closes the file. Afterwards, the writer is no
+	 * longer in streaming mode. Does nothing if the writer is not in streaming
+	 * mode.
+	 * 
+	 * @throws IOException If the lines cannot be written.
+	 */
+	public synchronized void close() throws IOException {
+		if (channel != null) {
+			if (flushTimer != null) {
+				flushTimer.cancel();
+				flushTimer = null;
+			}
+			try {
+				sync();
+			} finally {
+				channel.close();
+				channel = null;
+			}
+		}
+	}
+
 	/**
 	 * Adds a new entry to the current row of the csv writer. Does not write the
 	 * information to the file. For that use the {@link CSVWriter#flush()} method.
 	 * 
 	 * @param o Value to add.
 	 */
-	public void addValue(Object o) {
+	public synchronized void addValue(Object o) {
 		values.get(values.size() - 1).add(o.toString());
 	}
 
@@ -82,7 +130,7 @@ public class CSVWriter {
 	 * 
 	 * @see CSVWriter#addValue(Object)
 	 */
-	public void createNewLine() {
+	public synchronized void createNewLine() {
 		values.add(new ArrayList<>());
 	}
 
@@ -102,20 +150,31 @@ public class CSVWriter {
 	 * from the writer when {@link CSVWriter#setKeepLines(boolean)} hasn't been set
 	 * to {@link Boolean#TRUE}.
 	 */
-	public void flush() {
+	public synchronized void flush() {
 		if (path != null) {
+			if (channel != null) {
+				// Lines are moved into the buffer, such that they are written exactly once
+				for (int i = nextLine; i < values.size(); i++) {
+					writer(buffer, values.get(i));
+				}
+				removeFlushedLines();
+				if (buffer.length() >= flushSize
+						|| (flushInterval > 0 && System.currentTimeMillis() - lastWrite >= flushInterval)) {
+					try {
+						writeBuffer();
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+				return;
+			}
 			final StringBuilder sb = new StringBuilder();
 			for (int i = nextLine; i < values.size(); i++) {
 				writer(sb, values.get(i));
 			}
 			try {
 				Files.write(path, sb.toString().getBytes(), StandardOpenOption.APPEND);
-				if (keepLines) {
-					nextLine = values.size();
-				} else {
-					values.subList(1, values.size()).clear();
-					nextLine = 1;
-				}
+				removeFlushedLines();
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -170,10 +229,51 @@ public class CSVWriter {
 		return keepLines;
 	}
 
+	/**
+	 * Switches the writer into streaming mode. The csv file is opened once and
+	 * stays open until {@link #close()} is called. Lines that are flushed via
+	 * {@link #flush()} are buffered and only written to the file when the buffer
+	 * contains at least <code>flushSize</code> characters or when the last write
+	 * is at least <code>flushInterval</code> milliseconds ago. Must be called
+	 * after the file name has been set.
+	 * 
+	 * @param flushSize     Number of buffered characters after which the lines are
+	 *                      written (0 = write on each flush).
+	 * @param flushInterval Time in milliseconds after which buffered lines are
+	 *                      written (0 = only depend on the buffer size).
+	 * @throws IOException If the file cannot be opened.
+	 */
+	public synchronized void open(int flushSize, long flushInterval) throws IOException {
+		if (channel == null) {
+			this.flushSize = Math.max(0, flushSize);
+			this.flushInterval = Math.max(0, flushInterval);
+			channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+			lastWrite = System.currentTimeMillis();
+			if (this.flushInterval > 0) {
+				flushTimer = new Timer("CSVWriter-" + path.getFileName(), true);
+				flushTimer.schedule(new TimerTask() {
+					@Override
+					public void run() {
+						flushBuffer();
+					}
+				}, this.flushInterval, this.flushInterval);
+			}
+		}
+	}
+
+	private void removeFlushedLines() {
+		if (keepLines) {
+			nextLine = values.size();
+		} else {
+			values.subList(1, values.size()).clear();
+			nextLine = 1;
+		}
+	}
+
 	/**
 	 * Resets the csv writer by removing all cached values. Does not
 	 */
-	public void reset() {
+	public synchronized void reset() {
 		if (!values.isEmpty()) {
 			values.subList(1, values.size()).clear();
 		}
@@ -183,7 +283,7 @@ public class CSVWriter {
 	/**
 	 * Removes the last row from the csv writer.
 	 */
-	public void resetLine() {
+	public synchronized void resetLine() {
 		if (!values.isEmpty()) {
 			values.remove(values.size() - 1);
 		}
@@ -316,6 +416,50 @@ public class CSVWriter {
 		this.separator = separator;
 	}
 
+	/**
+	 * Writes all buffered lines and returns the size of the file. Only available
+	 * in streaming mode.
+	 * 
+	 * @return The size of the file in bytes.
+	 * @throws IOException If the lines cannot be written.
+	 */
+	public synchronized long size() throws IOException {
+		if (channel == null) {
+			throw new IllegalStateException("Writer is not open");
+		}
+		writeBuffer();
+		return channel.size();
+	}
+
+	/**
+	 * Writes all buffered lines to the file and forces the file system to store
+	 * them on the storage device. Should be called at checkpoints of the
+	 * evaluation. Does nothing if the writer is not in streaming mode.
+	 * 
+	 * @throws IOException If the lines cannot be written.
+	 */
+	public synchronized void sync() throws IOException {
+		if (channel != null) {
+			writeBuffer();
+			channel.force(false);
+		}
+	}
+
+	/**
+	 * Writes all buffered lines and removes all content of the file behind the
+	 * given size. Only available in streaming mode.
+	 * 
+	 * @param size The size of the file in bytes.
+	 * @throws IOException If the file cannot be truncated.
+	 */
+	public synchronized void truncate(long size) throws IOException {
+		if (channel == null) {
+			throw new IllegalStateException("Writer is not open");
+		}
+		writeBuffer();
+		channel.truncate(size);
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -325,6 +469,38 @@ public class CSVWriter {
 		return sb.toString();
 	}
 
+	/**
+	 * Adds a data row and flushes it in one atomic operation, such that rows of
+	 * concurrent producers are not interleaved.
+	 * 
+	 * @param line The values of the data row.
+	 */
+	public synchronized void writeLine(List<String> line) {
+		addLine(line);
+		flush();
+	}
+
+	private synchronized void flushBuffer() {
+		if (channel != null && System.currentTimeMillis() - lastWrite >= flushInterval) {
+			try {
+				writeBuffer();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	private void writeBuffer() throws IOException {
+		if (buffer.length() > 0) {
+			final ByteBuffer bytes = ByteBuffer.wrap(buffer.toString().getBytes());
+			while (bytes.hasRemaining()) {
+				channel.write(bytes);
+			}
+			buffer.setLength(0);
+		}
+		lastWrite = System.currentTimeMillis();
+	}
+
 	private void writer(StringBuilder sb, List<String> line) {
 		for (String value : line) {
 			if (value != null) {
@@ -0,0 +1,198 @@
+package de.ovgu.featureide.sampling.util;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.fm.core.analysis.cnf.IInternalVariables;
+import de.ovgu.featureide.fm.core.analysis.cnf.LiteralSet;
+
+/**
+ * Writes a {@link CNF} in the DIMACS format including the variable directory,
+ * producing the same content as
+ * {@link de.ovgu.featureide.fm.core.io.dimacs.DIMACSFormatCNF}. Instead of
+ * building the whole document as string, the exact size of the file is
+ * computed first and the clauses are streamed in small chunks directly into a
+ * memory-mapped buffer of that size.
+ *
+ * @author Joshua Sprey
+ */
+public class MappedDimacsWriter {
+
+	private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.UTF_8);
+	/** Size of the chunks that are copied into the mapped buffer at once. */
+	private static final int CHUNK_SIZE = 1 << 16;
+	/** Maximum size of a mapped region of the file. */
+	private static final int REGION_SIZE = 1 << 30;
+
+	/**
+	 * @param value A number.
+	 * @return The number of characters of the decimal representation of the
+	 *         number.
+	 */
+	private static int getLength(int value) {
+		if (value < 0) {
+			return value == Integer.MIN_VALUE ? 11 : getLength(-value) + 1;
+		}
+		int length = 1;
+		for (int bound = 10; length < 10 && value >= bound; bound *= 10) {
+			length++;
+		}
+		return length;
+	}
+
+	/**
+	 * @param clause The literals of a clause.
+	 * @return The number of bytes of the line of the clause.
+	 */
+	private static int getLength(int[] clause) {
+		int length = 1 + LINE_SEPARATOR.length;
+		for (int literal : clause) {
+			length += getLength(literal) + 1;
+		}
+		return length;
+	}
+
+	/**
+	 * Writes a CNF into a file. An existing file is replaced.
+	 *
+	 * @param cnf  The CNF.
+	 * @param file The file.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public static void write(CNF cnf, Path file) throws IOException {
+		new MappedDimacsWriter(cnf, file).write();
+	}
+
+	private MappedByteBuffer buffer;
+	private FileChannel channel;
+	/** Bytes that are not copied into the mapped buffer yet. */
+	private final byte[] chunk = new byte[CHUNK_SIZE];
+	private int chunkLength;
+	private final CNF cnf;
+	private final Path file;
+	private long regionStart;
+	private long size;
+
+	private MappedDimacsWriter(CNF cnf, Path file) {
+		this.cnf = cnf;
+		this.file = file;
+	}
+
+	private void map() throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.min(REGION_SIZE, size - regionStart));
+	}
+
+	private void flush() throws IOException {
+		int offset = 0;
+		while (offset < chunkLength) {
+			if (!buffer.hasRemaining()) {
+				regionStart += buffer.capacity();
+				map();
+			}
+			final int length = Math.min(chunkLength - offset, buffer.remaining());
+			buffer.put(chunk, offset, length);
+			offset += length;
+		}
+		chunkLength = 0;
+	}
+
+	private void put(byte value) throws IOException {
+		if (chunkLength == CHUNK_SIZE) {
+			flush();
+		}
+		chunk[chunkLength++] = value;
+	}
+
+	private void put(int[] clause) throws IOException {
+		for (int literal : clause) {
+			put(literal);
+			put((byte) ' ');
+		}
+		put((byte) '0');
+		put(LINE_SEPARATOR);
+	}
+
+	private void put(byte[] values) throws IOException {
+		for (byte value : values) {
+			put(value);
+		}
+	}
+
+	private void put(int value) throws IOException {
+		final int length = getLength(value);
+		if (CHUNK_SIZE - chunkLength < length) {
+			flush();
+		}
+		chunkLength += length;
+		int position = chunkLength;
+		if (value == Integer.MIN_VALUE) {
+			// Cannot be negated as int
+			chunk[--position] = '8';
+			value /= 10;
+		}
+		int remaining = value < 0 ? -value : value;
+		do {
+			final int quotient = remaining / 10;
+			chunk[--position] = (byte) ('0' + (remaining - quotient * 10));
+			remaining = quotient;
+		} while (remaining > 0);
+		if (value < 0) {
+			chunk[--position] = '-';
+		}
+	}
+
+	private void write() throws IOException {
+		final String[] names = cnf.getVariables().getNames();
+		final byte[][] encodedNames = new byte[names.length][];
+		final int variableCount = cnf.getVariables().size();
+		final int clauseCount = cnf.getClauses().size();
+		final IInternalVariables internalVariables = cnf.getInternalVariables();
+
+		// Compute the exact size of the file
+		size = 0;
+		for (int i = 1; i < names.length; i++) {
+			encodedNames[i] = String.valueOf(names[i]).getBytes(StandardCharsets.UTF_8);
+			size += 2 + getLength(i) + 1 + encodedNames[i].length + LINE_SEPARATOR.length;
+		}
+		size += 6 + getLength(variableCount) + 1 + getLength(clauseCount) + LINE_SEPARATOR.length;
+		for (LiteralSet clause : cnf.getClauses()) {
+			size += getLength(internalVariables.convertToInternal(clause).getLiterals());
+		}
+
+		try (FileChannel fileChannel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			channel = fileChannel;
+			regionStart = 0;
+			map();
+
+			// Variable directory
+			for (int i = 1; i < names.length; i++) {
+				put((byte) 'c');
+				put((byte) ' ');
+				put(i);
+				put((byte) ' ');
+				put(encodedNames[i]);
+				put(LINE_SEPARATOR);
+			}
+			// Problem
+			put("p cnf ".getBytes(StandardCharsets.UTF_8));
+			put(variableCount);
+			put((byte) ' ');
+			put(clauseCount);
+			put(LINE_SEPARATOR);
+			// Clauses
+			for (LiteralSet clause : cnf.getClauses()) {
+				put(internalVariables.convertToInternal(clause).getLiterals());
+			}
+			flush();
+		} finally {
+			channel = null;
+			buffer = null;
+		}
+	}
+}
@@ -0,0 +1,98 @@
+package de.ovgu.featureide.sampling.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import de.ovgu.featureide.fm.core.analysis.cnf.CNF;
+import de.ovgu.featureide.sampling.logger.Logger;
+
+/**
+ * Caches the DIMACS files of the randomized models of a run. Each randomized
+ * model is identified by the name of its system and the seed it was randomized
+ * with, and is written only once with the {@link MappedDimacsWriter}. The
+ * working directories of the jobs receive hard links to the cached file instead
+ * of copies, such that all algorithms and algorithm iterations of a system
+ * iteration share the same file. Thus, the model file of a job must not be
+ * modified in place.
+ *
+ * @author Joshua Sprey
+ */
+public class ModelFileCache {
+
+	private static final String FILE_EXTENSION = ".dimacs";
+
+	private final Path directory;
+	/** Cached model files by system name and seed. */
+	private final Map<String, Path> modelFiles = new HashMap<>();
+	/** Whether the file system supports hard links. */
+	private boolean useLinks = true;
+
+	/**
+	 * @param directory The directory of the cached files.
+	 */
+	public ModelFileCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Deletes all cached files, e.g., when the evaluation of a system is finished.
+	 */
+	public synchronized void clear() {
+		for (Path modelFile : modelFiles.values()) {
+			try {
+				Files.deleteIfExists(modelFile);
+			} catch (IOException e) {
+				Logger.getInstance().logError(e);
+			}
+		}
+		modelFiles.clear();
+	}
+
+	/**
+	 * Returns the file of a randomized model. The model is written, if it is not
+	 * cached yet.
+	 *
+	 * @param systemName The name of the system.
+	 * @param seed       The seed the model was randomized with.
+	 * @param cnf        The randomized model.
+	 * @return The cached file.
+	 * @throws IOException If the model cannot be written.
+	 */
+	public synchronized Path getModelFile(String systemName, long seed, CNF cnf) throws IOException {
+		final String key = systemName + "_" + seed;
+		Path modelFile = modelFiles.get(key);
+		if (modelFile == null) {
+			Files.createDirectories(directory);
+			modelFile = directory.resolve(key.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_EXTENSION);
+			MappedDimacsWriter.write(cnf, modelFile);
+			modelFiles.put(key, modelFile);
+		}
+		return modelFile;
+	}
+
+	/**
+	 * Provides a cached file at the given path. A hard link is created if the file
+	 * system supports it, otherwise the file is copied. An existing file at the
+	 * path is replaced.
+	 *
+	 * @param modelFile The cached file.
+	 * @param target    The path of the link.
+	 * @throws IOException If the file can neither be linked nor copied.
+	 */
+	public void link(Path modelFile, Path target) throws IOException {
+		Files.deleteIfExists(target);
+		if (useLinks) {
+			try {
+				Files.createLink(target, modelFile);
+				return;
+			} catch (UnsupportedOperationException | IOException e) {
+				useLinks = false;
+			}
+		}
+		Files.copy(modelFile, target, StandardCopyOption.REPLACE_EXISTING);
+	}
+}
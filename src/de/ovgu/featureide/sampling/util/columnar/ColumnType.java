@@ -0,0 +1,37 @@
+package de.ovgu.featureide.sampling.util.columnar;
+
+/**
+ * The types of the columns of a {@link ColumnarWriter columnar result store}.
+ * Each value of a column is stored with a fixed width, such that the value of a
+ * row can be accessed directly by its offset. Strings are stored as index into
+ * a dictionary of the column. Missing values are represented by a reserved
+ * value of the type.
+ * 
+ * @author Joshua Sprey
+ */
+public enum ColumnType {
+	/** Stored as one byte (0 = false, 1 = true, -1 = missing). */
+	BOOLEAN(1),
+	/** Stored as 32 bit integer ({@link Integer#MIN_VALUE} = missing). */
+	INT(4),
+	/** Stored as 64 bit integer ({@link Long#MIN_VALUE} = missing). */
+	LONG(8),
+	/** Stored as 64 bit floating point number ({@link Double#NaN} = missing). */
+	DOUBLE(8),
+	/** Stored as 32 bit index into the dictionary of the column (-1 = missing). */
+	STRING(4);
+
+	private final int width;
+
+	private ColumnType(int width) {
+		this.width = width;
+	}
+
+	/**
+	 * @return The number of bytes of each value.
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+}
@@ -0,0 +1,242 @@
+package de.ovgu.featureide.sampling.util.columnar;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads a columnar result store that was created by a {@link ColumnarWriter}.
+ * The column files are mapped into memory, such that aggregations can scan the
+ * typed values of a column without parsing. Use {@link #getIntColumn(int)},
+ * {@link #getLongColumn(int)}, and {@link #getDoubleColumn(int)} for scans and
+ * the single value accessors for random access.
+ * 
+ * The reader reflects the rows that were complete when it was opened.
+ * 
+ * @author Joshua Sprey
+ */
+public class ColumnarReader {
+
+	private final MappedByteBuffer[] columns;
+	private final List<List<String>> dictionaries = new ArrayList<>();
+	private final List<String> names = new ArrayList<>();
+	private final int rowCount;
+	private final List<ColumnType> types = new ArrayList<>();
+
+	/**
+	 * Opens a store for reading.
+	 * 
+	 * @param directory The directory of the store.
+	 * @throws IOException If the store cannot be read.
+	 */
+	public ColumnarReader(Path directory) throws IOException {
+		for (String line : Files.readAllLines(directory.resolve(ColumnarWriter.SCHEMA_FILE),
+				StandardCharsets.UTF_8)) {
+			final int separatorIndex = line.indexOf(ColumnarWriter.SCHEMA_SEPARATOR);
+			if (separatorIndex < 0) {
+				throw new IOException("Invalid schema entry: " + line);
+			}
+			types.add(ColumnType.valueOf(line.substring(0, separatorIndex)));
+			names.add(line.substring(separatorIndex + ColumnarWriter.SCHEMA_SEPARATOR.length()));
+		}
+
+		columns = new MappedByteBuffer[types.size()];
+		long minRowCount = Integer.MAX_VALUE;
+		for (int i = 0; i < columns.length; i++) {
+			try (FileChannel channel = FileChannel.open(ColumnarWriter.getColumnFile(directory, i),
+					StandardOpenOption.READ)) {
+				columns[i] = channel.map(MapMode.READ_ONLY, 0, channel.size());
+				minRowCount = Math.min(minRowCount, channel.size() / types.get(i).getWidth());
+			}
+			if (types.get(i) == ColumnType.STRING) {
+				dictionaries.add(Collections.unmodifiableList(
+						Files.readAllLines(ColumnarWriter.getDictionaryFile(directory, i), StandardCharsets.UTF_8)));
+			} else {
+				dictionaries.add(Collections.emptyList());
+			}
+		}
+		rowCount = columns.length > 0 ? (int) minRowCount : 0;
+	}
+
+	private ByteBuffer checkType(int column, ColumnType type) {
+		if (types.get(column) != type) {
+			throw new IllegalArgumentException(
+					"Column " + names.get(column) + " has type " + types.get(column) + " instead of " + type);
+		}
+		return columns[column];
+	}
+
+	private ByteBuffer getColumn(int column, ColumnType type) {
+		final ByteBuffer buffer = checkType(column, type).duplicate();
+		buffer.limit(rowCount * type.getWidth());
+		return buffer;
+	}
+
+	/**
+	 * @param name The name of a column.
+	 * @return The index of the column or <code>-1</code> if there is no such
+	 *         column.
+	 */
+	public int getColumnIndex(String name) {
+		return names.indexOf(name);
+	}
+
+	/**
+	 * @return The number of columns.
+	 */
+	public int getColumnCount() {
+		return names.size();
+	}
+
+	/**
+	 * @return The names of all columns.
+	 */
+	public List<String> getColumnNames() {
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * @param column The index of the column.
+	 * @return The type of the column.
+	 */
+	public ColumnType getColumnType(int column) {
+		return types.get(column);
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#BOOLEAN} column.
+	 * @param row    The index of the row.
+	 * @return The value, or <code>null</code> if the value is missing.
+	 */
+	public Boolean getBoolean(int column, int row) {
+		final byte value = checkType(column, ColumnType.BOOLEAN).get(row);
+		return value < 0 ? null : value != 0;
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#DOUBLE} column.
+	 * @param row    The index of the row.
+	 * @return The value, or {@link Double#NaN} if the value is missing.
+	 */
+	public double getDouble(int column, int row) {
+		return checkType(column, ColumnType.DOUBLE).getDouble(row * ColumnType.DOUBLE.getWidth());
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#DOUBLE} column.
+	 * @return A read-only view of all values of the column.
+	 */
+	public DoubleBuffer getDoubleColumn(int column) {
+		return getColumn(column, ColumnType.DOUBLE).asDoubleBuffer();
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#INT} column.
+	 * @param row    The index of the row.
+	 * @return The value, or {@link Integer#MIN_VALUE} if the value is missing.
+	 */
+	public int getInt(int column, int row) {
+		return checkType(column, ColumnType.INT).getInt(row * ColumnType.INT.getWidth());
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#INT} column.
+	 * @return A read-only view of all values of the column.
+	 */
+	public IntBuffer getIntColumn(int column) {
+		return getColumn(column, ColumnType.INT).asIntBuffer();
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#LONG} column.
+	 * @param row    The index of the row.
+	 * @return The value, or {@link Long#MIN_VALUE} if the value is missing.
+	 */
+	public long getLong(int column, int row) {
+		return checkType(column, ColumnType.LONG).getLong(row * ColumnType.LONG.getWidth());
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#LONG} column.
+	 * @return A read-only view of all values of the column.
+	 */
+	public LongBuffer getLongColumn(int column) {
+		return getColumn(column, ColumnType.LONG).asLongBuffer();
+	}
+
+	/**
+	 * @return The number of rows.
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#STRING} column.
+	 * @param row    The index of the row.
+	 * @return The value, or <code>null</code> if the value is missing.
+	 */
+	public String getString(int column, int row) {
+		final int index = checkType(column, ColumnType.STRING).getInt(row * ColumnType.STRING.getWidth());
+		return index < 0 ? null : dictionaries.get(column).get(index);
+	}
+
+	/**
+	 * @param column The index of a {@link ColumnType#STRING} column.
+	 * @return The distinct values of the column. The stored values of the column
+	 *         are indices into this list.
+	 */
+	public List<String> getDictionary(int column) {
+		return dictionaries.get(column);
+	}
+
+	/**
+	 * Returns the value of any column as string, as it would be written to a csv
+	 * file.
+	 * 
+	 * @param column The index of the column.
+	 * @param row    The index of the row.
+	 * @return The value, or an empty string if the value is missing.
+	 */
+	public String getValue(int column, int row) {
+		switch (types.get(column)) {
+		case BOOLEAN:
+			final Boolean booleanValue = getBoolean(column, row);
+			return booleanValue == null ? "" : booleanValue.toString();
+		case INT:
+			final int intValue = getInt(column, row);
+			return intValue == Integer.MIN_VALUE ? "" : Integer.toString(intValue);
+		case LONG:
+			final long longValue = getLong(column, row);
+			return longValue == Long.MIN_VALUE ? "" : Long.toString(longValue);
+		case DOUBLE:
+			final double doubleValue = getDouble(column, row);
+			if (Double.isNaN(doubleValue)) {
+				return "";
+			} else if (Double.isInfinite(doubleValue)) {
+				return Double.toString(doubleValue);
+			} else {
+				return BigDecimal.valueOf(doubleValue).stripTrailingZeros().toPlainString();
+			}
+		case STRING:
+			final String stringValue = getString(column, row);
+			return stringValue == null ? "" : stringValue;
+		default:
+			throw new IllegalStateException(String.valueOf(types.get(column)));
+		}
+	}
+
+}
@@ -0,0 +1,276 @@
+package de.ovgu.featureide.sampling.util.columnar;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes result rows into a columnar binary store. The store is a directory
+ * that contains a schema file and one file per column, in which the values are
+ * stored with a fixed width in big-endian byte order (see {@link ColumnType}).
+ * String columns additionally have a dictionary file that contains each
+ * distinct string in one line. The store can be read with a
+ * {@link ColumnarReader}, which maps the column files into memory.
+ * 
+ * Rows are given as string values, as created for the csv files, and are
+ * converted into the type of their column once. Values that cannot be
+ * converted and missing values are stored as missing. All methods are
+ * synchronized, such that rows can be written by concurrent threads.
+ * 
+ * @author Joshua Sprey
+ */
+public class ColumnarWriter implements Closeable {
+
+	/** Name of the file that contains the schema of the store. */
+	public static final String SCHEMA_FILE = "schema.txt";
+	/** Separator between the type and the name of a column in the schema file. */
+	static final String SCHEMA_SEPARATOR = ";";
+
+	static Path getColumnFile(Path directory, int column) {
+		return directory.resolve(column + ".col");
+	}
+
+	static Path getDictionaryFile(Path directory, int column) {
+		return directory.resolve(column + ".dict");
+	}
+
+	static List<String> toSchema(List<String> names, List<ColumnType> types) {
+		final List<String> schema = new ArrayList<>(names.size());
+		for (int i = 0; i < names.size(); i++) {
+			schema.add(types.get(i) + SCHEMA_SEPARATOR + names.get(i));
+		}
+		return schema;
+	}
+
+	private final FileChannel[] columns;
+	private final FileChannel[] dictionaries;
+	private final List<HashMap<String, Integer>> dictionaryIndices = new ArrayList<>();
+	private final ByteBuffer[] rowBuffers;
+	private long rowCount;
+	private final List<ColumnType> types;
+
+	/**
+	 * Opens a store for writing. If the store exists, it must have the same
+	 * schema and new rows are appended. Rows that were only partially written,
+	 * e.g., due to a crash, are removed.
+	 * 
+	 * @param directory The directory of the store.
+	 * @param names     The names of the columns.
+	 * @param types     The types of the columns.
+	 * @throws IOException If the store cannot be opened or an existing store has a
+	 *                     different schema.
+	 */
+	public ColumnarWriter(Path directory, List<String> names, List<ColumnType> types) throws IOException {
+		if (names.size() != types.size()) {
+			throw new IllegalArgumentException("Number of column names and types differ");
+		}
+		this.types = new ArrayList<>(types);
+		final List<String> schema = toSchema(names, types);
+		final Path schemaFile = directory.resolve(SCHEMA_FILE);
+		Files.createDirectories(directory);
+		if (Files.exists(schemaFile)) {
+			if (!Files.readAllLines(schemaFile, StandardCharsets.UTF_8).equals(schema)) {
+				throw new IOException("Existing store " + directory + " has a different schema");
+			}
+		} else {
+			Files.write(schemaFile, schema, StandardCharsets.UTF_8);
+		}
+
+		final int columnCount = types.size();
+		columns = new FileChannel[columnCount];
+		dictionaries = new FileChannel[columnCount];
+		rowBuffers = new ByteBuffer[columnCount];
+		rowCount = Long.MAX_VALUE;
+		try {
+			for (int i = 0; i < columnCount; i++) {
+				final ColumnType type = types.get(i);
+				columns[i] = FileChannel.open(getColumnFile(directory, i), StandardOpenOption.CREATE,
+						StandardOpenOption.READ, StandardOpenOption.WRITE);
+				rowBuffers[i] = ByteBuffer.allocate(type.getWidth());
+				rowCount = Math.min(rowCount, columns[i].size() / type.getWidth());
+				final HashMap<String, Integer> dictionaryIndex = new HashMap<>();
+				if (type == ColumnType.STRING) {
+					final Path dictionaryFile = getDictionaryFile(directory, i);
+					if (Files.exists(dictionaryFile)) {
+						for (String value : Files.readAllLines(dictionaryFile, StandardCharsets.UTF_8)) {
+							dictionaryIndex.put(value, dictionaryIndex.size());
+						}
+					}
+					dictionaries[i] = FileChannel.open(dictionaryFile, StandardOpenOption.CREATE,
+							StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+				}
+				dictionaryIndices.add(dictionaryIndex);
+			}
+			// Remove incomplete rows
+			for (int i = 0; i < columnCount; i++) {
+				columns[i].truncate(rowCount * types.get(i).getWidth());
+				columns[i].position(rowCount * types.get(i).getWidth());
+			}
+		} catch (IOException e) {
+			close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Writes all column files and closes the store.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		IOException exception = null;
+		for (FileChannel channel : columns) {
+			exception = close(channel, exception);
+		}
+		for (FileChannel channel : dictionaries) {
+			exception = close(channel, exception);
+		}
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	private IOException close(FileChannel channel, IOException exception) {
+		if (channel != null && channel.isOpen()) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				return exception != null ? exception : e;
+			}
+		}
+		return exception;
+	}
+
+	private void encode(int column, String value) throws IOException {
+		final ByteBuffer buffer = rowBuffers[column];
+		buffer.clear();
+		final String trimmed = value != null ? value.trim() : "";
+		switch (types.get(column)) {
+		case BOOLEAN:
+			buffer.put(trimmed.equalsIgnoreCase("true") ? (byte) 1
+					: trimmed.equalsIgnoreCase("false") ? (byte) 0 : (byte) -1);
+			break;
+		case INT:
+			buffer.putInt((int) parseLong(trimmed, Integer.MIN_VALUE));
+			break;
+		case LONG:
+			buffer.putLong(parseLong(trimmed, Long.MIN_VALUE));
+			break;
+		case DOUBLE:
+			double doubleValue;
+			try {
+				doubleValue = trimmed.isEmpty() ? Double.NaN : Double.parseDouble(trimmed);
+			} catch (NumberFormatException e) {
+				doubleValue = Double.NaN;
+			}
+			buffer.putDouble(doubleValue);
+			break;
+		case STRING:
+			buffer.putInt(value != null ? getDictionaryIndex(column, value) : -1);
+			break;
+		default:
+			throw new IllegalStateException(String.valueOf(types.get(column)));
+		}
+		buffer.flip();
+	}
+
+	/**
+	 * @return The number of complete rows in the store.
+	 */
+	public synchronized long getRowCount() {
+		return rowCount;
+	}
+
+	private int getDictionaryIndex(int column, String value) throws IOException {
+		final String line = value.replace('\r', ' ').replace('\n', ' ');
+		final HashMap<String, Integer> dictionaryIndex = dictionaryIndices.get(column);
+		Integer index = dictionaryIndex.get(line);
+		if (index == null) {
+			index = dictionaryIndex.size();
+			writeFully(dictionaries[column],
+					ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+			dictionaryIndex.put(line, index);
+		}
+		return index;
+	}
+
+	private long parseLong(String value, long missing) {
+		if (value.isEmpty()) {
+			return missing;
+		}
+		try {
+			return Long.parseLong(value);
+		} catch (NumberFormatException e) {
+			try {
+				// Numbers may be formatted with fraction digits
+				return (long) Double.parseDouble(value);
+			} catch (NumberFormatException e2) {
+				return missing;
+			}
+		}
+	}
+
+	/**
+	 * Forces all written rows to be stored on the storage device.
+	 * 
+	 * @throws IOException If the files cannot be synchronized.
+	 */
+	public synchronized void sync() throws IOException {
+		for (int i = 0; i < columns.length; i++) {
+			columns[i].force(false);
+			if (dictionaries[i] != null) {
+				dictionaries[i].force(false);
+			}
+		}
+	}
+
+	/**
+	 * Removes all rows behind the given number of rows. Values that were added to
+	 * the dictionaries are kept, such that existing indices stay valid.
+	 * 
+	 * @param rowCount The number of rows to keep.
+	 * @throws IOException If the columns cannot be truncated.
+	 */
+	public synchronized void truncate(long rowCount) throws IOException {
+		if (rowCount < this.rowCount) {
+			for (int i = 0; i < columns.length; i++) {
+				columns[i].truncate(rowCount * types.get(i).getWidth());
+				columns[i].position(rowCount * types.get(i).getWidth());
+			}
+			this.rowCount = Math.max(0, rowCount);
+		}
+	}
+
+	private void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Appends a row to the store. The i-th value is converted into the type of the
+	 * i-th column. Missing values are stored as missing and surplus values are
+	 * ignored.
+	 * 
+	 * @param row The values of the row.
+	 * @throws IOException If the row cannot be written.
+	 */
+	public synchronized void writeRow(List<String> row) throws IOException {
+		for (int i = 0; i < columns.length; i++) {
+			encode(i, i < row.size() ? row.get(i) : null);
+		}
+		// Dictionaries are written first, such that each stored index is resolvable
+		for (int i = 0; i < columns.length; i++) {
+			writeFully(columns[i], rowBuffers[i]);
+		}
+		rowCount++;
+	}
+
+}